@@ -0,0 +1,122 @@
+package com.vimeo.sample;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample.model.ExternalModelExample;
+import com.vimeo.sample.model.NoUseStagAnnotation;
+import com.vimeo.sample.model.basic.BasicModel1;
+import com.vimeo.sample.model.json_adapter.JsonAdapterExample;
+import com.vimeo.sample.model1.DuplicateName;
+import com.vimeo.sample.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for concurrent use of the generated {@link Stag.Factory}.
+ */
+public class StagFactoryConcurrencyTest {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int ITERATIONS = 2000;
+
+    private static final Class<?>[] MODELS = {
+            ExternalModelExample.class,
+            JsonAdapterExample.class,
+            BasicModel1.class,
+            DuplicateName.class
+    };
+
+    @Test
+    public void factoryHasNoSynchronizedMethods() throws Exception {
+        for (Method method : Stag.Factory.class.getDeclaredMethods()) {
+            assertFalse(method.getName() + " should not be synchronized", Modifier.isSynchronized(method.getModifiers()));
+        }
+    }
+
+    @Test
+    public void concurrentLookupsResolveEveryPackage() throws Exception {
+        final Stag.Factory factory = new Stag.Factory();
+        final Gson gson = new Gson();
+
+        runConcurrently(new Runnable() {
+            @Override
+            public void run() {
+                for (Class<?> model : MODELS) {
+                    assertNotNull(factory.create(gson, TypeToken.get(model)));
+                }
+                assertNull(factory.create(gson, TypeToken.get(String.class)));
+            }
+        });
+    }
+
+    @Test
+    public void steadyStateLookupsDoNotBlock() throws Exception {
+        final Stag.Factory factory = new Stag.Factory();
+        final Gson gson = new Gson();
+
+        // Resolves every package up front, so that class loading does not count as contention
+        assertNull(factory.create(gson, TypeToken.get(String.class)));
+        assertNull(factory.create(gson, TypeToken.get(NoUseStagAnnotation.class)));
+
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final AtomicLong blockedCount = new AtomicLong();
+
+        runConcurrently(new Runnable() {
+            @Override
+            public void run() {
+                long blockedBefore = threadMXBean.getThreadInfo(Thread.currentThread().getId()).getBlockedCount();
+                for (int n = 0; n < ITERATIONS; n++) {
+                    assertNull(factory.create(gson, TypeToken.get(String.class)));
+                    assertNull(factory.create(gson, TypeToken.get(NoUseStagAnnotation.class)));
+                }
+                long blockedAfter = threadMXBean.getThreadInfo(Thread.currentThread().getId()).getBlockedCount();
+                blockedCount.addAndGet(blockedAfter - blockedBefore);
+            }
+        });
+
+        assertEquals(0, blockedCount.get());
+    }
+
+    private static void runConcurrently(final Runnable runnable) throws Exception {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>(THREAD_COUNT);
+        for (int n = 0; n < THREAD_COUNT; n++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        runnable.run();
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
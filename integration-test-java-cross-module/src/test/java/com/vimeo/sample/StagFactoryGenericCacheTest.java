@@ -0,0 +1,33 @@
+package com.vimeo.sample;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample.model.GenericClass;
+import com.vimeo.sample.model.StagFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the cache of generic TypeAdapters in the generated package factories.
+ */
+public class StagFactoryGenericCacheTest {
+
+    @Test
+    public void genericAdaptersAreBuiltOncePerGson() throws Exception {
+        StagFactory factory = new StagFactory();
+        Gson gson = new Gson();
+
+        TypeAdapter<GenericClass<String>> typeAdapter = factory.create(gson, new TypeToken<GenericClass<String>>() {});
+        assertNotNull(typeAdapter);
+        assertSame(typeAdapter, factory.create(gson, new TypeToken<GenericClass<String>>() {}));
+        assertSame(typeAdapter, factory.create(gson, TypeToken.getParameterized(GenericClass.class, String.class)));
+
+        assertNotSame(typeAdapter, factory.create(gson, new TypeToken<GenericClass<Integer>>() {}));
+        assertNotSame(typeAdapter, factory.create(new Gson(), new TypeToken<GenericClass<String>>() {}));
+    }
+}
@@ -0,0 +1,62 @@
+package com.vimeo.sample;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample.model.GenericClass;
+import com.vimeo.sample.model.StagFactory;
+import com.vimeo.sample.stag.generated.Stag;
+import com.vimeo.sample_java_model.ExternalModel1;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests for the TypeAdapters generated for the parameterizations of generic models used in
+ * fields.
+ */
+public class StagFactorySpecializationTest {
+
+    @Test
+    public void specializedAdapterIsUsedForFieldParameterization() throws Exception {
+        StagFactory factory = new StagFactory();
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+        TypeAdapter<GenericClass<ExternalModel1>> typeAdapter =
+                factory.create(gson, new TypeToken<GenericClass<ExternalModel1>>() {});
+        assertNotNull(typeAdapter);
+        assertEquals("GenericClass$TypeAdapter$com_vimeo_sample_java_model_ExternalModel1",
+                     typeAdapter.getClass().getSimpleName());
+
+        // Other parameterizations still use the generic adapter
+        TypeAdapter<GenericClass<String>> genericTypeAdapter =
+                factory.create(gson, new TypeToken<GenericClass<String>>() {});
+        assertNotNull(genericTypeAdapter);
+        assertEquals("GenericClass$TypeAdapter", genericTypeAdapter.getClass().getSimpleName());
+    }
+
+    @Test
+    public void specializedAdapterRoundTrips() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        TypeAdapter<GenericClass<ExternalModel1>> typeAdapter =
+                gson.getAdapter(new TypeToken<GenericClass<ExternalModel1>>() {});
+
+        ExternalModel1 externalModel = new ExternalModel1();
+        externalModel.setField1("value");
+
+        GenericClass<ExternalModel1> genericClass = new GenericClass<>();
+        genericClass.name = externalModel;
+        genericClass.arrayIntegerField = new ArrayList<>(Collections.singletonList(externalModel));
+
+        GenericClass<ExternalModel1> result = typeAdapter.fromJson(typeAdapter.toJson(genericClass));
+        assertEquals("value", result.name.getField1());
+        assertEquals(1, result.arrayIntegerField.size());
+        assertEquals("value", result.arrayIntegerField.get(0).getField1());
+    }
+}
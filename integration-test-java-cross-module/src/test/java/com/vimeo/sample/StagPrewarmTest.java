@@ -0,0 +1,52 @@
+package com.vimeo.sample;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample.model.EnumExample;
+import com.vimeo.sample.model.GenericClass;
+import com.vimeo.sample.model.basic.BasicModel1;
+import com.vimeo.sample.model1.DuplicateName;
+import com.vimeo.sample.stag.generated.Stag;
+import com.vimeo.sample_java_model.ExternalModel1;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the generated {@code Stag.prewarm} method.
+ */
+public class StagPrewarmTest {
+
+    @Test
+    public void prewarmCreatesEveryAdapter() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Map<Type, Long> timings = Stag.prewarm(gson, executor);
+
+            assertTrue(timings.containsKey(BasicModel1.class));
+            assertTrue(timings.containsKey(DuplicateName.class));
+            assertTrue(timings.containsKey(EnumExample.class));
+            assertTrue(timings.containsKey(new TypeToken<GenericClass<ExternalModel1>>() {}.getType()));
+
+            // Generic classes are only pre-warmed for the parameterizations used in fields
+            assertFalse(timings.containsKey(GenericClass.class));
+
+            for (Map.Entry<Type, Long> timing : timings.entrySet()) {
+                assertNotNull(timing.getKey().toString(), timing.getValue());
+                assertTrue(timing.getKey().toString(), timing.getValue() >= 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.vimeo.sample.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.vimeo.sample.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the direct calls between the static read and write methods of generated TypeAdapters.
+ */
+public class DirectAdapterCallsTest {
+
+    @Test
+    public void nestedModelsAreReadAndWrittenDirectly() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        TypeAdapter<ConcreteClass> typeAdapter = gson.getAdapter(ConcreteClass.class);
+        assertTrue(typeAdapter instanceof ConcreteClass$TypeAdapter);
+
+        ConcreteClass concreteClass = new ConcreteClass();
+        concreteClass.doublyNestedModel = new ConcreteClass.NestedModel.DoublyNestedModel();
+        concreteClass.doublyNestedModel.message = "message";
+
+        String json = typeAdapter.toJson(concreteClass);
+        assertEquals("{\"doublyNestedModel\":{\"message\":\"message\"}}", json);
+        assertEquals("message", typeAdapter.fromJson(json).doublyNestedModel.message);
+    }
+
+    @Test
+    public void registeredTypeAdaptersAreStillUsed() throws Exception {
+        // Type adapters registered later take precedence over the ones registered before
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new Stag.Factory())
+                .registerTypeAdapter(ConcreteClass.NestedModel.DoublyNestedModel.class,
+                                     new TypeAdapter<ConcreteClass.NestedModel.DoublyNestedModel>() {
+                                         @Override
+                                         public void write(JsonWriter out, ConcreteClass.NestedModel.DoublyNestedModel value)
+                                                 throws IOException {
+                                             out.value(value.message);
+                                         }
+
+                                         @Override
+                                         public ConcreteClass.NestedModel.DoublyNestedModel read(JsonReader in)
+                                                 throws IOException {
+                                             ConcreteClass.NestedModel.DoublyNestedModel value =
+                                                     new ConcreteClass.NestedModel.DoublyNestedModel();
+                                             value.message = in.nextString();
+                                             return value;
+                                         }
+                                     })
+                .create();
+        TypeAdapter<ConcreteClass> typeAdapter = gson.getAdapter(ConcreteClass.class);
+
+        ConcreteClass concreteClass = new ConcreteClass();
+        concreteClass.doublyNestedModel = new ConcreteClass.NestedModel.DoublyNestedModel();
+        concreteClass.doublyNestedModel.message = "message";
+
+        String json = typeAdapter.toJson(concreteClass);
+        assertEquals("{\"doublyNestedModel\":\"message\"}", json);
+        assertEquals("message", typeAdapter.fromJson(json).doublyNestedModel.message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.vimeo.sample.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the TypeAdapter fields which are resolved on first use, as this module is built with
+ * the {@code stagLazyAdapterFields} option.
+ */
+public class LazyAdapterFieldsTest {
+
+    private static final String JSON = "{\"doublyNestedModel\":{\"message\":\"message\"}}";
+
+    /**
+     * Counts the requests for the TypeAdapter of a class, leaving the creation to the other
+     * factories.
+     */
+    private static final class CountingTypeAdapterFactory implements TypeAdapterFactory {
+
+        private final Class<?> mType;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        CountingTypeAdapterFactory(Class<?> type) {
+            mType = type;
+        }
+
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() == mType) {
+                mCount.incrementAndGet();
+            }
+            return null;
+        }
+    }
+
+    @Test
+    public void nestedTypeAdaptersAreNotCreatedBeforeFirstUse() throws Exception {
+        CountingTypeAdapterFactory countingFactory =
+                new CountingTypeAdapterFactory(ConcreteClass.NestedModel.DoublyNestedModel.class);
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new Stag.Factory())
+                .registerTypeAdapterFactory(countingFactory)
+                .create();
+
+        TypeAdapter<ConcreteClass> typeAdapter = gson.getAdapter(ConcreteClass.class);
+        assertEquals(0, countingFactory.mCount.get());
+
+        assertNull(typeAdapter.fromJson("{}").doublyNestedModel);
+        typeAdapter.toJson(new ConcreteClass());
+        assertEquals(0, countingFactory.mCount.get());
+
+        assertEquals("message", typeAdapter.fromJson(JSON).doublyNestedModel.message);
+        assertEquals(1, countingFactory.mCount.get());
+
+        assertEquals("message", typeAdapter.fromJson(typeAdapter.toJson(typeAdapter.fromJson(JSON))).doublyNestedModel.message);
+        assertEquals(1, countingFactory.mCount.get());
+    }
+
+    @Test
+    public void nestedTypeAdaptersAreSafelyPublishedOnConcurrentFirstReads() throws Exception {
+        int threadCount = 8;
+        for (int round = 0; round < 50; round++) {
+            Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+            final TypeAdapter<ConcreteClass> typeAdapter = gson.getAdapter(ConcreteClass.class);
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread[] threads = new Thread[threadCount];
+            for (int i = 0; i < threadCount; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            assertEquals("message", typeAdapter.fromJson(JSON).doublyNestedModel.message);
+                        } catch (Throwable throwable) {
+                            failure.compareAndSet(null, throwable);
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (failure.get() != null) {
+                throw new AssertionError(failure.get());
+            }
+        }
+    }
+}
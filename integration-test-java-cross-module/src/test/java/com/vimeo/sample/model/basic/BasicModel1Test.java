@@ -1,9 +1,16 @@
 package com.vimeo.sample.model.basic;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
 import com.vimeo.sample.Utils;
+import com.vimeo.sample.stag.generated.Stag;
+import com.vimeo.stag.FieldOrderCounter;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * Unit tests for {@link BasicModel1}.
  */
@@ -14,4 +21,24 @@ public class BasicModel1Test {
         Utils.verifyTypeAdapterGeneration(BasicModel1.class);
     }
 
+    @Test
+    public void fieldOrderCounterCountsNamesReadInDeclaredOrder() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        TypeAdapter<BasicModel1> typeAdapter = gson.getAdapter(BasicModel1.class);
+        FieldOrderCounter counter = BasicModel1$TypeAdapter.FIELD_ORDER_COUNTER;
+
+        counter.reset();
+        BasicModel1 model = typeAdapter.fromJson("{\"name\":\"name\",\"age\":1,\"awards\":[\"award\"]}");
+        assertEquals("name", model.getName());
+        assertEquals(3, counter.getHits());
+        assertEquals(0, counter.getMisses());
+        assertEquals(1, counter.getHitRate(), 0);
+
+        counter.reset();
+        model = typeAdapter.fromJson("{\"awards\":[\"award\"],\"name\":\"name\",\"age\":1}");
+        assertEquals(1, model.getAge());
+        assertEquals(1, counter.getHits());
+        assertEquals(2, counter.getMisses());
+    }
+
 }
@@ -0,0 +1,46 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.util.List;
+
+/**
+ * A model which embeds the same users and tags many times.
+ */
+@UseStag
+public class CanonicalFeed {
+
+    @SerializedName("owner")
+    private CanonicalUser mOwner;
+
+    @SerializedName("users")
+    private List<CanonicalUser> mUsers;
+
+    @SerializedName("tags")
+    private List<CanonicalTag> mTags;
+
+    public CanonicalUser getOwner() {
+        return mOwner;
+    }
+
+    public void setOwner(CanonicalUser owner) {
+        mOwner = owner;
+    }
+
+    public List<CanonicalUser> getUsers() {
+        return mUsers;
+    }
+
+    public void setUsers(List<CanonicalUser> users) {
+        mUsers = users;
+    }
+
+    public List<CanonicalTag> getTags() {
+        return mTags;
+    }
+
+    public void setTags(List<CanonicalTag> tags) {
+        mTags = tags;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.CanonicalById;
+import com.vimeo.stag.UseStag;
+
+/**
+ * A model which is repeated in the JSON, and shared across documents.
+ */
+@UseStag
+@CanonicalById(value = "id", crossParseCapacity = 2)
+public class CanonicalTag {
+
+    @SerializedName("id")
+    private int mId;
+
+    @SerializedName("label")
+    private String mLabel;
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public String getLabel() {
+        return mLabel;
+    }
+
+    public void setLabel(String label) {
+        mLabel = label;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.CanonicalById;
+import com.vimeo.stag.UseStag;
+
+/**
+ * A model which is repeated in the JSON, and shared within a document.
+ */
+@UseStag
+@CanonicalById("id")
+public class CanonicalUser {
+
+    @SerializedName("name")
+    private String mName;
+
+    @SerializedName("id")
+    private String mId;
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public String getId() {
+        return mId;
+    }
+
+    public void setId(String id) {
+        mId = id;
+    }
+}
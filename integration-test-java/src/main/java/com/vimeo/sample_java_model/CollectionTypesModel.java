@@ -0,0 +1,58 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A model with sets, deques, sorted maps and enum collections.
+ */
+@UseStag
+public class CollectionTypesModel {
+
+    @SerializedName("set")
+    public Set<String> mSet;
+
+    @SerializedName("hash_set")
+    public HashSet<Integer> mHashSet;
+
+    @SerializedName("linked_hash_set")
+    public LinkedHashSet<String> mLinkedHashSet;
+
+    @SerializedName("tree_set")
+    public TreeSet<String> mTreeSet;
+
+    @SerializedName("deque")
+    public Deque<Long> mDeque;
+
+    @SerializedName("array_deque")
+    public ArrayDeque<String> mArrayDeque;
+
+    @SerializedName("sorted_map")
+    public SortedMap<String, Integer> mSortedMap;
+
+    @SerializedName("tree_map")
+    public TreeMap<Integer, String> mTreeMap;
+
+    @SerializedName("enum_set")
+    public EnumSet<UnknownValueEnum> mEnumSet;
+
+    @SerializedName("enum_map")
+    public EnumMap<UnknownValueEnum, String> mEnumMap;
+
+    @SerializedName("versions")
+    public EnumSet<AlternateNameModel1> mVersions;
+
+    @SerializedName("version_names")
+    public EnumMap<AlternateNameModel1, String> mVersionNames;
+}
@@ -0,0 +1,36 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A model with identifier and address fields of types known to Stag.
+ */
+@UseStag
+public class IdentifierModel {
+
+    @SerializedName("id")
+    public UUID mId;
+
+    @SerializedName("uri")
+    public URI mUri;
+
+    @SerializedName("url")
+    public URL mUrl;
+
+    @SerializedName("locale")
+    public Locale mLocale;
+
+    @SerializedName("address")
+    public InetAddress mAddress;
+
+    @SerializedName("names")
+    public Map<UUID, String> mNames;
+}
@@ -0,0 +1,35 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.Intern;
+import com.vimeo.stag.UseStag;
+
+/**
+ * A model whose repeated values are read as canonical Strings.
+ */
+@UseStag
+public class InternModel {
+
+    @Intern
+    @SerializedName("status")
+    private String mStatus;
+
+    @SerializedName("name")
+    private String mName;
+
+    public String getStatus() {
+        return mStatus;
+    }
+
+    public void setStatus(String status) {
+        mStatus = status;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+}
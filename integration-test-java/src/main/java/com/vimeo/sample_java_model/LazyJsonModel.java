@@ -0,0 +1,47 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.LazyJson;
+import com.vimeo.stag.UseStag;
+
+import java.util.List;
+
+/**
+ * A model whose large fields are only decoded when they are accessed.
+ */
+@UseStag
+public class LazyJsonModel {
+
+    @SerializedName("name")
+    private String mName;
+
+    @SerializedName("metadata")
+    private LazyJson<ReadIntoModel> mMetadata;
+
+    @SerializedName("pictures")
+    private LazyJson<List<ViewModel>> mPictures;
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public LazyJson<ReadIntoModel> getMetadata() {
+        return mMetadata;
+    }
+
+    public void setMetadata(LazyJson<ReadIntoModel> metadata) {
+        mMetadata = metadata;
+    }
+
+    public LazyJson<List<ViewModel>> getPictures() {
+        return mPictures;
+    }
+
+    public void setPictures(LazyJson<List<ViewModel>> pictures) {
+        mPictures = pictures;
+    }
+}
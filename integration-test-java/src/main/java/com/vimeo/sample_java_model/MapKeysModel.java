@@ -0,0 +1,24 @@
+package com.vimeo.sample_java_model;
+
+import com.vimeo.stag.UseStag;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A test case for maps with keys that are written as JSON names.
+ */
+@UseStag
+public class MapKeysModel {
+
+    public Map<String, Integer> stringKeys;
+
+    public HashMap<Integer, String> integerKeys;
+
+    public LinkedHashMap<Boolean, Double> booleanKeys;
+
+    public Map<EnumWithFieldsModel, String> enumKeys;
+
+    public Map<Long, Map<String, Integer>> nestedMaps;
+}
@@ -0,0 +1,113 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A model whose fields are not written when they are equal to their default values.
+ */
+@UseStag(omitDefaults = true)
+public class OmitDefaultsModel {
+
+    @SerializedName("count")
+    private int mCount;
+
+    @SerializedName("enabled")
+    private boolean mEnabled;
+
+    @SerializedName("ratio")
+    private double mRatio = 1.5;
+
+    @SerializedName("title")
+    private String mTitle = "";
+
+    @SerializedName("description")
+    private String mDescription;
+
+    @SerializedName("tags")
+    private List<String> mTags = new ArrayList<>();
+
+    @SerializedName("labels")
+    private List<String> mLabels;
+
+    @SerializedName("ids")
+    private int[] mIds = new int[0];
+
+    @SerializedName("names")
+    private String[] mNames = {};
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public void setCount(int count) {
+        mCount = count;
+    }
+
+    public boolean getEnabled() {
+        return mEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public double getRatio() {
+        return mRatio;
+    }
+
+    public void setRatio(double ratio) {
+        mRatio = ratio;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        mTitle = title;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    public List<String> getTags() {
+        return mTags;
+    }
+
+    public void setTags(List<String> tags) {
+        mTags = tags;
+    }
+
+    public List<String> getLabels() {
+        return mLabels;
+    }
+
+    public void setLabels(List<String> labels) {
+        mLabels = labels;
+    }
+
+    public int[] getIds() {
+        return mIds;
+    }
+
+    public void setIds(int[] ids) {
+        mIds = ids;
+    }
+
+    public String[] getNames() {
+        return mNames;
+    }
+
+    public void setNames(String[] names) {
+        mNames = names;
+    }
+}
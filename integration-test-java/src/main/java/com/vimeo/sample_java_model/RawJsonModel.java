@@ -0,0 +1,47 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.RawJson;
+import com.vimeo.stag.UseStag;
+
+import java.util.List;
+
+/**
+ * A model which passes sub-documents through without decoding them.
+ */
+@UseStag
+public class RawJsonModel {
+
+    @SerializedName("id")
+    private int mId;
+
+    @SerializedName("payload")
+    private RawJson mPayload;
+
+    @SerializedName("items")
+    private List<RawJson> mItems;
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public RawJson getPayload() {
+        return mPayload;
+    }
+
+    public void setPayload(RawJson payload) {
+        mPayload = payload;
+    }
+
+    public List<RawJson> getItems() {
+        return mItems;
+    }
+
+    public void setItems(List<RawJson> items) {
+        mItems = items;
+    }
+}
@@ -0,0 +1,69 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model with nested models, collections and maps, which are reused by readInto.
+ */
+@UseStag
+public class ReadIntoModel {
+
+    @SerializedName("count")
+    private int mCount;
+
+    @SerializedName("name")
+    private String mName;
+
+    @SerializedName("child")
+    private ViewModel mChild;
+
+    @SerializedName("tags")
+    private List<String> mTags;
+
+    @SerializedName("counts")
+    private Map<String, Integer> mCounts;
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public void setCount(int count) {
+        mCount = count;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public ViewModel getChild() {
+        return mChild;
+    }
+
+    public void setChild(ViewModel child) {
+        mChild = child;
+    }
+
+    public List<String> getTags() {
+        return mTags;
+    }
+
+    public void setTags(List<String> tags) {
+        mTags = tags;
+    }
+
+    public Map<String, Integer> getCounts() {
+        return mCounts;
+    }
+
+    public void setCounts(Map<String, Integer> counts) {
+        mCounts = counts;
+    }
+}
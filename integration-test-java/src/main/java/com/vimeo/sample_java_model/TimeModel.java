@@ -0,0 +1,47 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.TimeFormat;
+import com.vimeo.stag.UseStag;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Date;
+
+/**
+ * A model with date and time fields in both formats, and a Date field left to Gson.
+ */
+@UseStag
+public class TimeModel {
+
+    @TimeFormat(TimeFormat.Style.ISO_8601)
+    @SerializedName("created")
+    public Date mCreated;
+
+    @TimeFormat(TimeFormat.Style.EPOCH_MILLIS)
+    @SerializedName("modified")
+    public Date mModified;
+
+    @SerializedName("published")
+    public Date mPublished;
+
+    @SerializedName("instant")
+    public Instant mInstant;
+
+    @TimeFormat(TimeFormat.Style.EPOCH_MILLIS)
+    @SerializedName("instant_millis")
+    public Instant mInstantMillis;
+
+    @SerializedName("offset_date_time")
+    public OffsetDateTime mOffsetDateTime;
+
+    @TimeFormat(TimeFormat.Style.ISO_8601)
+    @SerializedName("local_date")
+    public LocalDate mLocalDate;
+
+    @TimeFormat(TimeFormat.Style.EPOCH_MILLIS)
+    @SerializedName("local_date_time")
+    public LocalDateTime mLocalDateTime;
+}
@@ -0,0 +1,20 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UnknownValue;
+import com.vimeo.stag.UseStag;
+
+/**
+ * An enum which reads unknown values as a fallback constant.
+ */
+@UseStag
+public enum UnknownValueEnum {
+    @SerializedName(value = "available", alternate = {"ready"})
+    AVAILABLE,
+
+    @SerializedName("unavailable")
+    UNAVAILABLE,
+
+    @UnknownValue
+    UNKNOWN
+}
@@ -0,0 +1,59 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.StagView;
+import com.vimeo.stag.UseStag;
+
+/**
+ * A model whose fields are written by different views.
+ */
+@UseStag
+public class ViewModel {
+
+    @StagView({"summary", "detail"})
+    @SerializedName("id")
+    private long mId;
+
+    @StagView({"summary", "detail"})
+    @SerializedName("title")
+    private String mTitle;
+
+    @StagView("detail")
+    @SerializedName("description")
+    private String mDescription;
+
+    @SerializedName("secret")
+    private String mSecret;
+
+    public long getId() {
+        return mId;
+    }
+
+    public void setId(long id) {
+        mId = id;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        mTitle = title;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        mDescription = description;
+    }
+
+    public String getSecret() {
+        return mSecret;
+    }
+
+    public void setSecret(String secret) {
+        mSecret = secret;
+    }
+}
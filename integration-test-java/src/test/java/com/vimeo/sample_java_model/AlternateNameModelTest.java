@@ -1,15 +1,53 @@
 package com.vimeo.sample_java_model;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.StagJsonReader;
+
 import org.junit.Test;
 
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Created by restainoa on 2/2/17.
  */
 public class AlternateNameModelTest {
 
+    private static final String JSON = "{\"unknown\":{\"Kitkat\":1},\"Lollipop\":\"L\",\"4.0\":\"Ice Cream Sandwich\",\"Nougat1\":\"N\"}";
+
     @Test
     public void typeAdapterWasGenerated() throws Exception {
         Utils.verifyTypeAdapterGeneration(AlternateNameModel.class);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void alternateNamesAreMatchedByAllReaders() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        TypeAdapter<AlternateNameModel> typeAdapter = gson.getAdapter(AlternateNameModel.class);
+
+        JsonReader[] readers = {new JsonReader(new StringReader(JSON)), new StagJsonReader(new StringReader(JSON))};
+        for (JsonReader reader : readers) {
+            AlternateNameModel model = typeAdapter.read(reader);
+            assertEquals("L", model.getAndroidVersions());
+            assertEquals("Ice Cream Sandwich", model.getAndroidNameVersions());
+        }
+    }
+
+    @Test
+    public void nullFieldsAreWrittenOnlyIfNullsAreSerialized() throws Exception {
+        AlternateNameModel model = new AlternateNameModel();
+        model.setAndroidVersions("N");
+
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+        assertEquals("{\"Nougat\":\"N\"}", gson.toJson(model));
+
+        Gson nullsGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).serializeNulls().create();
+        assertEquals("{\"Nougat\":\"N\",\"7.0\":null}", nullsGson.toJson(model));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.CanonicalById;
+import com.vimeo.stag.StagJsonReader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the models annotated with {@link CanonicalById}.
+ */
+public class CanonicalByIdTest {
+
+    private static final String JSON = "{\"owner\":{\"name\":\"First\",\"id\":\"1\"}," +
+                                       "\"users\":[{\"id\":\"1\",\"name\":\"Second\",\"extra\":{\"a\":[1]}},{\"id\":\"2\"}," +
+                                       "{\"name\":\"Anonymous\"},{\"name\":\"Anonymous\"},{\"name\":\"Third\",\"id\":\"2\"}]," +
+                                       "\"tags\":[{\"id\":1,\"label\":\"a\"},{\"id\":1,\"label\":\"b\"},{\"label\":\"c\"},{\"label\":\"d\"}]}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Before
+    public void setUp() throws Exception {
+        CanonicalTag$TypeAdapter.CANONICAL_TABLE.clear();
+    }
+
+    @Test
+    public void typeAdaptersWereGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(CanonicalUser.class);
+        Utils.verifyTypeAdapterGeneration(CanonicalTag.class);
+        Utils.verifyTypeAdapterGeneration(CanonicalFeed.class);
+    }
+
+    @Test
+    public void repeatedInstancesAreSharedWithinADocument() throws Exception {
+        TypeAdapter<CanonicalFeed> typeAdapter = mGson.getAdapter(CanonicalFeed.class);
+        CanonicalFeed feed = typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+
+        assertEquals("First", feed.getOwner().getName());
+        assertSame(feed.getOwner(), feed.getUsers().get(0));
+        assertEquals("2", feed.getUsers().get(1).getId());
+        assertNull(feed.getUsers().get(1).getName());
+        assertSame(feed.getUsers().get(1), feed.getUsers().get(4));
+        assertNotSame(feed.getUsers().get(2), feed.getUsers().get(3));
+
+        CanonicalFeed otherFeed = typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+        assertNotSame(feed.getOwner(), otherFeed.getOwner());
+    }
+
+    @Test
+    public void instancesAreNotSharedWithoutStagJsonReader() throws Exception {
+        CanonicalFeed feed = mGson.fromJson(JSON, CanonicalFeed.class);
+        assertNotSame(feed.getOwner(), feed.getUsers().get(0));
+        assertEquals("Second", feed.getUsers().get(0).getName());
+    }
+
+    @Test
+    public void crossParseInstancesAreShared() throws Exception {
+        CanonicalFeed feed = mGson.fromJson(JSON, CanonicalFeed.class);
+        CanonicalFeed otherFeed = mGson.fromJson(JSON, CanonicalFeed.class);
+
+        assertEquals("a", feed.getTags().get(0).getLabel());
+        assertSame(feed.getTags().get(0), feed.getTags().get(1));
+        assertSame(feed.getTags().get(0), otherFeed.getTags().get(0));
+        assertEquals("c", feed.getTags().get(2).getLabel());
+        assertEquals("d", feed.getTags().get(3).getLabel());
+        assertEquals(1, CanonicalTag$TypeAdapter.CANONICAL_TABLE.size());
+    }
+}
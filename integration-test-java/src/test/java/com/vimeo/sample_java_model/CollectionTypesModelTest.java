@@ -0,0 +1,85 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the set, deque, sorted map and enum collection fields of
+ * {@link CollectionTypesModel}.
+ */
+public class CollectionTypesModelTest {
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(CollectionTypesModel.class);
+    }
+
+    @Test
+    public void collectionsAreReadAsTheirTypes() throws Exception {
+        String json = "{\"set\":[\"b\",\"a\",\"b\"],\"hash_set\":[1,2],\"linked_hash_set\":[\"x\"]," +
+                      "\"tree_set\":[\"b\",\"a\"],\"deque\":[1,2],\"array_deque\":[\"c\"]," +
+                      "\"sorted_map\":{\"b\":2,\"a\":1},\"tree_map\":{\"2\":\"two\",\"1\":\"one\"}," +
+                      "\"enum_set\":[\"unavailable\",\"ready\",\"other\"]," +
+                      "\"enum_map\":{\"available\":\"yes\",\"unavailable\":\"no\"}}";
+        CollectionTypesModel model = mGson.fromJson(json, CollectionTypesModel.class);
+
+        assertTrue(model.mSet instanceof LinkedHashSet);
+        assertEquals(Arrays.asList("b", "a"), Arrays.asList(model.mSet.toArray()));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), model.mHashSet);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("x")), model.mLinkedHashSet);
+        assertEquals("a", model.mTreeSet.first());
+        assertTrue(model.mDeque instanceof ArrayDeque);
+        assertEquals(Long.valueOf(1), model.mDeque.peekFirst());
+        assertEquals("c", model.mArrayDeque.peek());
+        assertTrue(model.mSortedMap instanceof TreeMap);
+        assertEquals("a", model.mSortedMap.firstKey());
+        assertEquals(Integer.valueOf(1), model.mTreeMap.firstKey());
+        assertEquals(EnumSet.of(UnknownValueEnum.AVAILABLE, UnknownValueEnum.UNAVAILABLE, UnknownValueEnum.UNKNOWN),
+                     model.mEnumSet);
+        assertEquals("yes", model.mEnumMap.get(UnknownValueEnum.AVAILABLE));
+
+        CollectionTypesModel read = mGson.fromJson(mGson.toJson(model), CollectionTypesModel.class);
+        assertEquals(model.mSet, read.mSet);
+        assertEquals(model.mTreeSet, read.mTreeSet);
+        assertEquals(Arrays.asList(model.mDeque.toArray()), Arrays.asList(read.mDeque.toArray()));
+        assertEquals(model.mSortedMap, read.mSortedMap);
+        assertEquals(model.mTreeMap, read.mTreeMap);
+        assertEquals(model.mEnumSet, read.mEnumSet);
+        assertEquals(model.mEnumMap, read.mEnumMap);
+    }
+
+    @Test
+    public void unknownEnumConstantsAreSkipped() throws Exception {
+        String json = "{\"versions\":[\"Kitkat\",\"6.0\",null],\"version_names\":{\"Marshmallow\":\"6.0\",\"5.0\":\"Lollipop\"}}";
+        CollectionTypesModel model = mGson.fromJson(json, CollectionTypesModel.class);
+
+        assertEquals(EnumSet.of(AlternateNameModel1.ANDROID_VERSION_NAME), model.mVersions);
+        EnumMap<AlternateNameModel1, String> versionNames = new EnumMap<>(AlternateNameModel1.class);
+        versionNames.put(AlternateNameModel1.ANDROID_VERSION, "Lollipop");
+        assertEquals(versionNames, model.mVersionNames);
+    }
+
+    @Test
+    public void treeSetIsOrdered() throws Exception {
+        CollectionTypesModel model = new CollectionTypesModel();
+        model.mTreeSet = new TreeSet<>(Arrays.asList("b", "a"));
+        assertEquals("{\"tree_set\":[\"a\",\"b\"]}", mGson.toJson(model));
+    }
+}
@@ -0,0 +1,64 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.StagJsonReader;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the generated TypeAdapters of enums.
+ */
+public class EnumTypeAdapterTest {
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(UnknownValueEnum.class);
+    }
+
+    @Test
+    public void namesAndAlternatesAreRead() throws Exception {
+        assertEquals(UnknownValueEnum.AVAILABLE, mGson.fromJson("\"available\"", UnknownValueEnum.class));
+        assertEquals(UnknownValueEnum.AVAILABLE, mGson.fromJson("\"ready\"", UnknownValueEnum.class));
+        assertEquals(UnknownValueEnum.UNAVAILABLE, mGson.fromJson("\"unavailable\"", UnknownValueEnum.class));
+        assertEquals(AlternateNameModel1.ANDROID_VERSION, mGson.fromJson("4.0", AlternateNameModel1.class));
+        assertEquals(AlternateNameModel1.ANDROID_VERSION_NAME, mGson.fromJson("\"Lollipop\"", AlternateNameModel1.class));
+    }
+
+    @Test
+    public void namesAreReadFromStagJsonReader() throws Exception {
+        TypeAdapter<UnknownValueEnum> typeAdapter = mGson.getAdapter(UnknownValueEnum.class);
+        StagJsonReader reader = new StagJsonReader(new StringReader("[\"ready\", \"unavailable\", \"other\", null]"));
+        reader.beginArray();
+        assertEquals(UnknownValueEnum.AVAILABLE, typeAdapter.read(reader));
+        assertEquals(UnknownValueEnum.UNAVAILABLE, typeAdapter.read(reader));
+        assertEquals(UnknownValueEnum.UNKNOWN, typeAdapter.read(reader));
+        assertNull(typeAdapter.read(reader));
+        reader.endArray();
+    }
+
+    @Test
+    public void unknownValuesAreReadWithoutThrowing() throws Exception {
+        assertEquals(UnknownValueEnum.UNKNOWN, mGson.fromJson("\"availablE\"", UnknownValueEnum.class));
+        assertEquals(UnknownValueEnum.UNKNOWN, mGson.fromJson("{\"a\":[1]}", UnknownValueEnum.class));
+        assertEquals(UnknownValueEnum.UNKNOWN, mGson.fromJson("true", UnknownValueEnum.class));
+        assertNull(mGson.fromJson("\"8.0\"", AlternateNameModel1.class));
+        assertNull(mGson.fromJson("[]", AlternateNameModel1.class));
+    }
+
+    @Test
+    public void namesAreWritten() throws Exception {
+        assertEquals("\"available\"", mGson.toJson(UnknownValueEnum.AVAILABLE));
+        assertEquals("\"UNKNOWN\"", mGson.toJson(UnknownValueEnum.UNKNOWN));
+        assertEquals("\"7.0\"", mGson.toJson(AlternateNameModel1.ANDROID_VERSION));
+    }
+}
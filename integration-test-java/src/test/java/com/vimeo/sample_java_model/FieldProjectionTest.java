@@ -0,0 +1,63 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.FieldMask;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the projecting TypeAdapters, using {@link OmitDefaultsModel}.
+ */
+public class FieldProjectionTest {
+
+    private static final String JSON = "{\"count\":3,\"enabled\":true,\"ratio\":2.5,\"title\":\"Title\"," +
+                                       "\"description\":\"Description\",\"tags\":[\"a\",\"b\"]}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void onlyMaskedFieldsAreRead() throws Exception {
+        TypeAdapter<OmitDefaultsModel> typeAdapter =
+                OmitDefaultsModel$TypeAdapter.projecting(mGson, FieldMask.of("count", "title"));
+
+        OmitDefaultsModel model = typeAdapter.fromJson(JSON);
+        assertEquals(3, model.getCount());
+        assertEquals("Title", model.getTitle());
+
+        // The other fields keep their default values
+        assertEquals(false, model.getEnabled());
+        assertEquals(1.5, model.getRatio(), 0);
+        assertNull(model.getDescription());
+        assertTrue(model.getTags().isEmpty());
+    }
+
+    @Test
+    public void unorderedNamesAreProjected() throws Exception {
+        TypeAdapter<OmitDefaultsModel> typeAdapter =
+                OmitDefaultsModel$TypeAdapter.projecting(mGson, FieldMask.of("tags"));
+
+        OmitDefaultsModel model = typeAdapter.fromJson("{\"tags\":[\"a\"],\"unknown\":{},\"count\":3}");
+        assertEquals(Collections.singletonList("a"), model.getTags());
+        assertEquals(0, model.getCount());
+    }
+
+    @Test
+    public void projectingTypeAdapterWritesAllFields() throws Exception {
+        OmitDefaultsModel model = new OmitDefaultsModel();
+        model.setCount(3);
+        model.setTitle("Title");
+
+        TypeAdapter<OmitDefaultsModel> typeAdapter =
+                OmitDefaultsModel$TypeAdapter.projecting(mGson, FieldMask.of("count"));
+        assertEquals(mGson.getAdapter(OmitDefaultsModel.class).toJson(model), typeAdapter.toJson(model));
+    }
+}
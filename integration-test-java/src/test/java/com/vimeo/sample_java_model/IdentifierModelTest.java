@@ -0,0 +1,52 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link IdentifierModel}, whose fields are written the same as by GSON.
+ */
+public class IdentifierModelTest {
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(IdentifierModel.class);
+    }
+
+    @Test
+    public void fieldsAreWrittenAndReadAsByGson() throws Exception {
+        IdentifierModel model = new IdentifierModel();
+        model.mId = UUID.fromString("123e4567-e89b-12d3-a456-426655440000");
+        model.mUri = new URI("https://vimeo.com/channels/staffpicks?page=2");
+        model.mUrl = new URL("https://vimeo.com/");
+        model.mLocale = Locale.CANADA_FRENCH;
+        model.mAddress = InetAddress.getByName("127.0.0.1");
+        model.mNames = new HashMap<>();
+        model.mNames.put(model.mId, "name");
+
+        String json = mGson.toJson(model);
+        assertEquals(new Gson().toJson(model), json);
+
+        IdentifierModel read = mGson.fromJson(json, IdentifierModel.class);
+        assertEquals(model.mId, read.mId);
+        assertEquals(model.mUri, read.mUri);
+        assertEquals(model.mUrl.toExternalForm(), read.mUrl.toExternalForm());
+        assertEquals(model.mLocale, read.mLocale);
+        assertEquals(model.mAddress, read.mAddress);
+        assertEquals(model.mNames, read.mNames);
+    }
+}
@@ -0,0 +1,71 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.Intern;
+import com.vimeo.stag.StagJsonReader;
+import com.vimeo.stag.StringInterner;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the {@link Intern} fields of {@link InternModel}.
+ */
+public class InternModelTest {
+
+    private static final String JSON = "{\"status\":\"available\",\"name\":\"Name\"}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(InternModel.class);
+    }
+
+    @Test
+    public void internedValuesAreShared() throws Exception {
+        TypeAdapter<InternModel> typeAdapter = mGson.getAdapter(InternModel.class);
+        InternModel first = typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+        InternModel second = typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+        InternModel third = mGson.fromJson(JSON, InternModel.class);
+
+        assertEquals("available", first.getStatus());
+        assertSame(first.getStatus(), second.getStatus());
+        assertSame(first.getStatus(), third.getStatus());
+        assertNotSame(first.getName(), second.getName());
+        assertEquals(JSON, mGson.toJson(third));
+    }
+
+    @Test
+    public void defaultTableWithStatsCountsInternedValues() throws Exception {
+        StringInterner previous = StringInterner.getDefault();
+        StringInterner interner = new StringInterner(StringInterner.DEFAULT_CAPACITY, true);
+        StringInterner.setDefault(interner);
+        try {
+            TypeAdapter<InternModel> typeAdapter = mGson.getAdapter(InternModel.class);
+            typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+            typeAdapter.read(new StagJsonReader(new StringReader(JSON)));
+            mGson.fromJson(JSON, InternModel.class);
+
+            assertEquals(2, interner.getHits());
+            assertEquals(1, interner.getMisses());
+        } finally {
+            StringInterner.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void nullValuesAreRead() throws Exception {
+        InternModel model = mGson.fromJson("{\"status\":null,\"name\":\"Name\"}", InternModel.class);
+        assertNull(model.getStatus());
+    }
+}
@@ -0,0 +1,71 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.LazyJson;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link LazyJson} fields of {@link LazyJsonModel}.
+ */
+public class LazyJsonModelTest {
+
+    private static final String JSON = "{\"name\":\"Name\",\"metadata\":{\"count\":1,\"tags\":[\"a\",null],\"name\":\"a \\\"b\\\"\"}," +
+                                       "\"pictures\":[{\"id\":1,\"title\":\"First\"},{\"id\":2.5e3}]}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(LazyJsonModel.class);
+    }
+
+    @Test
+    public void valuesAreDecodedOnFirstAccess() throws Exception {
+        LazyJsonModel model = mGson.fromJson(JSON, LazyJsonModel.class);
+        assertEquals("Name", model.getName());
+        assertFalse(model.getMetadata().isDecoded());
+        assertEquals("{\"count\":1,\"tags\":[\"a\",null],\"name\":\"a \\\"b\\\"\"}", model.getMetadata().getJson());
+
+        ReadIntoModel metadata = model.getMetadata().get();
+        assertNotNull(metadata);
+        assertEquals(1, metadata.getCount());
+        assertEquals("a \"b\"", metadata.getName());
+        assertTrue(model.getMetadata().isDecoded());
+
+        List<ViewModel> pictures = model.getPictures().get();
+        assertNotNull(pictures);
+        assertEquals(2, pictures.size());
+        assertEquals(2500, pictures.get(1).getId());
+    }
+
+    @Test
+    public void undecodedValuesAreWrittenVerbatim() throws Exception {
+        LazyJsonModel model = mGson.fromJson(JSON, LazyJsonModel.class);
+        assertEquals(JSON, mGson.toJson(model));
+
+        JsonObject tree = mGson.toJsonTree(model).getAsJsonObject();
+        assertEquals(2, tree.getAsJsonArray("pictures").size());
+    }
+
+    @Test
+    public void decodedValuesAreWrittenByTheirTypeAdapters() throws Exception {
+        LazyJsonModel model = mGson.fromJson(JSON, LazyJsonModel.class);
+        ReadIntoModel metadata = new ReadIntoModel();
+        metadata.setCount(2);
+        model.setMetadata(LazyJson.of(metadata));
+        model.getPictures().set(null);
+
+        assertEquals("{\"name\":\"Name\",\"metadata\":{\"count\":2}}", mGson.toJson(model));
+    }
+}
@@ -0,0 +1,66 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MapKeysModel}.
+ */
+public class MapKeysModelTest {
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(MapKeysModel.class);
+    }
+
+    @Test
+    public void mapKeysAreWrittenAndReadAsNames() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+        MapKeysModel model = new MapKeysModel();
+        model.stringKeys = new HashMap<>();
+        model.stringKeys.put("one", 1);
+        model.integerKeys = new HashMap<>();
+        model.integerKeys.put(2, "two");
+        model.booleanKeys = new LinkedHashMap<>();
+        model.booleanKeys.put(true, 1.5);
+        model.enumKeys = new HashMap<>();
+        model.enumKeys.put(EnumWithFieldsModel.ENUM_2, "second");
+        model.nestedMaps = new HashMap<>();
+        Map<String, Integer> inner = new HashMap<>();
+        inner.put("three", 3);
+        model.nestedMaps.put(3L, inner);
+
+        String json = gson.toJson(model);
+        assertEquals("{\"stringKeys\":{\"one\":1},\"integerKeys\":{\"2\":\"two\"},\"booleanKeys\":{\"true\":1.5}," +
+                     "\"enumKeys\":{\"ENUM_2\":\"second\"},\"nestedMaps\":{\"3\":{\"three\":3}}}", json);
+
+        MapKeysModel result = gson.fromJson(json, MapKeysModel.class);
+        assertEquals(model.stringKeys, result.stringKeys);
+        assertEquals(model.integerKeys, result.integerKeys);
+        assertEquals(model.booleanKeys, result.booleanKeys);
+        assertEquals(model.enumKeys, result.enumKeys);
+        assertEquals(model.nestedMaps, result.nestedMaps);
+    }
+
+    @Test
+    public void mapKeysAreReadFromEntryArrays() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+        MapKeysModel result = gson.fromJson("{\"integerKeys\":[[1,\"one\"],[2,\"two\"]]}", MapKeysModel.class);
+
+        Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "one");
+        expected.put(2, "two");
+        assertEquals(expected, result.integerKeys);
+    }
+}
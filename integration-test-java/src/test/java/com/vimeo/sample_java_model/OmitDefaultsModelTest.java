@@ -0,0 +1,77 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link OmitDefaultsModel}.
+ */
+public class OmitDefaultsModelTest {
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(OmitDefaultsModel.class);
+    }
+
+    @Test
+    public void defaultValuesAreNotWritten() throws Exception {
+        assertEquals("{}", mGson.toJson(new OmitDefaultsModel()));
+    }
+
+    @Test
+    public void changedValuesAreWrittenAndReadBack() throws Exception {
+        OmitDefaultsModel model = new OmitDefaultsModel();
+        model.setCount(3);
+        model.setRatio(-0.0);
+        model.setTags(Collections.singletonList("tag"));
+
+        String json = mGson.toJson(model);
+        assertEquals("{\"count\":3,\"ratio\":-0.0,\"tags\":[\"tag\"]}", json);
+
+        OmitDefaultsModel readModel = mGson.fromJson(json, OmitDefaultsModel.class);
+        assertEquals(3, readModel.getCount());
+        assertEquals(-0.0, readModel.getRatio(), 0);
+        assertEquals("", readModel.getTitle());
+        assertEquals(Collections.singletonList("tag"), readModel.getTags());
+    }
+
+    @Test
+    public void arraysEqualToTheirDefaultsAreNotWritten() throws Exception {
+        OmitDefaultsModel model = new OmitDefaultsModel();
+        model.setIds(new int[0]);
+        model.setNames(new String[0]);
+        assertEquals("{}", mGson.toJson(model));
+
+        model.setIds(new int[]{1});
+        model.setNames(new String[]{"name"});
+        assertEquals("{\"ids\":[1],\"names\":[\"name\"]}", mGson.toJson(model));
+    }
+
+    @Test
+    public void emptyValuesOfFieldsWithoutInitializersAreWritten() throws Exception {
+        // Only the declared defaults are omitted: these fields start as null
+        OmitDefaultsModel model = new OmitDefaultsModel();
+        model.setDescription("");
+        model.setLabels(Collections.<String>emptyList());
+        assertEquals("{\"description\":\"\",\"labels\":[]}", mGson.toJson(model));
+    }
+
+    @Test
+    public void missingValuesAreReadAsDefaults() throws Exception {
+        OmitDefaultsModel model = mGson.fromJson("{}", OmitDefaultsModel.class);
+        assertEquals(0, model.getCount());
+        assertEquals(1.5, model.getRatio(), 0);
+        assertEquals("", model.getTitle());
+        assertTrue(model.getTags().isEmpty());
+    }
+}
@@ -0,0 +1,45 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.RawJson;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the {@link RawJson} fields of {@link RawJsonModel}.
+ */
+public class RawJsonModelTest {
+
+    private static final String JSON = "{\"id\":1,\"payload\":{\"a\":[1,2.50,null],\"b\":{\"c\":\"d \\\"e\\\"\"}}," +
+                                       "\"items\":[true,\"x\",{\"y\":-3e2}]}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(RawJsonModel.class);
+    }
+
+    @Test
+    public void rawValuesArePassedThrough() throws Exception {
+        RawJsonModel model = mGson.fromJson(JSON, RawJsonModel.class);
+        assertEquals(1, model.getId());
+        assertEquals("{\"a\":[1,2.50,null],\"b\":{\"c\":\"d \\\"e\\\"\"}}", model.getPayload().getJson());
+        assertEquals(Arrays.asList(RawJson.of("true"), RawJson.of("\"x\""), RawJson.of("{\"y\":-3e2}")), model.getItems());
+        assertEquals(JSON, mGson.toJson(model));
+    }
+
+    @Test
+    public void nullValuesAreRead() throws Exception {
+        RawJsonModel model = mGson.fromJson("{\"id\":2,\"payload\":null}", RawJsonModel.class);
+        assertNull(model.getPayload());
+        assertEquals("{\"id\":2}", mGson.toJson(model));
+    }
+}
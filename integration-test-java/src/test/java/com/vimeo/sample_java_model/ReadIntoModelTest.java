@@ -0,0 +1,99 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the generated readInto methods, using {@link ReadIntoModel}.
+ */
+public class ReadIntoModelTest {
+
+    private static final String JSON = "{\"count\":1,\"name\":\"first\",\"child\":{\"id\":1,\"title\":\"Title\"}," +
+                                       "\"tags\":[\"a\",\"b\"],\"counts\":{\"a\":1}}";
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    private ReadIntoModel$TypeAdapter getTypeAdapter() {
+        return new ReadIntoModel$TypeAdapter(mGson);
+    }
+
+    @Test
+    public void nestedModelsCollectionsAndMapsAreReused() throws Exception {
+        ReadIntoModel$TypeAdapter typeAdapter = getTypeAdapter();
+        ReadIntoModel model = typeAdapter.readInto(new JsonReader(new StringReader(JSON)), null);
+        assertNotNull(model);
+        ViewModel child = model.getChild();
+        List<String> tags = model.getTags();
+        Map<String, Integer> counts = model.getCounts();
+
+        String json = "{\"count\":2,\"child\":{\"id\":2},\"tags\":[\"c\"],\"counts\":{\"b\":2}}";
+        ReadIntoModel readModel = typeAdapter.readInto(new JsonReader(new StringReader(json)), model);
+        assertSame(model, readModel);
+        assertSame(child, model.getChild());
+        assertSame(tags, model.getTags());
+        assertSame(counts, model.getCounts());
+
+        assertEquals(2, model.getCount());
+        assertEquals(2, child.getId());
+        assertEquals(Arrays.asList("c"), tags);
+        assertEquals(1, counts.size());
+        assertEquals(Integer.valueOf(2), counts.get("b"));
+    }
+
+    @Test
+    public void missingFieldsAreKept() throws Exception {
+        ReadIntoModel$TypeAdapter typeAdapter = getTypeAdapter();
+        ReadIntoModel model = typeAdapter.readInto(new JsonReader(new StringReader(JSON)), null);
+
+        typeAdapter.readInto(new JsonReader(new StringReader("{\"name\":\"second\",\"child\":{\"title\":\"New\"}}")), model);
+        assertEquals(1, model.getCount());
+        assertEquals("second", model.getName());
+        assertEquals(1, model.getChild().getId());
+        assertEquals("New", model.getChild().getTitle());
+        assertEquals(Arrays.asList("a", "b"), model.getTags());
+    }
+
+    @Test
+    public void collectionsAndMapsWhichCannotBeModifiedAreReplaced() throws Exception {
+        ReadIntoModel$TypeAdapter typeAdapter = getTypeAdapter();
+        ReadIntoModel model = new ReadIntoModel();
+        model.setTags(Collections.unmodifiableList(Arrays.asList("a")));
+        model.setCounts(Collections.<String, Integer>emptyMap());
+
+        typeAdapter.readInto(new JsonReader(new StringReader(JSON)), model);
+        assertEquals(Arrays.asList("a", "b"), model.getTags());
+        assertEquals(Collections.singletonMap("a", 1), model.getCounts());
+
+        model.setTags(Collections.<String>emptyList());
+        model.setCounts(Collections.unmodifiableMap(Collections.singletonMap("b", 2)));
+
+        typeAdapter.readInto(new JsonReader(new StringReader(JSON)), model);
+        assertEquals(Arrays.asList("a", "b"), model.getTags());
+        assertEquals(Collections.singletonMap("a", 1), model.getCounts());
+    }
+
+    @Test
+    public void nullValuesReplaceFields() throws Exception {
+        ReadIntoModel$TypeAdapter typeAdapter = getTypeAdapter();
+        ReadIntoModel model = typeAdapter.readInto(new JsonReader(new StringReader(JSON)), null);
+
+        typeAdapter.readInto(new JsonReader(new StringReader("{\"child\":null,\"tags\":null}")), model);
+        assertNull(model.getChild());
+        assertNull(model.getTags());
+    }
+}
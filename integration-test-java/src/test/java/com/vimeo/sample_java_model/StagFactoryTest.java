@@ -0,0 +1,43 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the lookups of {@link Stag.Factory}.
+ */
+public class StagFactoryTest {
+
+    private final Gson mGson = new Gson();
+
+    @Test
+    public void createReturnsTheTypeAdaptersOfModels() throws Exception {
+        Stag.Factory factory = new Stag.Factory();
+        assertNotNull(factory.create(mGson, TypeToken.get(InternModel.class)));
+        assertNotNull(factory.create(mGson, TypeToken.get(TimeModel.class)));
+    }
+
+    @Test
+    public void createReturnsNullForClassesWhichCannotBeModels() throws Exception {
+        Stag.Factory factory = new Stag.Factory();
+        assertNull(factory.create(mGson, TypeToken.get(String.class)));
+        assertNull(factory.create(mGson, TypeToken.get(int.class)));
+        assertNull(factory.create(mGson, TypeToken.get(InternModel[].class)));
+        assertNull(factory.create(mGson, new TypeToken<List<InternModel>>() {}));
+        assertNull(factory.create(mGson, TypeToken.get(JsonElement.class)));
+    }
+
+    @Test
+    public void createReturnsNullForClassesOfModelPackagesWhichAreNotModels() throws Exception {
+        assertNull(new Stag.Factory().create(mGson, TypeToken.get(Utils.class)));
+    }
+}
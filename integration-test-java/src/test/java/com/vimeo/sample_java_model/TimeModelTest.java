@@ -0,0 +1,137 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+import com.vimeo.stag.TimeFormat;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the date and time fields of {@link TimeModel}, and their {@link TimeFormat}.
+ */
+public class TimeModelTest {
+
+    private static final long MILLIS = 1516184130000L;
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(TimeModel.class);
+    }
+
+    @Test
+    public void fieldsAreWrittenInTheirFormat() throws Exception {
+        TimeModel model = new TimeModel();
+        model.mCreated = new Date(MILLIS);
+        model.mModified = new Date(MILLIS);
+        model.mInstant = Instant.ofEpochMilli(MILLIS);
+        model.mInstantMillis = Instant.ofEpochMilli(MILLIS);
+        model.mOffsetDateTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(MILLIS), ZoneOffset.UTC);
+        model.mLocalDate = LocalDate.of(2018, 1, 17);
+        model.mLocalDateTime = LocalDateTime.of(2018, 1, 17, 10, 15, 30);
+
+        JsonObject json = mGson.toJsonTree(model).getAsJsonObject();
+        assertEquals("2018-01-17T10:15:30.000Z", json.get("created").getAsString());
+        assertEquals(MILLIS, json.get("modified").getAsLong());
+        assertEquals("2018-01-17T10:15:30Z", json.get("instant").getAsString());
+        assertEquals(MILLIS, json.get("instant_millis").getAsLong());
+        assertEquals("2018-01-17T10:15:30Z", json.get("offset_date_time").getAsString());
+        assertEquals("2018-01-17", json.get("local_date").getAsString());
+        assertEquals(MILLIS, json.get("local_date_time").getAsLong());
+
+        TimeModel read = mGson.fromJson(json, TimeModel.class);
+        assertEquals(model.mCreated, read.mCreated);
+        assertEquals(model.mModified, read.mModified);
+        assertEquals(model.mInstant, read.mInstant);
+        assertEquals(model.mInstantMillis, read.mInstantMillis);
+        assertEquals(model.mOffsetDateTime, read.mOffsetDateTime);
+        assertEquals(model.mLocalDate, read.mLocalDate);
+        assertEquals(model.mLocalDateTime, read.mLocalDateTime);
+    }
+
+    @Test
+    public void bothFormatsAreRead() throws Exception {
+        String json = "{\"created\":" + MILLIS + ",\"modified\":\"2018-01-17T10:15:30Z\"," +
+                      "\"instant_millis\":\"2018-01-17T11:15:30+01:00\",\"local_date_time\":null}";
+        TimeModel model = mGson.fromJson(json, TimeModel.class);
+
+        assertEquals(new Date(MILLIS), model.mCreated);
+        assertEquals(new Date(MILLIS), model.mModified);
+        assertEquals(Instant.ofEpochMilli(MILLIS), model.mInstantMillis);
+        assertNull(model.mLocalDateTime);
+    }
+
+    @Test
+    public void registeredDateAdapterAppliesToFieldsWithoutTimeFormat() throws Exception {
+        TypeAdapter<Date> dateAdapter = new TypeAdapter<Date>() {
+            @Override
+            public void write(JsonWriter out, Date value) throws IOException {
+                out.value("date:" + value.getTime());
+            }
+
+            @Override
+            public Date read(JsonReader in) throws IOException {
+                return new Date(Long.parseLong(in.nextString().substring("date:".length())));
+            }
+        };
+        Gson gson = new GsonBuilder().registerTypeAdapter(Date.class, dateAdapter)
+                .registerTypeAdapterFactory(new Stag.Factory())
+                .create();
+
+        TimeModel model = new TimeModel();
+        model.mCreated = new Date(MILLIS);
+        model.mPublished = new Date(MILLIS);
+
+        JsonObject json = gson.toJsonTree(model).getAsJsonObject();
+        assertEquals("2018-01-17T10:15:30.000Z", json.get("created").getAsString());
+        assertEquals("date:" + MILLIS, json.get("published").getAsString());
+        assertEquals(new Date(MILLIS), gson.fromJson(json, TimeModel.class).mPublished);
+    }
+
+    @Test
+    public void registeredJavaTimeAdapterAppliesToFieldsWithoutTimeFormat() throws Exception {
+        TypeAdapter<Instant> instantAdapter = new TypeAdapter<Instant>() {
+            @Override
+            public void write(JsonWriter out, Instant value) throws IOException {
+                out.value("instant:" + value.toEpochMilli());
+            }
+
+            @Override
+            public Instant read(JsonReader in) throws IOException {
+                return Instant.ofEpochMilli(Long.parseLong(in.nextString().substring("instant:".length())));
+            }
+        };
+        Gson gson = new GsonBuilder().registerTypeAdapter(Instant.class, instantAdapter)
+                .registerTypeAdapterFactory(new Stag.Factory())
+                .create();
+
+        TimeModel model = new TimeModel();
+        model.mInstant = Instant.ofEpochMilli(MILLIS);
+        model.mInstantMillis = Instant.ofEpochMilli(MILLIS);
+        model.mOffsetDateTime = OffsetDateTime.ofInstant(Instant.ofEpochMilli(MILLIS), ZoneOffset.UTC);
+
+        JsonObject json = gson.toJsonTree(model).getAsJsonObject();
+        assertEquals("instant:" + MILLIS, json.get("instant").getAsString());
+        assertEquals(MILLIS, json.get("instant_millis").getAsLong());
+        // Types without a registered adapter keep the ISO-8601 format
+        assertEquals("2018-01-17T10:15:30Z", json.get("offset_date_time").getAsString());
+        assertEquals(model.mInstant, gson.fromJson(json, TimeModel.class).mInstant);
+    }
+}
@@ -0,0 +1,66 @@
+package com.vimeo.sample_java_model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.vimeo.sample_java_model.stag.generated.Stag;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the views of {@link ViewModel}.
+ */
+public class ViewModelTest {
+
+    private final Gson mGson = new GsonBuilder().registerTypeAdapterFactory(new Stag.Factory()).create();
+
+    private static ViewModel createModel() {
+        ViewModel model = new ViewModel();
+        model.setId(1);
+        model.setTitle("Title");
+        model.setDescription("Description");
+        model.setSecret("Secret");
+        return model;
+    }
+
+    @Test
+    public void typeAdapterWasGenerated() throws Exception {
+        Utils.verifyTypeAdapterGeneration(ViewModel.class);
+    }
+
+    @Test
+    public void viewsOnlyWriteTheirFields() throws Exception {
+        ViewModel model = createModel();
+        assertEquals("{\"id\":1,\"title\":\"Title\"}", ViewModel$TypeAdapter.view(mGson, "summary").toJson(model));
+        assertEquals("{\"id\":1,\"title\":\"Title\",\"description\":\"Description\"}",
+                     ViewModel$TypeAdapter.view(mGson, "detail").toJson(model));
+        assertEquals("{\"id\":1,\"title\":\"Title\",\"description\":\"Description\",\"secret\":\"Secret\"}",
+                     mGson.toJson(model));
+    }
+
+    @Test
+    public void viewWriteMethodsCanBeCalledDirectly() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        ViewModel$TypeAdapter.writeSummaryView(new JsonWriter(stringWriter), createModel(), new ViewModel$TypeAdapter(mGson));
+        assertEquals("{\"id\":1,\"title\":\"Title\"}", stringWriter.toString());
+    }
+
+    @Test
+    public void viewsReadAllFields() throws Exception {
+        TypeAdapter<ViewModel> typeAdapter = ViewModel$TypeAdapter.view(mGson, "summary");
+        ViewModel model = typeAdapter.fromJson("{\"id\":1,\"description\":\"Description\",\"secret\":\"Secret\"}");
+        assertEquals(1, model.getId());
+        assertEquals("Description", model.getDescription());
+        assertEquals("Secret", model.getSecret());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownViewsAreRejected() throws Exception {
+        ViewModel$TypeAdapter.view(mGson, "unknown");
+    }
+}
@@ -121,6 +121,7 @@ public final class NetworkRequest {
 
 
                 Stag.Factory factory = new Stag.Factory();
+                // Date fields without a @TimeFormat, such as Video.mCreatedTime, are read by DateParser
                 Gson gson = new GsonBuilder().registerTypeAdapter(Date.class, new DateParser())
                         .registerTypeAdapterFactory(factory)
                         .create();
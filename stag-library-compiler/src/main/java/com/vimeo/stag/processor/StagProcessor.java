@@ -48,7 +48,11 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -65,17 +69,32 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 @AutoService(Processor.class)
 @SupportedAnnotationTypes(value = {"com.vimeo.stag.UseStag"})
-@SupportedOptions(value = {StagProcessor.OPTION_PACKAGE_NAME, StagProcessor.OPTION_DEBUG, StagProcessor.OPTION_HUNGARIAN_NOTATION})
+@SupportedOptions(value = {StagProcessor.OPTION_PACKAGE_NAME, StagProcessor.OPTION_DEBUG, StagProcessor.OPTION_HUNGARIAN_NOTATION,
+                           StagProcessor.OPTION_LAZY_ADAPTER_FIELDS, StagProcessor.OPTION_FIELD_ORDER_STATS,
+                           StagProcessor.OPTION_OMIT_NULLS, StagProcessor.OPTION_OMIT_DEFAULTS,
+                           StagProcessor.OPTION_FIELD_PROJECTION, StagProcessor.OPTION_READ_INTO,
+                           StagProcessor.OPTION_INTERN_STRINGS})
 @SupportedSourceVersion(SourceVersion.RELEASE_7)
 public final class StagProcessor extends AbstractProcessor {
 
+    private static final String KEEP_RULES_DIRECTORY = "META-INF/proguard/";
+
     static final String OPTION_DEBUG = "stagDebug";
     static final String OPTION_PACKAGE_NAME = "stagGeneratedPackageName";
     static final String OPTION_HUNGARIAN_NOTATION = "stagAssumeHungarianNotation";
+    static final String OPTION_LAZY_ADAPTER_FIELDS = "stagLazyAdapterFields";
+    static final String OPTION_FIELD_ORDER_STATS = "stagFieldOrderStats";
+    static final String OPTION_OMIT_NULLS = "stagOmitNulls";
+    static final String OPTION_OMIT_DEFAULTS = "stagOmitDefaults";
+    static final String OPTION_FIELD_PROJECTION = "stagFieldProjection";
+    static final String OPTION_READ_INTO = "stagReadInto";
+    static final String OPTION_INTERN_STRINGS = "stagInternStrings";
     private static final String DEFAULT_GENERATED_PACKAGE_NAME = "com.vimeo.stag.generated";
     public static volatile boolean DEBUG;
     private boolean mHasBeenProcessed;
@@ -96,6 +115,62 @@ public final class StagProcessor extends AbstractProcessor {
         return false;
     }
 
+    private static boolean getLazyAdapterFields(@NotNull ProcessingEnvironment processingEnvironment) {
+        String lazyString = processingEnvironment.getOptions().get(OPTION_LAZY_ADAPTER_FIELDS);
+        if (lazyString != null) {
+            return Boolean.valueOf(lazyString);
+        }
+        return false;
+    }
+
+    private static boolean getFieldOrderStats(@NotNull ProcessingEnvironment processingEnvironment) {
+        String statsString = processingEnvironment.getOptions().get(OPTION_FIELD_ORDER_STATS);
+        if (statsString != null) {
+            return Boolean.valueOf(statsString);
+        }
+        return false;
+    }
+
+    private static boolean getOmitNulls(@NotNull ProcessingEnvironment processingEnvironment) {
+        String omitString = processingEnvironment.getOptions().get(OPTION_OMIT_NULLS);
+        if (omitString != null) {
+            return Boolean.valueOf(omitString);
+        }
+        return false;
+    }
+
+    private static boolean getOmitDefaults(@NotNull ProcessingEnvironment processingEnvironment) {
+        String omitString = processingEnvironment.getOptions().get(OPTION_OMIT_DEFAULTS);
+        if (omitString != null) {
+            return Boolean.valueOf(omitString);
+        }
+        return false;
+    }
+
+    private static boolean getFieldProjection(@NotNull ProcessingEnvironment processingEnvironment) {
+        String projectionString = processingEnvironment.getOptions().get(OPTION_FIELD_PROJECTION);
+        if (projectionString != null) {
+            return Boolean.valueOf(projectionString);
+        }
+        return false;
+    }
+
+    private static boolean getReadInto(@NotNull ProcessingEnvironment processingEnvironment) {
+        String readIntoString = processingEnvironment.getOptions().get(OPTION_READ_INTO);
+        if (readIntoString != null) {
+            return Boolean.valueOf(readIntoString);
+        }
+        return false;
+    }
+
+    private static boolean getInternStrings(@NotNull ProcessingEnvironment processingEnvironment) {
+        String internString = processingEnvironment.getOptions().get(OPTION_INTERN_STRINGS);
+        if (internString != null) {
+            return Boolean.valueOf(internString);
+        }
+        return false;
+    }
+
     @NotNull
     private static String getOptionalPackageName(@NotNull ProcessingEnvironment processingEnvironment) {
         String packageName = processingEnvironment.getOptions().get(OPTION_PACKAGE_NAME);
@@ -151,6 +226,20 @@ public final class StagProcessor extends AbstractProcessor {
 
         boolean assumeHungarianNotation = getAssumeHungarianNotation(processingEnv);
 
+        boolean lazyAdapterFields = getLazyAdapterFields(processingEnv);
+
+        boolean fieldOrderStats = getFieldOrderStats(processingEnv);
+
+        boolean omitNulls = getOmitNulls(processingEnv);
+
+        boolean omitDefaults = getOmitDefaults(processingEnv);
+
+        boolean fieldProjection = getFieldProjection(processingEnv);
+
+        boolean readInto = getReadInto(processingEnv);
+
+        boolean internStrings = getInternStrings(processingEnv);
+
         TypeUtils.initialize(processingEnv.getTypeUtils());
         ElementUtils.initialize(processingEnv.getElementUtils());
         MessagerUtils.initialize(processingEnv.getMessager());
@@ -177,11 +266,21 @@ public final class StagProcessor extends AbstractProcessor {
             StagGenerator stagFactoryGenerator = new StagGenerator(supportedTypes);
 
             Map<String, List<ClassInfo>> adapterFactoryMap = new HashMap<>();
+            Map<String, ClassInfo> generatedGenericClasses = new HashMap<>();
+            // Generic classes of other modules are included, as their adapters are also cached by Gson
+            Set<String> genericClassNames = new HashSet<>();
+            for (TypeMirror supportedType : supportedTypes) {
+                if (TypeUtils.isParameterizedType(supportedType) && !TypeUtils.isAbstract(supportedType)) {
+                    genericClassNames.add(TypeUtils.getClassNameFromTypeMirror(supportedType));
+                }
+            }
 
             for (AnnotatedClass annotatedClass : supportedTypesModel.getSupportedTypes()) {
                 TypeElement element = annotatedClass.getElement();
                 if ((TypeUtils.isConcreteType(element) || TypeUtils.isParameterizedType(element)) && !TypeUtils.isAbstract(element)) {
-                    generateTypeAdapter(supportedTypesModel, element, stagFactoryGenerator);
+                    generateTypeAdapter(supportedTypesModel, element, stagFactoryGenerator, lazyAdapterFields,
+                                        fieldOrderStats, omitNulls, omitDefaults, fieldProjection, readInto,
+                                        internStrings);
 
                     ClassInfo classInfo = new ClassInfo(element.asType());
                     ArrayList<ClassInfo> result = new ArrayList<>();
@@ -192,14 +291,47 @@ public final class StagProcessor extends AbstractProcessor {
                         result.addAll(classInfos);
                     }
                     adapterFactoryMap.put(classInfo.getPackageName(), result);
+
+                    if (TypeUtils.isParameterizedType(element)) {
+                        generatedGenericClasses.put(classInfo.getClassAndPackage(), classInfo);
+                    }
+                }
+            }
+
+            Map<String, Map<String, TypeMirror>> parameterizedTypesMap =
+                    getParameterizedTypesByPackage(supportedTypesModel, adapterFactoryMap.keySet(), genericClassNames);
+
+            // Generic classes of this module get a TypeAdapter specialized for each parameterization used in fields
+            Map<String, List<DeclaredType>> specializedTypesMap = new HashMap<>();
+            Set<String> specializedTypeNames = new HashSet<>();
+            for (Map<String, TypeMirror> parameterizedTypes : parameterizedTypesMap.values()) {
+                for (TypeMirror parameterizedType : parameterizedTypes.values()) {
+                    ClassInfo classInfo = generatedGenericClasses.get(TypeUtils.getClassNameFromTypeMirror(parameterizedType));
+                    if (classInfo != null && TypeUtils.isAccessibleFrom(parameterizedType, classInfo.getPackageName()) &&
+                        specializedTypeNames.add(parameterizedType.toString())) {
+                        DeclaredType specializedType = (DeclaredType) parameterizedType;
+                        generateSpecializedTypeAdapter(supportedTypesModel, classInfo, specializedType, stagFactoryGenerator,
+                                                       lazyAdapterFields, fieldOrderStats, omitNulls, omitDefaults,
+                                                       fieldProjection, readInto, internStrings);
+
+                        List<DeclaredType> specializedTypes = specializedTypesMap.get(classInfo.getPackageName());
+                        if (specializedTypes == null) {
+                            specializedTypes = new ArrayList<>();
+                            specializedTypesMap.put(classInfo.getPackageName(), specializedTypes);
+                        }
+                        specializedTypes.add(specializedType);
+                    }
                 }
             }
 
             List<StagGenerator.SubFactoriesInfo> generatedStagFactoryWrappers = new ArrayList<>();
             for (Map.Entry<String, List<ClassInfo>> stringListEntry : adapterFactoryMap.entrySet()) {
                 List<ClassInfo> classInfos = stringListEntry.getValue();
-                generateAdapterFactory(classInfos, stringListEntry.getKey());
-                generatedStagFactoryWrappers.add(new StagGenerator.SubFactoriesInfo(classInfos.get(0), stringListEntry.getKey() + "." + StagFactoryGenerator.NAME));
+                List<DeclaredType> specializedTypes = specializedTypesMap.get(stringListEntry.getKey());
+                generateAdapterFactory(classInfos, parameterizedTypesMap.get(stringListEntry.getKey()).values(),
+                                       specializedTypes != null ? specializedTypes : Collections.<DeclaredType>emptyList(),
+                                       stringListEntry.getKey());
+                generatedStagFactoryWrappers.add(new StagGenerator.SubFactoriesInfo(classInfos, stringListEntry.getKey() + "." + StagFactoryGenerator.NAME));
             }
 
             generateStagFactory(packageName, generatedStagFactoryWrappers);
@@ -213,8 +345,59 @@ public final class StagProcessor extends AbstractProcessor {
         return true;
     }
 
-    private void generateAdapterFactory(@NotNull List<ClassInfo> classInfos, @NotNull String packageName) throws IOException {
-        StagFactoryGenerator stagFactoryGenerator = new StagFactoryGenerator(classInfos, StagFactoryGenerator.NAME);
+    /**
+     * Finds the concrete parameterizations of the generic classes, such as {@code Data<String>},
+     * that are used in the types of fields, so that their TypeAdapters can be pre-warmed. They
+     * are grouped by the package of the class declaring the field, from which they are accessible.
+     *
+     * @param supportedTypesModel the supported types model.
+     * @param packageNames        the packages that factories are generated for.
+     * @param genericClassNames   the names of the known generic classes.
+     * @return the parameterizations by package name, then by type name.
+     */
+    @NotNull
+    private static Map<String, Map<String, TypeMirror>> getParameterizedTypesByPackage(@NotNull SupportedTypesModel supportedTypesModel,
+                                                                                        @NotNull Set<String> packageNames,
+                                                                                        @NotNull Set<String> genericClassNames) {
+        Map<String, Map<String, TypeMirror>> result = new HashMap<>(packageNames.size());
+        for (String packageName : packageNames) {
+            result.put(packageName, new LinkedHashMap<String, TypeMirror>());
+        }
+        for (AnnotatedClass annotatedClass : supportedTypesModel.getSupportedTypes()) {
+            Map<String, TypeMirror> parameterizedTypes =
+                    result.get(new ClassInfo(annotatedClass.getType()).getPackageName());
+            if (parameterizedTypes == null) {
+                continue;
+            }
+            for (TypeMirror fieldType : annotatedClass.getMemberVariables().values()) {
+                addParameterizedTypes(fieldType, genericClassNames, parameterizedTypes);
+            }
+        }
+        return result;
+    }
+
+    private static void addParameterizedTypes(@NotNull TypeMirror type, @NotNull Set<String> genericClassNames,
+                                              @NotNull Map<String, TypeMirror> parameterizedTypes) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            addParameterizedTypes(TypeUtils.getArrayInnerType(type), genericClassNames, parameterizedTypes);
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            if (!typeArguments.isEmpty() && !TypeUtils.containsTypeVarParams(type) &&
+                genericClassNames.contains(TypeUtils.getClassNameFromTypeMirror(type))) {
+                parameterizedTypes.put(type.toString(), type);
+            }
+            for (TypeMirror typeArgument : typeArguments) {
+                addParameterizedTypes(typeArgument, genericClassNames, parameterizedTypes);
+            }
+        }
+    }
+
+    private void generateAdapterFactory(@NotNull List<ClassInfo> classInfos,
+                                        @NotNull Collection<TypeMirror> parameterizedTypes,
+                                        @NotNull Collection<DeclaredType> specializedTypes,
+                                        @NotNull String packageName) throws IOException {
+        StagFactoryGenerator stagFactoryGenerator = new StagFactoryGenerator(classInfos, parameterizedTypes, specializedTypes,
+                                                                             StagFactoryGenerator.NAME);
 
         // Create the type spec
         TypeSpec typeAdapterSpec = stagFactoryGenerator.getTypeAdapterFactorySpec();
@@ -229,17 +412,29 @@ public final class StagProcessor extends AbstractProcessor {
 
         // Write the type spec to a file
         writeTypeSpecToFile(typeSpec, packageName);
+
+        // Keep the names the factories look the classes up by, in the location read by ProGuard and R8
+        FileGenUtils.writeToResource(processingEnv.getFiler(), "", KEEP_RULES_DIRECTORY + packageName + ".pro",
+                                     StagGenerator.getKeepRules(generatedStagFactoryWrappers));
     }
 
     private void generateTypeAdapter(@NotNull SupportedTypesModel supportedTypesModel,
                                      @NotNull TypeElement element,
-                                     @NotNull StagGenerator stagGenerator) throws IOException {
+                                     @NotNull StagGenerator stagGenerator,
+                                     boolean lazyAdapterFields,
+                                     boolean fieldOrderStats,
+                                     boolean omitNulls,
+                                     boolean omitDefaults,
+                                     boolean fieldProjection,
+                                     boolean readInto,
+                                     boolean internStrings) throws IOException {
 
         ClassInfo classInfo = new ClassInfo(element.asType());
 
         AdapterGenerator independentAdapter = element.getKind() == ElementKind.ENUM ?
                 new EnumTypeAdapterGenerator(classInfo, element) :
-                new TypeAdapterGenerator(supportedTypesModel, classInfo);
+                new TypeAdapterGenerator(supportedTypesModel, classInfo, lazyAdapterFields, fieldOrderStats, omitNulls,
+                                         omitDefaults, fieldProjection, readInto, internStrings);
 
         // Create the type spec
         TypeSpec typeAdapterSpec = independentAdapter.createTypeAdapterSpec(stagGenerator);
@@ -248,6 +443,31 @@ public final class StagProcessor extends AbstractProcessor {
         writeTypeSpecToFile(typeAdapterSpec, classInfo.getPackageName());
     }
 
+    private void generateSpecializedTypeAdapter(@NotNull SupportedTypesModel supportedTypesModel,
+                                                @NotNull ClassInfo classInfo,
+                                                @NotNull DeclaredType specializedType,
+                                                @NotNull StagGenerator stagGenerator,
+                                                boolean lazyAdapterFields,
+                                                boolean fieldOrderStats,
+                                                boolean omitNulls,
+                                                boolean omitDefaults,
+                                                boolean fieldProjection,
+                                                boolean readInto,
+                                                boolean internStrings) throws IOException {
+        DebugLog.log("Specialized type: " + specializedType + "\n");
+
+        TypeAdapterGenerator adapterGenerator =
+                new TypeAdapterGenerator(supportedTypesModel, classInfo, lazyAdapterFields, fieldOrderStats,
+                                         omitNulls, omitDefaults, fieldProjection, readInto, internStrings,
+                                         specializedType);
+
+        // Create the type spec
+        TypeSpec typeAdapterSpec = adapterGenerator.createTypeAdapterSpec(stagGenerator);
+
+        // Write the type spec to a file
+        writeTypeSpecToFile(typeAdapterSpec, classInfo.getPackageName());
+    }
+
     private void writeTypeSpecToFile(@NotNull TypeSpec typeSpec, @NotNull String packageName) throws IOException {
 
         // Create the Java file
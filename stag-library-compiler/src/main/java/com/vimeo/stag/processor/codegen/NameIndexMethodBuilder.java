@@ -0,0 +1,183 @@
+package com.vimeo.stag.processor.codegen;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.lang.model.element.Modifier;
+
+/**
+ * Builds a static method that maps a fixed set of names, such as the JSON names of fields, to
+ * indices without creating any object. The generated method takes a {@link CharSequence}, so it
+ * works on the characters of a name that has not been turned into a {@link String}.
+ * <p>
+ * The names are matched by a decision tree: a switch on the length of the name, followed by
+ * switches on the characters that best tell the remaining candidates apart. Once a single
+ * candidate is left, the characters which were not compared yet are checked. The generated
+ * method returns -1 for unknown names.
+ */
+public class NameIndexMethodBuilder {
+
+    @NotNull private final String mMethodName;
+    @NotNull private final Map<String, Integer> mIndices = new LinkedHashMap<>();
+
+    /**
+     * Creates a builder.
+     *
+     * @param methodName the name of the lookup method, which takes a single {@link CharSequence}
+     *                   parameter named {@code name}.
+     */
+    public NameIndexMethodBuilder(@NotNull String methodName) {
+        mMethodName = methodName;
+    }
+
+    /**
+     * Maps a name to an index. If the name was already added, the first index is kept.
+     *
+     * @param name  the name.
+     * @param index the index returned for the name.
+     * @return the builder.
+     */
+    @NotNull
+    public NameIndexMethodBuilder add(@NotNull String name, int index) {
+        if (!mIndices.containsKey(name)) {
+            mIndices.put(name, index);
+        }
+        return this;
+    }
+
+    /**
+     * Builds the lookup method.
+     *
+     * @return the method to add to the generated class.
+     */
+    @NotNull
+    public MethodSpec build() {
+        Map<Integer, List<String>> namesByLength = new TreeMap<>();
+        for (String name : mIndices.keySet()) {
+            List<String> names = namesByLength.get(name.length());
+            if (names == null) {
+                names = new ArrayList<>();
+                namesByLength.put(name.length(), names);
+            }
+            names.add(name);
+        }
+
+        CodeBlock.Builder code = CodeBlock.builder()
+                .beginControlFlow("switch (name.length())");
+        for (Map.Entry<Integer, List<String>> entry : namesByLength.entrySet()) {
+            code.add("case $L:\n", entry.getKey()).indent();
+            addDecision(code, entry.getValue(), new boolean[entry.getKey()]);
+            code.unindent();
+        }
+        code.add("default:\n").indent()
+                .addStatement("return -1")
+                .unindent()
+                .endControlFlow();
+
+        return MethodSpec.methodBuilder(mMethodName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(int.class)
+                .addParameter(CharSequence.class, "name")
+                .addCode(code.build())
+                .build();
+    }
+
+    /**
+     * Adds the code that tells apart names of the same length.
+     *
+     * @param code       the code of the method.
+     * @param names      the candidate names, which are distinct.
+     * @param isCompared the positions of the characters which were already compared.
+     */
+    private void addDecision(@NotNull CodeBlock.Builder code, @NotNull List<String> names, @NotNull boolean[] isCompared) {
+        if (names.size() == 1) {
+            String name = names.get(0);
+            CodeBlock.Builder condition = CodeBlock.builder();
+            for (int position = 0; position < name.length(); position++) {
+                if (!isCompared[position]) {
+                    if (!condition.isEmpty()) {
+                        condition.add(" && ");
+                    }
+                    condition.add("name.charAt($L) == $L", position, getCharLiteral(name.charAt(position)));
+                }
+            }
+            if (condition.isEmpty()) {
+                code.addStatement("return $L", mIndices.get(name));
+            } else {
+                code.addStatement("return $L ? $L : -1", condition.build(), mIndices.get(name));
+            }
+            return;
+        }
+
+        int position = getBestPosition(names, isCompared);
+        Map<Character, List<String>> namesByChar = new TreeMap<>();
+        for (String name : names) {
+            List<String> charNames = namesByChar.get(name.charAt(position));
+            if (charNames == null) {
+                charNames = new ArrayList<>();
+                namesByChar.put(name.charAt(position), charNames);
+            }
+            charNames.add(name);
+        }
+
+        isCompared[position] = true;
+        code.beginControlFlow("switch (name.charAt($L))", position);
+        for (Map.Entry<Character, List<String>> entry : namesByChar.entrySet()) {
+            code.add("case $L:\n", getCharLiteral(entry.getKey())).indent();
+            addDecision(code, entry.getValue(), isCompared);
+            code.unindent();
+        }
+        code.add("default:\n").indent()
+                .addStatement("return -1")
+                .unindent()
+                .endControlFlow();
+        isCompared[position] = false;
+    }
+
+    /**
+     * Returns the position of the character which splits the names into the most groups.
+     */
+    private static int getBestPosition(@NotNull List<String> names, @NotNull boolean[] isCompared) {
+        int bestPosition = -1;
+        int bestCount = 0;
+        Set<Character> chars = new HashSet<>();
+        for (int position = 0; position < isCompared.length; position++) {
+            if (isCompared[position]) {
+                continue;
+            }
+            chars.clear();
+            for (String name : names) {
+                chars.add(name.charAt(position));
+            }
+            if (chars.size() > bestCount) {
+                bestPosition = position;
+                bestCount = chars.size();
+            }
+        }
+        return bestPosition;
+    }
+
+    @NotNull
+    private static String getCharLiteral(char c) {
+        if (c == '\'' || c == '\\') {
+            return "'\\" + c + "'";
+        } else if (c >= 0x20 && c < 0x7f) {
+            return "'" + c + "'";
+        } else if (c < 0x80) {
+            // Unicode escapes of line terminators would end the literal, so octal escapes are used
+            return String.format("'\\%o'", (int) c);
+        } else {
+            return String.format("'\\u%04x'", (int) c);
+        }
+    }
+}
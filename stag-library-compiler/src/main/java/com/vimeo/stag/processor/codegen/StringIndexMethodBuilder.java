@@ -0,0 +1,116 @@
+package com.vimeo.stag.processor.codegen;
+
+import com.squareup.javapoet.MethodSpec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.Modifier;
+
+/**
+ * Builds static methods that map a fixed set of strings, such as class names, to indices in
+ * constant time. The lookup is a string switch, which is split by hash code across several
+ * methods when there are too many strings to keep a single method small. The generated methods
+ * return -1 for unknown strings.
+ */
+public class StringIndexMethodBuilder {
+
+    private static final int MAX_CASES_PER_METHOD = 256;
+
+    @NotNull private final String mMethodName;
+    @NotNull private final Map<String, Integer> mIndices = new LinkedHashMap<>();
+
+    /**
+     * Creates a builder.
+     *
+     * @param methodName the name of the lookup method, which takes a single {@link String}
+     *                   parameter named {@code name}.
+     */
+    public StringIndexMethodBuilder(@NotNull String methodName) {
+        mMethodName = methodName;
+    }
+
+    /**
+     * Maps a string to an index.
+     *
+     * @param value the string.
+     * @param index the index returned for the string.
+     * @return the builder.
+     */
+    @NotNull
+    public StringIndexMethodBuilder add(@NotNull String value, int index) {
+        mIndices.put(value, index);
+        return this;
+    }
+
+    /**
+     * Builds the lookup method, followed by the methods it delegates to, if any.
+     *
+     * @return the methods to add to the generated class.
+     */
+    @NotNull
+    public List<MethodSpec> build() {
+        List<MethodSpec> methods = new ArrayList<>();
+        int bucketCount = (mIndices.size() + MAX_CASES_PER_METHOD - 1) / MAX_CASES_PER_METHOD;
+        if (bucketCount <= 1) {
+            methods.add(buildSwitchMethod(mMethodName, mIndices));
+            return methods;
+        }
+
+        List<Map<String, Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            buckets.add(new LinkedHashMap<String, Integer>());
+        }
+        for (Map.Entry<String, Integer> entry : mIndices.entrySet()) {
+            // String#hashCode is specified, so the bucket computed here matches the generated code
+            buckets.get((entry.getKey().hashCode() & 0x7fffffff) % bucketCount).put(entry.getKey(), entry.getValue());
+        }
+
+        SwitchCodeBlockBuilder bucketSwitchBuilder = new SwitchCodeBlockBuilder()
+                .beginSwitch("switch ((name.hashCode() & 0x7fffffff) % $L)", bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketSwitchBuilder
+                    .beginCase("case $L", bucket)
+                    .addStatement("return $L$L(name)", mMethodName, bucket);
+        }
+        bucketSwitchBuilder
+                .beginCase("default")
+                .addStatement("return -1")
+                .endSwitch();
+
+        methods.add(createMethodBuilder(mMethodName).addCode(bucketSwitchBuilder.build()).build());
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            methods.add(buildSwitchMethod(mMethodName + bucket, buckets.get(bucket)));
+        }
+        return methods;
+    }
+
+    @NotNull
+    private static MethodSpec buildSwitchMethod(@NotNull String methodName, @NotNull Map<String, Integer> indices) {
+        SwitchCodeBlockBuilder switchBuilder = new SwitchCodeBlockBuilder()
+                .beginSwitch("switch (name)");
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            switchBuilder
+                    .beginCase("case $S", entry.getKey())
+                    .addStatement("return $L", entry.getValue());
+        }
+        switchBuilder
+                .beginCase("default")
+                .addStatement("return -1")
+                .endSwitch();
+
+        return createMethodBuilder(methodName).addCode(switchBuilder.build()).build();
+    }
+
+    @NotNull
+    private static MethodSpec.Builder createMethodBuilder(@NotNull String methodName) {
+        return MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(int.class)
+                .addParameter(String.class, "name");
+    }
+}
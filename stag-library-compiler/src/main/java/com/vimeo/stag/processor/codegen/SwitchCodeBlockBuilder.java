@@ -33,6 +33,10 @@ public class SwitchCodeBlockBuilder {
      * @return the builder.
      */
     public SwitchCodeBlockBuilder endSwitch() {
+        if (mIsCaseIndented) {
+            mCodeBlockBuilder.unindent();
+            mIsCaseIndented = false;
+        }
         mCodeBlockBuilder.endControlFlow();
         return this;
     }
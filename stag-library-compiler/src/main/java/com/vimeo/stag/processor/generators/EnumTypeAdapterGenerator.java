@@ -27,21 +27,25 @@ import com.google.gson.Gson;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.vimeo.stag.StagJsonReader;
+import com.vimeo.stag.UnknownValue;
+import com.vimeo.stag.processor.codegen.NameIndexMethodBuilder;
 import com.vimeo.stag.processor.generators.model.ClassInfo;
 import com.vimeo.stag.processor.utils.FileGenUtils;
+import com.vimeo.stag.processor.utils.MessagerUtils;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -51,6 +55,8 @@ import javax.lang.model.type.TypeMirror;
 
 public class EnumTypeAdapterGenerator extends AdapterGenerator {
 
+    private static final String CONSTANT_INDEX_METHOD_NAME = "getConstantIndex";
+
     @NotNull
     private final ClassInfo mInfo;
 
@@ -71,23 +77,33 @@ public class EnumTypeAdapterGenerator extends AdapterGenerator {
                 .addModifiers(Modifier.PUBLIC)
                 .addAnnotation(Override.class)
                 .addException(IOException.class)
-                .addStatement("writer.value(object == null ? null : CONSTANT_TO_NAME.get(object))")
+                .addStatement("writer.value(object == null ? null : NAMES[object.ordinal()])")
                 .build();
     }
 
     @NotNull
-    private static MethodSpec getReadMethodSpec(@NotNull TypeName typeName) {
+    private static MethodSpec getReadMethodSpec(@NotNull TypeName typeName, @NotNull String unknownValueCode) {
         return MethodSpec.methodBuilder("read")
                 .addParameter(JsonReader.class, "reader")
                 .returns(typeName)
                 .addModifiers(Modifier.PUBLIC)
                 .addAnnotation(Override.class)
                 .addException(IOException.class)
-                .beginControlFlow("if (reader.peek() == com.google.gson.stream.JsonToken.NULL)")
+                .addStatement("com.google.gson.stream.JsonToken peek = reader.peek()")
+                .beginControlFlow("if (peek == com.google.gson.stream.JsonToken.NULL)")
                 .addStatement("reader.nextNull()")
                 .addStatement("return null")
                 .endControlFlow()
-                .addStatement("return NAME_TO_CONSTANT.get(reader.nextString())")
+                .beginControlFlow("if (peek != com.google.gson.stream.JsonToken.STRING && " +
+                                  "peek != com.google.gson.stream.JsonToken.NUMBER)")
+                .addStatement("reader.skipValue()")
+                .addStatement("return " + unknownValueCode)
+                .endControlFlow()
+                // Values are matched without creating Strings when the reader allows it
+                .addStatement("$T name = reader instanceof $T ? (($T) reader).nextStringChars() : reader.nextString()",
+                              CharSequence.class, StagJsonReader.class, StagJsonReader.class)
+                .addStatement("int index = $L(name)", CONSTANT_INDEX_METHOD_NAME)
+                .addStatement("return index >= 0 ? CONSTANTS[index] : " + unknownValueCode)
                 .build();
     }
 
@@ -113,63 +129,56 @@ public class EnumTypeAdapterGenerator extends AdapterGenerator {
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
                 .superclass(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), typeVariableName));
 
-
-        Map<String, Element> nameToConstant = new HashMap<>();
-        Map<Element, String> constantToName = new HashMap<>();
-
+        // The constants are enclosed in declaration order, so their indices are their ordinals
+        CodeBlock.Builder namesBuilder = CodeBlock.builder().add("{");
+        NameIndexMethodBuilder constantIndexBuilder = new NameIndexMethodBuilder(CONSTANT_INDEX_METHOD_NAME);
+        String unknownValueCode = "null";
+        Element unknownValueConstant = null;
+        int ordinal = 0;
         for (Element enclosingElement : mElement.getEnclosedElements()) {
             if (enclosingElement.getKind() == ElementKind.ENUM_CONSTANT) {
                 String name = getJsonName(enclosingElement);
-                nameToConstant.put(name, enclosingElement);
-                constantToName.put(enclosingElement, name);
+                namesBuilder.add(ordinal == 0 ? "$S" : ", $S", name);
+                constantIndexBuilder.add(name, ordinal);
 
                 String[] alternateJsonNames = getAlternateJsonNames(enclosingElement);
                 if (alternateJsonNames != null && alternateJsonNames.length > 0) {
                     for (String alternate : alternateJsonNames) {
-                        nameToConstant.put(alternate, enclosingElement);
+                        constantIndexBuilder.add(alternate, ordinal);
+                    }
+                }
+
+                if (enclosingElement.getAnnotation(UnknownValue.class) != null) {
+                    if (unknownValueConstant != null) {
+                        MessagerUtils.reportError("@UnknownValue is already used on " +
+                                                  unknownValueConstant.getSimpleName() + ".", enclosingElement);
                     }
+                    unknownValueConstant = enclosingElement;
+                    unknownValueCode = typeVariableName + "." + enclosingElement.getSimpleName();
                 }
+                ordinal++;
             }
         }
-
+        namesBuilder.add("}");
 
         MethodSpec writeMethod = getWriteMethodSpec(typeVariableName);
-        MethodSpec readMethod = getReadMethodSpec(typeVariableName);
+        MethodSpec readMethod = getReadMethodSpec(typeVariableName, unknownValueCode);
 
         adapterBuilder.addField(createTypeTokenSpec(typeMirror));
 
-        TypeName typeName =
-                ParameterizedTypeName.get(ClassName.get(HashMap.class), TypeVariableName.get(String.class),
-                                          TypeVariableName.get(typeMirror));
-        adapterBuilder.addField(typeName, "NAME_TO_CONSTANT", Modifier.PRIVATE, Modifier.STATIC,
-                                Modifier.FINAL);
-
-        typeName = ParameterizedTypeName.get(ClassName.get(HashMap.class), TypeVariableName.get(typeMirror),
-                                             TypeVariableName.get(String.class));
-        adapterBuilder.addField(typeName, "CONSTANT_TO_NAME", Modifier.PRIVATE, Modifier.STATIC,
-                                Modifier.FINAL);
-
-        CodeBlock.Builder staticBlockBuilder = CodeBlock.builder();
-        staticBlockBuilder.addStatement("NAME_TO_CONSTANT = new HashMap<>(" + nameToConstant.size() + ")");
-        for (Map.Entry<String, Element> entry : nameToConstant.entrySet()) {
-            staticBlockBuilder.addStatement(
-                    "NAME_TO_CONSTANT.put(\"" + entry.getKey() + "\", " + typeVariableName + "." +
-                    entry.getValue().getSimpleName().toString() + ")");
-        }
-
-        staticBlockBuilder.add("\n");
-        staticBlockBuilder.addStatement("CONSTANT_TO_NAME = new HashMap<>(" + constantToName.size() + ")");
-        for (Map.Entry<Element, String> entry : constantToName.entrySet()) {
-            staticBlockBuilder.addStatement("CONSTANT_TO_NAME.put(" + typeVariableName + "." +
-                                            entry.getKey().getSimpleName().toString() + ", \"" +
-                                            entry.getValue() + "\")");
-        }
-
-        adapterBuilder.addStaticBlock(staticBlockBuilder.build());
+        adapterBuilder.addField(FieldSpec.builder(String[].class, "NAMES", Modifier.PRIVATE, Modifier.STATIC,
+                                                  Modifier.FINAL)
+                                        .initializer(namesBuilder.build())
+                                        .build());
+        adapterBuilder.addField(FieldSpec.builder(ArrayTypeName.of(typeVariableName), "CONSTANTS", Modifier.PRIVATE,
+                                                  Modifier.STATIC, Modifier.FINAL)
+                                        .initializer("$L.values()", typeVariableName)
+                                        .build());
 
         adapterBuilder.addMethod(constructorBuilder.build());
         adapterBuilder.addMethod(writeMethod);
         adapterBuilder.addMethod(readMethod);
+        adapterBuilder.addMethod(constantIndexBuilder.build());
 
         return adapterBuilder.build();
     }
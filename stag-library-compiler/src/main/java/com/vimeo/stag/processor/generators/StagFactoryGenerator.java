@@ -6,92 +6,305 @@ import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+import com.vimeo.stag.TypeAdapterCache;
+import com.vimeo.stag.Types;
+import com.vimeo.stag.processor.codegen.StringIndexMethodBuilder;
+import com.vimeo.stag.processor.codegen.SwitchCodeBlockBuilder;
 import com.vimeo.stag.processor.generators.model.ClassInfo;
+import com.vimeo.stag.processor.utils.TypeUtils;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.lang.model.element.Modifier;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 public class StagFactoryGenerator {
 
     @NotNull public static final String NAME = "StagFactory";
+    @NotNull static final String METHOD_ADD_PREWARM_TYPES = "addPrewarmTypes";
+    private static final int GENERIC_TYPE_ADAPTER_CACHE_SIZE = 256;
     @NotNull private final List<ClassInfo> mClassInfoList;
+    @NotNull private final List<TypeMirror> mParameterizedTypes;
+    @NotNull private final List<DeclaredType> mSpecializedTypes;
     @NotNull private final String mFileName;
 
-    public StagFactoryGenerator(@NotNull List<ClassInfo> classInfoList, @NotNull String fileName) {
+    /**
+     * Creates the generator of the factory for the classes of a package.
+     *
+     * @param classInfoList      the classes of the package.
+     * @param parameterizedTypes the concrete parameterizations of generic classes used by fields
+     *                           declared in the package, which are pre-warmed along with the
+     *                           non generic classes.
+     * @param specializedTypes   the parameterizations of the generic classes of the package
+     *                           which have a specialized TypeAdapter.
+     * @param fileName           the name of the factory class.
+     */
+    public StagFactoryGenerator(@NotNull List<ClassInfo> classInfoList,
+                                @NotNull Collection<TypeMirror> parameterizedTypes,
+                                @NotNull Collection<DeclaredType> specializedTypes,
+                                @NotNull String fileName) {
         mClassInfoList = new ArrayList<>(classInfoList);
+        mParameterizedTypes = new ArrayList<>(parameterizedTypes);
+        mSpecializedTypes = new ArrayList<>(specializedTypes);
         mFileName = fileName;
     }
 
     @NotNull
     public TypeSpec getTypeAdapterFactorySpec() {
+        boolean hasGenericClasses = hasGenericClasses();
         TypeSpec.Builder adapterBuilder = TypeSpec.classBuilder(mFileName)
                 .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                .addSuperinterface(TypeAdapterFactory.class)
-                .addMethod(getCreateMethodSpec());
+                .addSuperinterface(TypeAdapterFactory.class);
+
+        if (hasGenericClasses) {
+            adapterBuilder.addField(FieldSpec.builder(TypeAdapterCache.class, "genericTypeAdapterCache",
+                                                      Modifier.PRIVATE, Modifier.FINAL)
+                                            .initializer("new $T($L)", TypeAdapterCache.class, GENERIC_TYPE_ADAPTER_CACHE_SIZE)
+                                            .build());
+        }
+
+        adapterBuilder
+                .addMethods(getClassIndexMethodSpecs())
+                .addMethod(getModelClassMethodSpec())
+                .addMethod(getCreateTypeAdapterMethodSpec())
+                .addMethod(getCreateMethodSpec(hasGenericClasses))
+                .addMethod(getAddPrewarmTypesMethodSpec());
 
         return adapterBuilder.build();
     }
 
+    private boolean hasGenericClasses() {
+        for (ClassInfo classInfo : mClassInfoList) {
+            List<? extends TypeMirror> typeArguments = classInfo.getTypeArguments();
+            if (typeArguments != null && !typeArguments.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks up the index of a class by its name, without loading any of the model classes.
+     */
+    @NotNull
+    private List<MethodSpec> getClassIndexMethodSpecs() {
+        StringIndexMethodBuilder indexMethodBuilder = new StringIndexMethodBuilder("getClassIndex");
+        for (int index = 0; index < mClassInfoList.size(); index++) {
+            indexMethodBuilder.add(mClassInfoList.get(index).getBinaryName(), index);
+        }
+        return indexMethodBuilder.build();
+    }
+
+    /**
+     * Returns the model class at an index, used to verify a match by name.
+     */
     @NotNull
-    private MethodSpec getCreateMethodSpec() {
+    private MethodSpec getModelClassMethodSpec() {
+        SwitchCodeBlockBuilder switchBuilder = new SwitchCodeBlockBuilder()
+                .beginSwitch("switch (index)");
+        for (int index = 0; index < mClassInfoList.size(); index++) {
+            switchBuilder
+                    .beginCase("case $L", index)
+                    .addStatement("return $L.class", mClassInfoList.get(index).getClassAndPackage());
+        }
+        switchBuilder
+                .beginCase("default")
+                .addStatement("return null")
+                .endSwitch();
+
+        return MethodSpec.methodBuilder("getModelClass")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)))
+                .addParameter(int.class, "index")
+                .addCode(switchBuilder.build())
+                .build();
+    }
+
+    @NotNull
+    private MethodSpec getCreateTypeAdapterMethodSpec() {
         TypeVariableName genericType = TypeVariableName.get("T");
         AnnotationSpec suppressedWarnings = AnnotationSpec.builder(SuppressWarnings.class)
                 .addMember("value", "\"unchecked\"")
                 .addMember("value", "\"rawtypes\"")
                 .build();
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("create")
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("createTypeAdapter")
                 .addTypeVariable(genericType)
                 .addParameter(Gson.class, "gson")
                 .addParameter(ParameterizedTypeName.get(ClassName.get(TypeToken.class), genericType), "type")
+                .addParameter(int.class, "index")
                 .returns(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), genericType))
                 .addAnnotation(suppressedWarnings)
-                .addAnnotation(Override.class)
-                .addModifiers(Modifier.PUBLIC)
-                .addCode("Class<? super T> clazz = type.getRawType();\n");
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC);
 
-        for (ClassInfo classInfo : mClassInfoList) {
-            builder.beginControlFlow("if (clazz == " + classInfo.getClassAndPackage() + ".class)");
+        SwitchCodeBlockBuilder switchBuilder = new SwitchCodeBlockBuilder()
+                .beginSwitch("switch (index)");
+
+        for (int index = 0; index < mClassInfoList.size(); index++) {
+            ClassInfo classInfo = mClassInfoList.get(index);
+            switchBuilder.beginCase("case $L", index);
             List<? extends TypeMirror> typeArguments = classInfo.getTypeArguments();
             if (typeArguments == null || typeArguments.isEmpty()) {
-                builder.addStatement("return (TypeAdapter<T>) new " + classInfo.getTypeAdapterQualifiedClassName() + "(gson)");
+                switchBuilder.addStatement("return (TypeAdapter<T>) new " + classInfo.getTypeAdapterQualifiedClassName() + "(gson)");
             } else {
-                builder.addStatement("java.lang.reflect.Type parameters = type.getType()");
-                builder.beginControlFlow("if (parameters instanceof java.lang.reflect.ParameterizedType)");
-                builder.addStatement(
-                        "java.lang.reflect.ParameterizedType parameterizedType = (java.lang.reflect.ParameterizedType) parameters");
-                builder.addStatement(
+                // Locals are declared inside the if and else blocks, since the cases share a scope
+                switchBuilder.beginControlFlow("if (type.getType() instanceof java.lang.reflect.ParameterizedType)");
+                for (DeclaredType specializedType : mSpecializedTypes) {
+                    if (classInfo.getClassAndPackage().equals(TypeUtils.getClassNameFromTypeMirror(specializedType))) {
+                        String specializedClassName = classInfo.getPackageName() + "." +
+                                                      TypeAdapterGenerator.getSpecializedTypeAdapterClassName(classInfo, specializedType);
+                        switchBuilder.beginControlFlow("if ($L.TYPE_TOKEN.equals(type))", specializedClassName);
+                        switchBuilder.addStatement("return (TypeAdapter<T>) new $L(gson)", specializedClassName);
+                        switchBuilder.endControlFlow();
+                    }
+                }
+                switchBuilder.addStatement(
+                        "java.lang.reflect.ParameterizedType parameterizedType = (java.lang.reflect.ParameterizedType) type.getType()");
+                switchBuilder.addStatement(
                         "java.lang.reflect.Type[] parametersType = parameterizedType.getActualTypeArguments()");
                 String statement = "return (TypeAdapter<T>) new " + classInfo.getTypeAdapterQualifiedClassName() + "(gson";
                 for (int idx = 0; idx < typeArguments.size(); idx++) {
                     statement += ", parametersType[" + idx + "]";
                 }
                 statement += ")";
-                builder.addStatement(statement);
-                builder.endControlFlow();
-                builder.beginControlFlow("else");
-                builder.addStatement("TypeToken objectToken = TypeToken.get(Object.class)");
+                switchBuilder.addStatement(statement);
+                switchBuilder.endControlFlow();
+                switchBuilder.beginControlFlow("else");
+                switchBuilder.addStatement("TypeToken objectToken = TypeToken.get(Object.class)");
                 statement = "return (TypeAdapter<T>) new " + classInfo.getTypeAdapterQualifiedClassName() + "(gson";
                 for (int idx = 0; idx < typeArguments.size(); idx++) {
                     statement += ", objectToken.getType()";
                 }
                 statement += ")";
-                builder.addStatement(statement);
-                builder.endControlFlow();
+                switchBuilder.addStatement(statement);
+                switchBuilder.endControlFlow();
             }
-            builder.endControlFlow();
         }
 
-        builder.addCode("return null;\n");
+        switchBuilder
+                .beginCase("default")
+                .addStatement("return null")
+                .endSwitch();
+
+        return builder.addCode(switchBuilder.build()).build();
+    }
+
+    /**
+     * Lists the types to pre-warm, which are the non generic classes and the concrete
+     * parameterizations of the generic ones. Used by {@code Stag.prewarm}.
+     */
+    @NotNull
+    private MethodSpec getAddPrewarmTypesMethodSpec() {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(METHOD_ADD_PREWARM_TYPES)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ParameterizedTypeName.get(List.class, Type.class), "types");
+
+        for (ClassInfo classInfo : mClassInfoList) {
+            List<? extends TypeMirror> typeArguments = classInfo.getTypeArguments();
+            if (typeArguments == null || typeArguments.isEmpty()) {
+                builder.addStatement("types.add($L.class)", classInfo.getClassAndPackage());
+            }
+        }
+        for (TypeMirror parameterizedType : mParameterizedTypes) {
+            CodeBlock typeCode = getTypeCode(parameterizedType);
+            if (typeCode != null) {
+                builder.addStatement("types.add($L)", typeCode);
+            }
+        }
 
         return builder.build();
     }
+
+    /**
+     * Returns the code that creates the {@link Type} of a class, of an array, or of a
+     * parameterization of a class with concrete type arguments, and null for any other type.
+     */
+    @Nullable
+    static CodeBlock getTypeCode(@NotNull TypeMirror typeMirror) {
+        if (typeMirror.getKind() == TypeKind.ARRAY) {
+            TypeMirror elementType = typeMirror;
+            while (elementType.getKind() == TypeKind.ARRAY) {
+                elementType = ((ArrayType) elementType).getComponentType();
+            }
+            if (elementType.getKind().isPrimitive() ||
+                (elementType.getKind() == TypeKind.DECLARED && !TypeUtils.isParameterizedType(elementType))) {
+                // Arrays of non generic types are classes
+                return CodeBlock.of("$L.class", typeMirror.toString());
+            }
+            CodeBlock componentTypeCode = getTypeCode(((ArrayType) typeMirror).getComponentType());
+            return componentTypeCode != null ? CodeBlock.of("$T.getGenericArrayType($L)", Types.class, componentTypeCode) : null;
+        }
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) typeMirror;
+        String rawType = TypeUtils.getClassNameFromTypeMirror(declaredType);
+        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        if (typeArguments.isEmpty()) {
+            return CodeBlock.of("$L.class", rawType);
+        }
+
+        CodeBlock.Builder builder = CodeBlock.builder().add("$T.getParameterizedType(null, $L.class", Types.class, rawType);
+        for (TypeMirror typeArgument : typeArguments) {
+            CodeBlock typeArgumentCode = getTypeCode(typeArgument);
+            if (typeArgumentCode == null) {
+                return null;
+            }
+            builder.add(", $L", typeArgumentCode);
+        }
+        return builder.add(")").build();
+    }
+
+    /**
+     * Creates the TypeAdapter of a type. If the package has generic classes, the TypeAdapters of
+     * their parameterizations are cached, so that each one is only built once per Gson instance.
+     */
+    @NotNull
+    private MethodSpec getCreateMethodSpec(boolean hasGenericClasses) {
+        TypeVariableName genericType = TypeVariableName.get("T");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("create")
+                .addTypeVariable(genericType)
+                .addParameter(Gson.class, "gson")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(TypeToken.class), genericType), "type")
+                .returns(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), genericType))
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("Class<? super T> clazz = type.getRawType()")
+                .addStatement("int index = getClassIndex(clazz.getName())")
+                .beginControlFlow("if (index == -1 || clazz != getModelClass(index))")
+                .addComment("The class is not one of ours, as the names of the models are kept by the generated keep rules")
+                .addStatement("return null")
+                .endControlFlow();
+
+        if (!hasGenericClasses) {
+            return builder.addStatement("return createTypeAdapter(gson, type, index)").build();
+        }
+
+        return builder
+                .beginControlFlow("if (!(type.getType() instanceof $T))", ParameterizedType.class)
+                .addStatement("return createTypeAdapter(gson, type, index)")
+                .endControlFlow()
+                .addStatement("TypeAdapter<T> typeAdapter = genericTypeAdapterCache.get(gson, type)")
+                .beginControlFlow("if (typeAdapter == null)")
+                .addStatement("typeAdapter = genericTypeAdapterCache.putIfAbsent(gson, type, createTypeAdapter(gson, type, index))")
+                .endControlFlow()
+                .addStatement("return typeAdapter")
+                .build();
+    }
 }
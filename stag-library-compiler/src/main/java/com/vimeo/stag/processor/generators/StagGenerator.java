@@ -34,6 +34,8 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.vimeo.stag.Prewarmer;
+import com.vimeo.stag.processor.codegen.StringIndexMethodBuilder;
 import com.vimeo.stag.processor.codegen.SwitchCodeBlockBuilder;
 import com.vimeo.stag.processor.generators.model.ClassInfo;
 import com.vimeo.stag.processor.utils.TypeUtils;
@@ -41,10 +43,14 @@ import com.vimeo.stag.processor.utils.TypeUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.lang.model.element.Modifier;
 import javax.lang.model.type.TypeMirror;
@@ -87,10 +93,47 @@ public class StagGenerator {
         TypeSpec.Builder stagBuilder =
                 TypeSpec.classBuilder(CLASS_STAG).addModifiers(Modifier.PUBLIC, Modifier.FINAL);
         stagBuilder.addType(getAdapterFactorySpec(generatedStagFactoryWrappers));
+        stagBuilder.addMethod(getPrewarmMethodSpec(generatedStagFactoryWrappers));
 
         return stagBuilder.build();
     }
 
+    /**
+     * Generates the {@code Stag.prewarm} method, which creates the TypeAdapters of the types
+     * listed by each sub factory in parallel. The sub factories list the types, as they are in
+     * the same package as the model classes and can access them.
+     *
+     * @param generatedStagFactoryWrappers the sub factories.
+     * @return the method spec.
+     */
+    @NotNull
+    private static MethodSpec getPrewarmMethodSpec(@NotNull List<SubFactoriesInfo> generatedStagFactoryWrappers) {
+        ParameterizedTypeName listOfType = ParameterizedTypeName.get(List.class, Type.class);
+        MethodSpec.Builder prewarmMethodBuilder = MethodSpec.methodBuilder("prewarm")
+                .addJavadoc("Creates the TypeAdapters of the classes handled by {@link Factory} in parallel, so that\n")
+                .addJavadoc("requests do not pay for building them. The Gson instance must have {@link Factory}\n")
+                .addJavadoc("registered. Generic classes are only created for the parameterizations used in fields.\n")
+                .addJavadoc("\n@param gson     the Gson instance that caches the TypeAdapters.\n")
+                .addJavadoc("@param executor the executor that creates the TypeAdapters.\n")
+                .addJavadoc("@return the time in nanoseconds that it took to get the TypeAdapter of each type.\n")
+                .addJavadoc("@throws InterruptedException if interrupted while waiting for the executor.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(ParameterizedTypeName.get(Map.class, Type.class, Long.class))
+                .addParameter(Gson.class, "gson")
+                .addParameter(Executor.class, "executor")
+                .addException(InterruptedException.class)
+                .addStatement("$T types = new $T<$T>()", listOfType, ArrayList.class, Type.class);
+
+        for (SubFactoriesInfo subFactoriesInfo : generatedStagFactoryWrappers) {
+            prewarmMethodBuilder.addStatement("$L.$L(types)", subFactoriesInfo.classAndPackageName,
+                                              StagFactoryGenerator.METHOD_ADD_PREWARM_TYPES);
+        }
+
+        return prewarmMethodBuilder
+                .addStatement("return $T.prewarm(gson, executor, types)", Prewarmer.class)
+                .build();
+    }
+
     @NotNull
     private static TypeSpec getAdapterFactorySpec(@NotNull List<SubFactoriesInfo> generatedStagFactoryWrappers) {
         TypeVariableName genericTypeName = TypeVariableName.get("T");
@@ -99,26 +142,15 @@ public class StagGenerator {
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
                 .addSuperinterface(TypeAdapterFactory.class);
 
-        ParameterizedTypeName hashMapOfStringToInteger = ParameterizedTypeName.get(HashMap.class, String.class, Integer.class);
-        FieldSpec.Builder packageToIndexMapField = FieldSpec.builder(hashMapOfStringToInteger,
-                                                                     "packageToIndexMap", Modifier.FINAL, Modifier.PRIVATE).initializer("new " + hashMapOfStringToInteger.toString() + "( " + generatedStagFactoryWrappers.size() + ")");
-        adapterFactoryBuilder.addField(packageToIndexMapField.build());
+        int subFactoryCount = generatedStagFactoryWrappers.size();
 
-        TypeVariableName typeAdapterFactoryArray = TypeVariableName.get("TypeAdapterFactory[]");
+        // The generated factory is lock free: sub factories are created once through a CAS populated array.
+        ParameterizedTypeName typeAdapterFactoryArray = ParameterizedTypeName.get(AtomicReferenceArray.class, TypeAdapterFactory.class);
         FieldSpec.Builder typeAdapterFactoryArrayField = FieldSpec.builder(typeAdapterFactoryArray,
-                                                                           "typeAdapterFactoryArray", Modifier.FINAL, Modifier.PRIVATE).initializer("new TypeAdapterFactory[" + generatedStagFactoryWrappers.size() + "]");
+                                                                           "typeAdapterFactoryArray", Modifier.FINAL, Modifier.PRIVATE)
+                .initializer("new $T($L)", typeAdapterFactoryArray, subFactoryCount);
         adapterFactoryBuilder.addField(typeAdapterFactoryArrayField.build());
 
-        MethodSpec.Builder getPackageNameMethodBuilder = MethodSpec.methodBuilder("getPackageName")
-                .addTypeVariable(genericTypeName)
-                .returns(String.class)
-                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
-                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), genericTypeName), "clazz")
-                .addStatement("String name = clazz.getName()")
-                .addStatement("int last = name.lastIndexOf('.')")
-                .addStatement("return last == -1 ? null : name.substring(0, last)");
-        adapterFactoryBuilder.addMethod(getPackageNameMethodBuilder.build());
-
         MethodSpec.Builder createTypeAdapterFactoryMethodBuilder = MethodSpec.methodBuilder("createTypeAdapterFactory")
                 .returns(TypeAdapterFactory.class)
                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
@@ -128,7 +160,7 @@ public class StagGenerator {
         SwitchCodeBlockBuilder factorySwitchBuilder = new SwitchCodeBlockBuilder()
                 .beginSwitch("switch(index)");
 
-        for (int index = 0; index < generatedStagFactoryWrappers.size(); index++) {
+        for (int index = 0; index < subFactoryCount; index++) {
             factorySwitchBuilder
                     .beginCase("case $L", index)
                     .addStatement("result = new $L()", generatedStagFactoryWrappers.get(index).classAndPackageName)
@@ -146,62 +178,25 @@ public class StagGenerator {
                 .returns(TypeAdapterFactory.class)
                 .addModifiers(Modifier.PRIVATE)
                 .addParameter(int.class, "index")
-                .addStatement("TypeAdapterFactory typeAdapterFactory = typeAdapterFactoryArray[index]")
+                .addStatement("TypeAdapterFactory typeAdapterFactory = typeAdapterFactoryArray.get(index)")
                 .beginControlFlow("if (typeAdapterFactory == null)")
                 .addStatement("typeAdapterFactory = createTypeAdapterFactory(index)")
-                .addStatement("typeAdapterFactoryArray[index] = typeAdapterFactory")
+                .beginControlFlow("if (!typeAdapterFactoryArray.compareAndSet(index, null, typeAdapterFactory))")
+                .addStatement("typeAdapterFactory = typeAdapterFactoryArray.get(index)")
+                .endControlFlow()
                 .endControlFlow()
                 .addStatement("return typeAdapterFactory");
         adapterFactoryBuilder.addMethod(getTypeAdapterFactoryMethodBuilder.build());
 
-        MethodSpec.Builder getTypeAdapterMethodBuilder = MethodSpec.methodBuilder("getTypeAdapterFactory")
-                .returns(ClassName.get(TypeAdapterFactory.class))
-                .addModifiers(Modifier.PRIVATE)
-                .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), TypeVariableName.get("?")), "clazz")
-                .addParameter(String.class, "currentPackageName")
-                .addParameter(int.class, "index")
-                .addStatement("String packageName = getPackageName(clazz)")
-                .addStatement("packageToIndexMap.put(packageName, index)")
-                .beginControlFlow("if (currentPackageName.equals(packageName))")
-                .addStatement("return getTypeAdapterFactory(index)")
-                .endControlFlow()
-                .addStatement("return null");
-        adapterFactoryBuilder.addMethod(getTypeAdapterMethodBuilder.build());
-
-        MethodSpec.Builder getSubTypeAdapterMethodBuilder = MethodSpec.methodBuilder("getSubFactory")
-                .returns(ClassName.get(TypeAdapterFactory.class))
-                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
-                                       .addMember("value", "\"fallthrough\"")
-                                       .build())
-                .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
-                .addParameter(String.class, "currentPackageName")
-                .addStatement("Integer index = packageToIndexMap.get(currentPackageName);")
-                .beginControlFlow("if (index != null)")
-                .addStatement("TypeAdapterFactory typeAdapterFactory = getTypeAdapterFactory(index)")
-                .addStatement("return typeAdapterFactory")
-                .endControlFlow()
-                .addStatement("TypeAdapterFactory result = null");
-
-        SwitchCodeBlockBuilder subFactorySwitchBuilder = new SwitchCodeBlockBuilder()
-                .beginSwitch("switch(packageToIndexMap.size())");
-
-        for (int index = 0; index < generatedStagFactoryWrappers.size(); index++) {
-            subFactorySwitchBuilder
-                    .beginCase("case $L", index)
-                    .addStatement("result = getTypeAdapterFactory($L.class, currentPackageName, $L)", generatedStagFactoryWrappers.get(index).representativeClassInfo.getClassAndPackage(), index)
-                    .beginControlFlow("if (result != null)")
-                    .addStatement("return result")
-                    .endControlFlow();
+        // Classes are looked up by name, so resolving an adapter does not load any other classes. The names
+        // survive obfuscation through the keep rules generated along with the factory, see getKeepRules.
+        StringIndexMethodBuilder subFactoryIndexBuilder = new StringIndexMethodBuilder("getSubFactoryIndex");
+        for (int index = 0; index < subFactoryCount; index++) {
+            for (ClassInfo classInfo : generatedStagFactoryWrappers.get(index).classInfos) {
+                subFactoryIndexBuilder.add(classInfo.getBinaryName(), index);
+            }
         }
-
-        subFactorySwitchBuilder
-                .beginCase("default")
-                .addStatement("return null")
-                .endSwitch();
-
-        getSubTypeAdapterMethodBuilder.addCode(subFactorySwitchBuilder.build());
-
-        adapterFactoryBuilder.addMethod(getSubTypeAdapterMethodBuilder.build());
+        adapterFactoryBuilder.addMethods(subFactoryIndexBuilder.build());
 
         String suppressWarningValue = "value";
         MethodSpec.Builder createMethodBuilder = MethodSpec.methodBuilder("create")
@@ -218,26 +213,41 @@ public class StagGenerator {
                               "type")
 
                 .addStatement("Class<? super T> clazz = type.getRawType()")
-                .addStatement("String currentPackageName = getPackageName(clazz)")
-                .beginControlFlow("if (currentPackageName == null)")
-                .addStatement("return null")
-                .endControlFlow()
-                .addStatement("TypeAdapterFactory typeAdapterFactory = getSubFactory(currentPackageName)")
-                .addStatement("return typeAdapterFactory != null ? typeAdapterFactory.create(gson, type) : null");
+                .addStatement("int index = getSubFactoryIndex(clazz.getName())")
+                .addStatement("return index == -1 ? null : getTypeAdapterFactory(index).create(gson, type)");
 
         adapterFactoryBuilder.addMethod(createMethodBuilder.build());
 
         return adapterFactoryBuilder.build();
     }
 
+    /**
+     * Generates the ProGuard and R8 rules which keep the names of the classes handled by
+     * {@code Stag.Factory}, as the factory and the sub factories find the classes by name and
+     * return null for the names they do not know.
+     *
+     * @param generatedStagFactoryWrappers the sub factories.
+     * @return the content of the rules file.
+     */
+    @NotNull
+    public static String getKeepRules(@NotNull List<SubFactoriesInfo> generatedStagFactoryWrappers) {
+        StringBuilder rules = new StringBuilder("# Generated by Stag, which finds the TypeAdapters of the models by class name\n");
+        for (SubFactoriesInfo subFactoriesInfo : generatedStagFactoryWrappers) {
+            for (ClassInfo classInfo : subFactoriesInfo.classInfos) {
+                rules.append("-keepnames class ").append(classInfo.getBinaryName()).append('\n');
+            }
+        }
+        return rules.toString();
+    }
+
     public static class SubFactoriesInfo {
 
-        @NotNull final ClassInfo representativeClassInfo;
+        @NotNull final List<ClassInfo> classInfos;
 
         @NotNull final String classAndPackageName;
 
-        public SubFactoriesInfo(@NotNull ClassInfo classInfo, @NotNull String classAndPackageName) {
-            this.representativeClassInfo = classInfo;
+        public SubFactoriesInfo(@NotNull List<ClassInfo> classInfos, @NotNull String classAndPackageName) {
+            this.classInfos = classInfos;
             this.classAndPackageName = classAndPackageName;
         }
     }
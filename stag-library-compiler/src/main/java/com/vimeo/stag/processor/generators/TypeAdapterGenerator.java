@@ -31,13 +31,27 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
+import com.vimeo.stag.CanonicalById;
+import com.vimeo.stag.CanonicalTable;
+import com.vimeo.stag.FieldMask;
+import com.vimeo.stag.FieldNames;
+import com.vimeo.stag.FieldOrderCounter;
+import com.vimeo.stag.FinalHolder;
+import com.vimeo.stag.Intern;
 import com.vimeo.stag.KnownTypeAdapters;
 import com.vimeo.stag.KnownTypeAdapters.ArrayTypeAdapter;
+import com.vimeo.stag.StagJsonReader;
+import com.vimeo.stag.TimeFormat;
+import com.vimeo.stag.Types;
+import com.vimeo.stag.UseStag;
+import com.vimeo.stag.processor.codegen.NameIndexMethodBuilder;
 import com.vimeo.stag.processor.generators.model.AnnotatedClass;
 import com.vimeo.stag.processor.generators.model.ClassInfo;
 import com.vimeo.stag.processor.generators.model.SupportedTypesModel;
@@ -45,6 +59,7 @@ import com.vimeo.stag.processor.generators.model.accessor.FieldAccessor;
 import com.vimeo.stag.processor.utils.ElementUtils;
 import com.vimeo.stag.processor.utils.FileGenUtils;
 import com.vimeo.stag.processor.utils.KnownTypeAdapterUtils;
+import com.vimeo.stag.processor.utils.MessagerUtils;
 import com.vimeo.stag.processor.utils.TypeUtils;
 
 import org.jetbrains.annotations.NotNull;
@@ -53,14 +68,20 @@ import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -69,15 +90,90 @@ import javax.lang.model.type.TypeVariable;
 public class TypeAdapterGenerator extends AdapterGenerator {
 
     private static final String TYPE_ADAPTER_FIELD_PREFIX = "mTypeAdapter";
+    private static final String STATIC_ADAPTER_PARAMETER = "typeAdapter";
+    private static final String FIELD_INDEX_METHOD_NAME = "getFieldIndex";
+    private static final String FIELD_NAMES_FIELD_NAME = "FIELD_NAMES";
+    private static final String FIELD_ORDER_COUNTER_FIELD_NAME = "FIELD_ORDER_COUNTER";
+    private static final String DEFAULTS_FIELD_NAME = "DEFAULTS";
+    private static final String PROJECTION_PARAMETER = "projection";
+    private static final String READ_INTO_METHOD_NAME = "readInto";
+    private static final String READ_INTO_TARGET_PARAMETER = "target";
+    private static final String CANONICAL_TABLE_FIELD_NAME = "CANONICAL_TABLE";
 
     @NotNull
     private final ClassInfo mInfo;
     @NotNull
     private final SupportedTypesModel mSupportedTypesModel;
+    private final boolean mLazyAdapterFields;
+    private final boolean mFieldOrderStats;
+    private final boolean mOmitNulls;
+    private final boolean mOmitDefaults;
+    private final boolean mFieldProjection;
+    private final boolean mReadInto;
+    private final boolean mInternStrings;
+    @Nullable
+    private final DeclaredType mSpecializedType;
+
+    public TypeAdapterGenerator(@NotNull SupportedTypesModel supportedTypesModel, @NotNull ClassInfo info,
+                                boolean lazyAdapterFields, boolean fieldOrderStats, boolean omitNulls,
+                                boolean omitDefaults, boolean fieldProjection, boolean readInto,
+                                boolean internStrings) {
+        this(supportedTypesModel, info, lazyAdapterFields, fieldOrderStats, omitNulls, omitDefaults, fieldProjection,
+             readInto, internStrings, null);
+    }
 
-    public TypeAdapterGenerator(@NotNull SupportedTypesModel supportedTypesModel, @NotNull ClassInfo info) {
+    /**
+     * Creates a generator for the TypeAdapter of a class.
+     *
+     * @param supportedTypesModel the supported types model.
+     * @param info                the class.
+     * @param lazyAdapterFields   true to create the TypeAdapters of the fields on first use.
+     * @param fieldOrderStats     true to count how often the fields are read in declared order.
+     * @param omitNulls           true to never write null fields, false to write them only if the
+     *                            writer serializes nulls.
+     * @param omitDefaults        true to never write fields equal to their default values, false
+     *                            to only do so for classes which ask for it through {@link UseStag}.
+     * @param fieldProjection     true to generate a method creating TypeAdapters which only read the
+     *                            fields of a {@link FieldMask}.
+     * @param readInto            true to generate methods reading JSON into existing instances.
+     * @param internStrings       true to read every String field as if it was annotated with
+     *                            {@link Intern}, false to only do so for annotated fields.
+     * @param specializedType     a parameterization of the class with concrete type arguments,
+     *                            to generate a TypeAdapter for that parameterization only, or null
+     *                            to generate the TypeAdapter of the class.
+     */
+    public TypeAdapterGenerator(@NotNull SupportedTypesModel supportedTypesModel, @NotNull ClassInfo info,
+                                boolean lazyAdapterFields, boolean fieldOrderStats, boolean omitNulls,
+                                boolean omitDefaults, boolean fieldProjection, boolean readInto,
+                                boolean internStrings, @Nullable DeclaredType specializedType) {
         mSupportedTypesModel = supportedTypesModel;
         mInfo = info;
+        mLazyAdapterFields = lazyAdapterFields;
+        mFieldOrderStats = fieldOrderStats;
+        mOmitNulls = omitNulls;
+        mOmitDefaults = omitDefaults;
+        mFieldProjection = fieldProjection;
+        mReadInto = readInto;
+        mInternStrings = internStrings;
+        mSpecializedType = specializedType;
+    }
+
+    /**
+     * The simple class name of the TypeAdapter specialized for a parameterization of a generic
+     * class, which is the name of the TypeAdapter of the class followed by the type arguments.
+     *
+     * @param info            the generic class.
+     * @param specializedType the parameterization of the class.
+     * @return the unescaped class name.
+     */
+    @NotNull
+    public static String getSpecializedTypeAdapterClassName(@NotNull ClassInfo info, @NotNull DeclaredType specializedType) {
+        StringBuilder className = new StringBuilder(FileGenUtils.unescapeEscapedString(info.getTypeAdapterClassName()));
+        for (TypeMirror typeArgument : specializedType.getTypeArguments()) {
+            String argumentName = typeArgument.toString().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_+$", "");
+            className.append('$').append(argumentName);
+        }
+        return className.toString();
     }
 
     @NotNull
@@ -122,7 +218,9 @@ public class TypeAdapterGenerator extends AdapterGenerator {
                  */
             DeclaredType declaredFieldType = (DeclaredType) fieldType;
             List<? extends TypeMirror> typeMirrors = ((DeclaredType) fieldType).getTypeArguments();
-            StringBuilder result = new StringBuilder("(com.google.gson.reflect.TypeToken<" + fieldType.toString() + ">)com.google.gson.reflect.TypeToken.getParameterized(" +
+            // The interned type is shared by all the adapters with a field of this type
+            StringBuilder result = new StringBuilder("(com.google.gson.reflect.TypeToken<" + fieldType.toString() + ">)com.google.gson.reflect.TypeToken.get(" +
+                                                     TypeUtils.className(Types.class) + ".getParameterizedType(null, " +
                                                      declaredFieldType.asElement().toString() + ".class");
 
             /*
@@ -163,7 +261,7 @@ public class TypeAdapterGenerator extends AdapterGenerator {
                 }
                 paramIndex++;
             }
-            result.append(")");
+            result.append("))");
             return adapterFieldInfo.updateAndGetTypeTokenFieldName(fieldType, result.toString());
         } else {
             return adapterFieldInfo.updateAndGetTypeTokenFieldName(fieldType, "com.google.gson.reflect.TypeToken.get(" + fieldType.toString() + ".class)");
@@ -182,16 +280,47 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         return ParameterizedTypeName.get(ClassName.get(TypeToken.class), typeName);
     }
 
+    /**
+     * Generates the read method. If the name of the TypeAdapter class is provided, the method is
+     * static and takes the TypeAdapter instance as a parameter, so that other TypeAdapters can call
+     * it directly. If the method is projected, it also takes an array telling which fields to read,
+     * and skips the values of the other ones. The readInto method is static, and reads into the given
+     * target, reusing its nested models, collections and maps.
+     * <p>
+     * JSON written by Stag, and most JSON written by servers, has its names in the order in which
+     * the fields are declared. The method therefore first compares each name with the name of the
+     * field after the last matched one, and only looks the name up when it does not match.
+     */
     @NotNull
     private static MethodSpec getReadMethodSpec(@NotNull TypeName typeName,
                                                 @NotNull Map<FieldAccessor, TypeMirror> elements,
-                                                @NotNull AdapterFieldInfo adapterFieldInfo) {
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("read")
+                                                @NotNull AdapterFieldInfo adapterFieldInfo,
+                                                @NotNull Map<FieldAccessor, String> staticAdapterClassNames,
+                                                @Nullable TypeName adapterTypeName,
+                                                @NotNull NameIndexMethodBuilder fieldIndexBuilder,
+                                                @NotNull List<String> fieldNames,
+                                                boolean fieldOrderStats,
+                                                boolean projected,
+                                                boolean readInto,
+                                                @Nullable FieldAccessor canonicalIdField,
+                                                @Nullable String canonicalTableCode) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(readInto ? READ_INTO_METHOD_NAME : "read")
                 .addParameter(JsonReader.class, "reader")
                 .returns(typeName)
                 .addModifiers(Modifier.PUBLIC)
-                .addAnnotation(Override.class)
                 .addException(IOException.class);
+        if (readInto) {
+            builder.addParameter(typeName, READ_INTO_TARGET_PARAMETER);
+        }
+        if (adapterTypeName != null) {
+            builder.addParameter(adapterTypeName, STATIC_ADAPTER_PARAMETER)
+                    .addModifiers(Modifier.STATIC);
+        } else {
+            builder.addAnnotation(Override.class);
+        }
+        if (projected) {
+            builder.addParameter(boolean[].class, PROJECTION_PARAMETER);
+        }
 
         builder.addStatement("com.google.gson.stream.JsonToken peek = reader.peek()");
 
@@ -207,48 +336,131 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         builder.endControlFlow();
 
         builder.addStatement("reader.beginObject()");
-        builder.addStatement(typeName + " object = new " + typeName + "()");
+        if (readInto) {
+            builder.addStatement(typeName + " object = " + READ_INTO_TARGET_PARAMETER + " != null ? " +
+                                 READ_INTO_TARGET_PARAMETER + " : new " + typeName + "()");
+        } else {
+            builder.addStatement(typeName + " object = new " + typeName + "()");
+        }
 
+        // Names are matched without creating Strings when the reader allows it
+        builder.addStatement("$T stagReader = reader instanceof $T ? ($T) reader : null",
+                             StagJsonReader.class, StagJsonReader.class, StagJsonReader.class);
+        boolean isCanonicalIdPrimitive = canonicalIdField != null &&
+                                         TypeUtils.isSupportedPrimitive(elements.get(canonicalIdField).toString());
+        if (canonicalIdField != null) {
+            builder.addStatement("$T canonicalTable = " + canonicalTableCode, CanonicalTable.class);
+        }
+        if (isCanonicalIdPrimitive) {
+            // Objects without an id must not be shared under the default value of the field
+            builder.addStatement("boolean hasCanonicalId = false");
+        }
+        builder.addStatement("int expectedFieldIndex = 0");
+        if (fieldOrderStats) {
+            builder.addStatement("int fieldOrderHits = 0");
+            builder.addStatement("int fieldOrderMisses = 0");
+        }
         builder.beginControlFlow("while (reader.hasNext())");
-        builder.addStatement("String name = reader.nextName()");
-        builder.beginControlFlow("switch (name)");
+        builder.addStatement("$T name = stagReader != null ? stagReader.nextNameChars() : reader.nextName()",
+                             CharSequence.class);
+        builder.addStatement("int fieldIndex");
+        builder.beginControlFlow("if (expectedFieldIndex < $L.length && $T.equals(name, $L[expectedFieldIndex]))",
+                                 FIELD_NAMES_FIELD_NAME, FieldNames.class, FIELD_NAMES_FIELD_NAME);
+        builder.addStatement("fieldIndex = expectedFieldIndex");
+        if (fieldOrderStats) {
+            builder.addStatement("fieldOrderHits++");
+        }
+        builder.nextControlFlow("else");
+        builder.addStatement("fieldIndex = $L(name)", FIELD_INDEX_METHOD_NAME);
+        if (fieldOrderStats) {
+            builder.addStatement("fieldOrderMisses++");
+        }
+        builder.endControlFlow();
+        builder.beginControlFlow("if (fieldIndex >= 0)");
+        builder.addStatement("expectedFieldIndex = fieldIndex + 1");
+        if (projected) {
+            builder.beginControlFlow("if (!$L[fieldIndex])", PROJECTION_PARAMETER);
+            builder.addStatement("fieldIndex = -1");
+            builder.endControlFlow();
+        }
+        builder.endControlFlow();
+        builder.beginControlFlow("switch (fieldIndex)");
 
 
-        final List<FieldAccessor> nonNullFields = new ArrayList<>();
+        final Map<FieldAccessor, Integer> nonNullFields = new LinkedHashMap<>();
 
+        int fieldCount = 0;
         for (Map.Entry<FieldAccessor, TypeMirror> element : elements.entrySet()) {
             final FieldAccessor fieldAccessor = element.getKey();
             String name = fieldAccessor.getJsonName();
 
             final TypeMirror elementValue = element.getValue();
 
-            builder.addCode("case \"" + name + "\":\n");
+            int fieldIndex = fieldCount++;
+            builder.addCode("case " + fieldIndex + ":\n");
+            fieldIndexBuilder.add(name, fieldIndex);
+            fieldNames.add(name);
 
             String[] alternateJsonNames = fieldAccessor.getAlternateJsonNames();
             if (alternateJsonNames != null && alternateJsonNames.length > 0) {
                 for (String alternateJsonName : alternateJsonNames) {
-                    builder.addCode("case \"" + alternateJsonName + "\":\n");
+                    fieldIndexBuilder.add(alternateJsonName, fieldIndex);
                 }
             }
 
             String variableType = element.getValue().toString();
             boolean isPrimitive = TypeUtils.isSupportedPrimitive(variableType);
 
+            String adapterAccessor = adapterFieldInfo.getAdapterAccessor(elementValue, name).getCode(adapterTypeName != null);
             if (isPrimitive) {
                 builder.addStatement("\tobject." +
-                                     fieldAccessor.createSetterCode(adapterFieldInfo.getAdapterAccessor(elementValue, name) +
+                                     fieldAccessor.createSetterCode(adapterAccessor +
                                                                     ".read(reader, object." + fieldAccessor.createGetterCode() + ")"));
 
             } else {
-                builder.addStatement("\tobject." + fieldAccessor.createSetterCode(adapterFieldInfo.getAdapterAccessor(elementValue, name) +
-                                                                                  ".read(reader)"));
+                String staticAdapterClassName = staticAdapterClassNames.get(fieldAccessor);
+                String readCode = adapterAccessor + ".read(reader)";
+                if (staticAdapterClassName != null && readInto) {
+                    // Nested models are read into the current instances
+                    readCode = adapterAccessor + " instanceof " + staticAdapterClassName + " ? " + staticAdapterClassName +
+                               "." + READ_INTO_METHOD_NAME + "(reader, object." + fieldAccessor.createGetterCode() +
+                               ", (" + staticAdapterClassName + ") " + adapterAccessor + ") : " + readCode;
+                } else if (staticAdapterClassName != null) {
+                    readCode = adapterAccessor + " instanceof " + staticAdapterClassName + " ? " + staticAdapterClassName +
+                               ".read(reader, (" + staticAdapterClassName + ") " + adapterAccessor + ") : " + readCode;
+                } else if (readInto && (TypeUtils.isSupportedList(elementValue) || TypeUtils.isSupportedMap(elementValue))) {
+                    // Collections and maps are cleared and refilled
+                    readCode = KnownTypeAdapters.class.getName() + "." + READ_INTO_METHOD_NAME + "(" + adapterAccessor +
+                               ", reader, object." + fieldAccessor.createGetterCode() + ")";
+                }
+                builder.addStatement("\tobject." + fieldAccessor.createSetterCode(readCode));
             }
 
+            if (fieldAccessor == canonicalIdField) {
+                // The rest of a repeated object is skipped once its id is known
+                String idCode = "object." + fieldAccessor.createGetterCode();
+                if (isPrimitive) {
+                    builder.addStatement("hasCanonicalId = true");
+                }
+                builder.beginControlFlow("if (canonicalTable != null" + (isPrimitive ? "" : " && " + idCode + " != null") + ")");
+                builder.addStatement("$T canonical = canonicalTable.get($T.class, " + idCode + ")", typeName, typeName);
+                builder.beginControlFlow("if (canonical != null)");
+                builder.beginControlFlow("while (reader.hasNext())");
+                builder.addStatement("reader.skipValue()");
+                builder.endControlFlow();
+                builder.addStatement("reader.endObject()");
+                if (fieldOrderStats) {
+                    builder.addStatement("$L.record(fieldOrderHits, fieldOrderMisses)", FIELD_ORDER_COUNTER_FIELD_NAME);
+                }
+                builder.addStatement("return canonical");
+                builder.endControlFlow();
+                builder.endControlFlow();
+            }
 
             builder.addStatement("\tbreak");
             if (fieldAccessor.doesRequireNotNull()) {
                 if (!TypeUtils.isSupportedPrimitive(elementValue.toString())) {
-                    nonNullFields.add(fieldAccessor);
+                    nonNullFields.put(fieldAccessor, fieldIndex);
                 }
             }
         }
@@ -260,13 +472,31 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         builder.endControlFlow();
 
         builder.addStatement("reader.endObject()");
+        if (fieldOrderStats) {
+            builder.addStatement("$L.record(fieldOrderHits, fieldOrderMisses)", FIELD_ORDER_COUNTER_FIELD_NAME);
+        }
 
-        for (FieldAccessor nonNullField : nonNullFields) {
-            builder.beginControlFlow("if (object." + nonNullField.createGetterCode() + " == null)");
+        for (Map.Entry<FieldAccessor, Integer> entry : nonNullFields.entrySet()) {
+            FieldAccessor nonNullField = entry.getKey();
+            if (projected) {
+                // Fields which are not read keep their default values
+                builder.beginControlFlow("if ($L[$L] && object." + nonNullField.createGetterCode() + " == null)",
+                                         PROJECTION_PARAMETER, entry.getValue());
+            } else {
+                builder.beginControlFlow("if (object." + nonNullField.createGetterCode() + " == null)");
+            }
             builder.addStatement("throw new java.io.IOException(\"" + nonNullField.createGetterCode() + " cannot be null\")");
             builder.endControlFlow();
         }
 
+        if (canonicalIdField != null) {
+            String idCode = "object." + canonicalIdField.createGetterCode();
+            builder.beginControlFlow("if (canonicalTable != null && " +
+                                     (isCanonicalIdPrimitive ? "hasCanonicalId" : idCode + " != null") + ")");
+            builder.addStatement("canonicalTable.put($T.class, " + idCode + ", object)", typeName);
+            builder.endControlFlow();
+        }
+
         builder.addStatement("return object");
 
         return builder.build();
@@ -346,32 +576,47 @@ public class TypeAdapterGenerator extends AdapterGenerator {
     /**
      * Returns the adapter code for the unknown types.
      */
-    private static String getAdapterForUnknownGenericType(@NotNull TypeMirror fieldType,
-                                                          @NotNull StagGenerator stagGenerator,
-                                                          @NotNull Map<TypeMirror, String> typeVarsMap,
-                                                          @NotNull AdapterFieldInfo adapterFieldInfo) {
-
-        String fieldName = adapterFieldInfo.getFieldName(fieldType);
-        if (fieldName == null) {
-            fieldName = TYPE_ADAPTER_FIELD_PREFIX + adapterFieldInfo.size();
+    @NotNull
+    private static AdapterAccessor getAdapterForUnknownGenericType(@NotNull TypeMirror fieldType,
+                                                                   @NotNull StagGenerator stagGenerator,
+                                                                   @NotNull Map<TypeMirror, String> typeVarsMap,
+                                                                   @NotNull AdapterFieldInfo adapterFieldInfo) {
+
+        AdapterAccessor field = adapterFieldInfo.getField(fieldType);
+        if (field == null) {
             String fieldInitializationCode = "gson.getAdapter(" +
                                              getTypeTokenCode(fieldType, stagGenerator, typeVarsMap, adapterFieldInfo) + ")";
-            adapterFieldInfo.addField(fieldType, fieldName, fieldInitializationCode);
+            field = adapterFieldInfo.addField(fieldType, fieldInitializationCode);
         }
-        return fieldName;
+        return field;
     }
 
+    /**
+     * Generates the write method. If the name of the TypeAdapter class is provided, the method is
+     * static and takes the TypeAdapter instance as a parameter, so that other TypeAdapters can call
+     * it directly. Static write methods of views only write the given fields.
+     */
     @NotNull
-    private static MethodSpec getWriteMethodSpec(@NotNull TypeName typeName,
+    private static MethodSpec getWriteMethodSpec(@NotNull String methodName,
+                                                 @NotNull TypeName typeName,
                                                  @NotNull Map<FieldAccessor, TypeMirror> memberVariables,
-                                                 @NotNull AdapterFieldInfo adapterFieldInfo) {
-        final MethodSpec.Builder builder = MethodSpec.methodBuilder("write")
+                                                 @NotNull AdapterFieldInfo adapterFieldInfo,
+                                                 @NotNull Map<FieldAccessor, String> staticAdapterClassNames,
+                                                 @Nullable TypeName adapterTypeName,
+                                                 boolean omitNulls,
+                                                 boolean omitDefaults) {
+        final MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
                 .addParameter(JsonWriter.class, "writer")
                 .addParameter(typeName, "object")
                 .returns(void.class)
                 .addModifiers(Modifier.PUBLIC)
-                .addAnnotation(Override.class)
                 .addException(IOException.class);
+        if (adapterTypeName != null) {
+            builder.addParameter(adapterTypeName, STATIC_ADAPTER_PARAMETER)
+                    .addModifiers(Modifier.STATIC);
+        } else {
+            builder.addAnnotation(Override.class);
+        }
 
         builder.beginControlFlow("if (object == null)");
         builder.addStatement("writer.nullValue()");
@@ -379,6 +624,11 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         builder.endControlFlow();
         builder.addStatement("writer.beginObject()");
 
+        if (!omitNulls && hasNullableFields(memberVariables)) {
+            // Null fields are skipped outright, instead of leaving it to the writer to drop their names
+            builder.addStatement("boolean serializeNulls = writer.getSerializeNulls()");
+        }
+
         for (Map.Entry<FieldAccessor, TypeMirror> element : memberVariables.entrySet()) {
             FieldAccessor fieldAccessor = element.getKey();
             final String getterCode = fieldAccessor.createGetterCode();
@@ -389,31 +639,54 @@ public class TypeAdapterGenerator extends AdapterGenerator {
             boolean isPrimitive = TypeUtils.isSupportedPrimitive(variableType);
 
             builder.addCode("\n");
-            builder.addStatement("writer.name(\"" + name + "\")");
 
             if (!isPrimitive) {
                 builder.beginControlFlow("if (object." + getterCode + " != null) ");
-            }
-
-            if (!isPrimitive) {
-                builder.addStatement(
-                        adapterFieldInfo.getAdapterAccessor(element.getValue(), name) + ".write(writer, object." +
-                        getterCode + ")");
+                if (omitDefaults) {
+                    builder.beginControlFlow("if (!" + getReferenceEqualsCode(element.getValue(), "object." + getterCode,
+                                                                               DEFAULTS_FIELD_NAME + "." + getterCode) + ")");
+                }
+                builder.addStatement("writer.name(\"" + name + "\")");
+                String adapterAccessor =
+                        adapterFieldInfo.getAdapterAccessor(element.getValue(), name).getCode(adapterTypeName != null);
+                String staticAdapterClassName = staticAdapterClassNames.get(fieldAccessor);
+                if (staticAdapterClassName != null) {
+                    builder.beginControlFlow("if (" + adapterAccessor + " instanceof " + staticAdapterClassName + ")");
+                    builder.addStatement(staticAdapterClassName + ".write(writer, object." + getterCode + ", (" +
+                                         staticAdapterClassName + ") " + adapterAccessor + ")");
+                    builder.nextControlFlow("else");
+                }
+                builder.addStatement(adapterAccessor + ".write(writer, object." + getterCode + ")");
+                if (staticAdapterClassName != null) {
+                    builder.endControlFlow();
+                }
+                if (omitDefaults) {
+                    builder.endControlFlow();
+                }
                 /*
                 * If the element is annotated with NonNull annotation, throw {@link IOException} if it is null.
                 */
-                builder.endControlFlow();
-                builder.beginControlFlow("else");
                 if (fieldAccessor.doesRequireNotNull()) {
                     //throw exception in case the field is annotated as NonNull
+                    builder.nextControlFlow("else");
                     builder.addStatement("throw new java.io.IOException(\"" + getterCode + " cannot be null\")");
-                } else {
-                    //write null value to the writer if the field is null
+                } else if (!omitNulls) {
+                    //write null value to the writer if the field is null and the writer serializes nulls
+                    builder.nextControlFlow("else if (serializeNulls)");
+                    builder.addStatement("writer.name(\"" + name + "\")");
                     builder.addStatement("writer.nullValue()");
                 }
                 builder.endControlFlow();
             } else {
+                if (omitDefaults) {
+                    builder.beginControlFlow("if (" + getPrimitiveNotEqualCode(variableType, "object." + getterCode,
+                                                                               DEFAULTS_FIELD_NAME + "." + getterCode) + ")");
+                }
+                builder.addStatement("writer.name(\"" + name + "\")");
                 builder.addStatement("writer.value(object." + getterCode + ")");
+                if (omitDefaults) {
+                    builder.endControlFlow();
+                }
             }
         }
 
@@ -422,22 +695,70 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         return builder.build();
     }
 
+    /**
+     * Returns the code testing whether two non null values are equal. Arrays are compared by their
+     * elements, as their own equals method only compares identities.
+     */
+    @NotNull
+    private static String getReferenceEqualsCode(@NotNull TypeMirror type, @NotNull String value,
+                                                 @NotNull String defaultValue) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            String method = ((ArrayType) type).getComponentType().getKind().isPrimitive() ? "equals" : "deepEquals";
+            return "java.util.Arrays." + method + "(" + value + ", " + defaultValue + ")";
+        }
+        return value + ".equals(" + defaultValue + ")";
+    }
+
+    /**
+     * Returns the code comparing two primitive values. Floating point values are compared by
+     * their bits, so that NaN equals NaN and 0.0 does not equal -0.0.
+     */
+    @NotNull
+    private static String getPrimitiveNotEqualCode(@NotNull String primitiveType, @NotNull String value,
+                                                   @NotNull String defaultValue) {
+        if (primitiveType.equals(float.class.getName())) {
+            return "Float.compare(" + value + ", " + defaultValue + ") != 0";
+        } else if (primitiveType.equals(double.class.getName())) {
+            return "Double.compare(" + value + ", " + defaultValue + ") != 0";
+        } else {
+            return value + " != " + defaultValue;
+        }
+    }
+
+    /**
+     * Returns true if any of the fields may be null and is allowed to be.
+     */
+    private static boolean hasNullableFields(@NotNull Map<FieldAccessor, TypeMirror> memberVariables) {
+        for (Map.Entry<FieldAccessor, TypeMirror> element : memberVariables.entrySet()) {
+            if (!TypeUtils.isSupportedPrimitive(element.getValue().toString()) && !element.getKey().doesRequireNotNull()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the adapter code for the known types.
      */
-    private static String getAdapterAccessor(@NotNull TypeMirror fieldType
+    @NotNull
+    private static AdapterAccessor getAdapterAccessor(@NotNull TypeMirror fieldType
             , @NotNull StagGenerator stagGenerator, @NotNull Map<TypeMirror, String> typeVarsMap,
-                                             @NotNull AdapterFieldInfo adapterFieldInfo) {
+                                                      @NotNull AdapterFieldInfo adapterFieldInfo) {
 
         String knownTypeAdapter = KnownTypeAdapterUtils.getKnownTypeAdapterForType(fieldType);
 
         if (knownTypeAdapter != null) {
-            return knownTypeAdapter;
+            return AdapterAccessor.forCode(knownTypeAdapter);
+        }
+
+        AdapterAccessor field = adapterFieldInfo.getField(fieldType);
+        if (field != null) {
+            return field;
         }
 
-        String fieldName = adapterFieldInfo.getFieldName(fieldType);
-        if (fieldName != null) {
-            return fieldName;
+        String javaTimeTypeAdapter = KnownTypeAdapterUtils.getJavaTimeTypeAdapter(fieldType);
+        if (javaTimeTypeAdapter != null) {
+            return adapterFieldInfo.addField(fieldType, javaTimeTypeAdapter);
         }
 
         if (TypeUtils.isNativeArray(fieldType)) {
@@ -446,29 +767,29 @@ public class TypeAdapterGenerator extends AdapterGenerator {
                  */
             TypeMirror arrayInnerType = TypeUtils.getArrayInnerType(fieldType);
             if (TypeUtils.isSupportedPrimitive(arrayInnerType.toString())) {
-                return KnownTypeAdapterUtils.getNativePrimitiveArrayTypeAdapter(fieldType);
+                return AdapterAccessor.forCode(KnownTypeAdapterUtils.getNativePrimitiveArrayTypeAdapter(fieldType));
             } else {
                 String adapterAccessor = getAdapterAccessor(arrayInnerType, stagGenerator, typeVarsMap,
-                                                            adapterFieldInfo);
+                                                            adapterFieldInfo).getCode(false);
                 String nativeArrayInstantiator =
                         KnownTypeAdapterUtils.getNativeArrayInstantiator(arrayInnerType);
-                return "new " + TypeUtils.className(ArrayTypeAdapter.class) + "<" +
-                       arrayInnerType.toString() + ">" +
-                       "(" + adapterAccessor + ", " + nativeArrayInstantiator + ")";
+                String adapterCode = "new " + TypeUtils.className(ArrayTypeAdapter.class) + "<" +
+                                     arrayInnerType.toString() + ">" +
+                                     "(" + adapterAccessor + ", " + nativeArrayInstantiator + ")";
+                return adapterFieldInfo.addField(fieldType, adapterCode);
             }
         } else if (TypeUtils.isSupportedList(fieldType)) {
             DeclaredType declaredType = (DeclaredType) fieldType;
             List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
             TypeMirror param = typeArguments.get(0);
-            String paramAdapterAccessor = getAdapterAccessor(param, stagGenerator, typeVarsMap, adapterFieldInfo);
+            String paramAdapterAccessor =
+                    getAdapterAccessor(param, stagGenerator, typeVarsMap, adapterFieldInfo).getCode(false);
             String listInstantiator = KnownTypeAdapterUtils.getListInstantiator(fieldType);
             String adapterCode =
                     "new " + TypeUtils.className(KnownTypeAdapters.ListTypeAdapter.class) + "<" + param.toString() + "," +
                     fieldType.toString() + ">" +
                     "(" + paramAdapterAccessor + ", " + listInstantiator + ")";
-            fieldName = TYPE_ADAPTER_FIELD_PREFIX + adapterFieldInfo.size();
-            adapterFieldInfo.addField(fieldType, fieldName, adapterCode);
-            return fieldName;
+            return adapterFieldInfo.addField(fieldType, adapterCode);
 
         } else if (TypeUtils.isSupportedMap(fieldType)) {
             DeclaredType declaredType = (DeclaredType) fieldType;
@@ -477,11 +798,21 @@ public class TypeAdapterGenerator extends AdapterGenerator {
             String keyAdapterAccessor;
             String valueAdapterAccessor;
             String arguments = "";
+            String adapterClassName = TypeUtils.className(KnownTypeAdapters.MapTypeAdapter.class);
             if (typeArguments != null && typeArguments.size() == 2) {
                 TypeMirror keyType = typeArguments.get(0);
                 TypeMirror valueType = typeArguments.get(1);
-                keyAdapterAccessor = getAdapterAccessor(keyType, stagGenerator, typeVarsMap, adapterFieldInfo);
-                valueAdapterAccessor = getAdapterAccessor(valueType, stagGenerator, typeVarsMap, adapterFieldInfo);
+                String mapKeyAdapter = getMapKeyAdapterAccessor(keyType, stagGenerator, typeVarsMap, adapterFieldInfo);
+                if (mapKeyAdapter != null) {
+                    // Keys which are always written as JSON names are streamed without building a JsonElement
+                    keyAdapterAccessor = mapKeyAdapter;
+                    adapterClassName = TypeUtils.className(KnownTypeAdapters.StringKeyMapTypeAdapter.class);
+                } else {
+                    keyAdapterAccessor =
+                            getAdapterAccessor(keyType, stagGenerator, typeVarsMap, adapterFieldInfo).getCode(false);
+                }
+                valueAdapterAccessor =
+                        getAdapterAccessor(valueType, stagGenerator, typeVarsMap, adapterFieldInfo).getCode(false);
                 arguments = "<" + keyType.toString() + ", " + valueType.toString() + ", " +
                             fieldType.toString() + ">";
             } else {
@@ -490,30 +821,90 @@ public class TypeAdapterGenerator extends AdapterGenerator {
                 valueAdapterAccessor = keyAdapterAccessor;
             }
 
-            String adapterCode = "new " + TypeUtils.className(KnownTypeAdapters.MapTypeAdapter.class) + arguments +
+            String adapterCode = "new " + adapterClassName + arguments +
                                  "(" + keyAdapterAccessor + ", " + valueAdapterAccessor + ", " +
                                  mapInstantiator + ")";
-            fieldName = TYPE_ADAPTER_FIELD_PREFIX + adapterFieldInfo.size();
-            adapterFieldInfo.addField(fieldType, fieldName, adapterCode);
-            return fieldName;
+            return adapterFieldInfo.addField(fieldType, adapterCode);
         } else {
             return getAdapterForUnknownGenericType(fieldType, stagGenerator, typeVarsMap, adapterFieldInfo);
         }
     }
 
+    /**
+     * Returns the code for the {@link KnownTypeAdapters.MapKeyAdapter} of the key type
+     * of a map, if the keys are always written as JSON names.
+     *
+     * @param keyType the type of the map key
+     * @return the code for the key adapter, or null if the key needs to go through a
+     * {@link KnownTypeAdapters.MapTypeAdapter}
+     */
+    @Nullable
+    private static String getMapKeyAdapterAccessor(@NotNull TypeMirror keyType,
+                                                   @NotNull StagGenerator stagGenerator,
+                                                   @NotNull Map<TypeMirror, String> typeVarsMap,
+                                                   @NotNull AdapterFieldInfo adapterFieldInfo) {
+        String knownMapKeyAdapter = KnownTypeAdapterUtils.getMapKeyAdapter(keyType);
+        if (knownMapKeyAdapter != null) {
+            return knownMapKeyAdapter;
+        }
+        if (keyType.getKind() == TypeKind.DECLARED &&
+            TypeUtils.isEnum(TypeUtils.unsafeTypeMirrorToTypeElement(keyType))) {
+            String enumAdapterAccessor =
+                    getAdapterAccessor(keyType, stagGenerator, typeVarsMap, adapterFieldInfo).getCode(false);
+            return "new " + TypeUtils.className(KnownTypeAdapters.EnumMapKeyAdapter.class) + "<" +
+                   keyType.toString() + ">(" + keyType.toString() + ".class, " + enumAdapterAccessor + ")";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the TypeAdapter of the date or time field in the format of its {@link TimeFormat},
+     * reporting an error if the field is annotated but is not a date or time.
+     */
+    @Nullable
+    private static String getTimeTypeAdapter(@NotNull FieldAccessor fieldAccessor, @NotNull TypeMirror fieldType) {
+        TimeFormat.Style timeFormat = fieldAccessor.getTimeFormat();
+        if (timeFormat == null) {
+            return null;
+        }
+        String timeTypeAdapter = KnownTypeAdapterUtils.getTimeTypeAdapter(fieldType, timeFormat);
+        if (timeTypeAdapter == null) {
+            MessagerUtils.reportError("@TimeFormat is only supported on Date, Instant, OffsetDateTime, " +
+                                      "LocalDate and LocalDateTime fields.", fieldAccessor.getElement());
+        }
+        return timeTypeAdapter;
+    }
+
+    /**
+     * Returns true if the values of the field are read as canonical Strings, reporting an error
+     * if the field is annotated with {@link Intern} but is not a String.
+     */
+    private static boolean isInterned(@NotNull FieldAccessor fieldAccessor, @NotNull TypeMirror fieldType,
+                                      boolean internStrings) {
+        boolean isString = String.class.getName().equals(fieldType.toString());
+        if (fieldAccessor.isInterned() && !isString) {
+            MessagerUtils.reportError("@Intern is only supported on String fields.", fieldAccessor.getElement());
+            return false;
+        }
+        return isString && (internStrings || fieldAccessor.isInterned());
+    }
+
     @NotNull
     private static AdapterFieldInfo addAdapterFields(@NotNull StagGenerator stagGenerator,
                                                      @NotNull MethodSpec.Builder constructorBuilder,
                                                      @NotNull Map<FieldAccessor, TypeMirror> memberVariables,
-                                                     @NotNull Map<TypeMirror, String> typeVarsMap) {
+                                                     @NotNull Map<TypeMirror, String> typeVarsMap,
+                                                     boolean lazyAdapterFields,
+                                                     boolean internStrings) {
 
-        AdapterFieldInfo result = new AdapterFieldInfo(memberVariables.size());
+        AdapterFieldInfo result = new AdapterFieldInfo(memberVariables.size(), lazyAdapterFields);
         for (Map.Entry<FieldAccessor, TypeMirror> entry : memberVariables.entrySet()) {
             FieldAccessor fieldAccessor = entry.getKey();
             TypeMirror fieldType = entry.getValue();
 
-            String adapterAccessor = null;
+            AdapterAccessor adapterAccessor = null;
             TypeMirror optionalJsonAdapter = fieldAccessor.getJsonAdapterType();
+            String timeTypeAdapter = getTimeTypeAdapter(fieldAccessor, fieldType);
             if (optionalJsonAdapter != null) {
                 ExecutableElement constructor = ElementUtils.getFirstConstructor(optionalJsonAdapter);
                 if (constructor != null) {
@@ -527,8 +918,12 @@ public class TypeAdapterGenerator extends AdapterGenerator {
                 } else {
                     throw new IllegalStateException("Unsupported @JsonAdapter value: " + optionalJsonAdapter);
                 }
+            } else if (timeTypeAdapter != null) {
+                result.addFieldToAccessorCode(fieldAccessor.getJsonName(), timeTypeAdapter);
+            } else if (isInterned(fieldAccessor, fieldType, internStrings)) {
+                result.addFieldToAccessorCode(fieldAccessor.getJsonName(), KnownTypeAdapterUtils.getInternedStringTypeAdapter());
             } else if (KnownTypeAdapterUtils.hasNativePrimitiveTypeAdapter(fieldType)) {
-                adapterAccessor = KnownTypeAdapterUtils.getNativePrimitiveTypeAdapter(fieldType);
+                adapterAccessor = AdapterAccessor.forCode(KnownTypeAdapterUtils.getNativePrimitiveTypeAdapter(fieldType));
             } else if (TypeUtils.containsTypeVarParams(fieldType)) {
                 adapterAccessor = getAdapterForUnknownGenericType(fieldType, stagGenerator, typeVarsMap, result);
             } else {
@@ -552,16 +947,18 @@ public class TypeAdapterGenerator extends AdapterGenerator {
     @Override
     @NotNull
     public TypeSpec createTypeAdapterSpec(@NotNull StagGenerator stagGenerator) {
-        TypeMirror typeMirror = mInfo.getType();
+        TypeMirror typeMirror = mSpecializedType != null ? mSpecializedType : mInfo.getType();
         TypeName typeVariableName = TypeVariableName.get(typeMirror);
 
-        List<? extends TypeMirror> typeArguments = mInfo.getTypeArguments();
+        List<? extends TypeMirror> typeArguments = TypeUtils.getTypeArguments(typeMirror);
 
         MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(Gson.class, "gson");
 
-        String className = FileGenUtils.unescapeEscapedString(mInfo.getTypeAdapterClassName());
+        String className = mSpecializedType != null
+                ? getSpecializedTypeAdapterClassName(mInfo, mSpecializedType)
+                : FileGenUtils.unescapeEscapedString(mInfo.getTypeAdapterClassName());
         TypeSpec.Builder adapterBuilder = TypeSpec.classBuilder(className)
                 .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
                                        .addMember("value", "\"unchecked\"")
@@ -590,6 +987,8 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         if (idx > 0) {
             constructorBuilder.addParameter(Type[].class, "type");
             constructorBuilder.varargs(true);
+        } else if (mSpecializedType != null) {
+            adapterBuilder.addField(createSpecializedTypeTokenSpec(mSpecializedType));
         } else {
             //Create Type token as a static public final member variable
             // to be used from outside and by other adapters
@@ -601,13 +1000,81 @@ public class TypeAdapterGenerator extends AdapterGenerator {
             throw new IllegalStateException("The AnnotatedClass class can't be null in TypeAdapterGenerator : " + typeMirror.toString());
         }
         Map<FieldAccessor, TypeMirror> memberVariables = annotatedClass.getMemberVariables();
+        if (mSpecializedType != null) {
+            // The fields are resolved against the type arguments, so that their adapters are known at compile time.
+            // The adapters of nested models are still looked up with Gson.getAdapter, and the ones of other
+            // modules are called through TypeAdapter rather than static methods, see Future Enhancements in README.md
+            for (Map.Entry<FieldAccessor, TypeMirror> entry : memberVariables.entrySet()) {
+                entry.setValue(entry.getKey().asMemberOf(mSpecializedType));
+            }
+        }
 
         AdapterFieldInfo adapterFieldInfo =
-                addAdapterFields(stagGenerator, constructorBuilder, memberVariables, typeVarsMap);
+                addAdapterFields(stagGenerator, constructorBuilder, memberVariables, typeVarsMap, mLazyAdapterFields,
+                                 mInternStrings);
 
+        // Nested models are read and written through direct calls to the static methods of their TypeAdapters
+        Map<FieldAccessor, String> staticAdapterClassNames = new HashMap<>();
+        for (Map.Entry<FieldAccessor, TypeMirror> entry : memberVariables.entrySet()) {
+            String staticAdapterClassName = getStaticAdapterClassName(entry.getKey(), entry.getValue(), stagGenerator);
+            if (staticAdapterClassName != null) {
+                staticAdapterClassNames.put(entry.getKey(), staticAdapterClassName);
+            }
+        }
 
-        MethodSpec writeMethod = getWriteMethodSpec(typeVariableName, memberVariables, adapterFieldInfo);
-        MethodSpec readMethod = getReadMethodSpec(typeVariableName, memberVariables, adapterFieldInfo);
+        // The TypeAdapters of non generic models have static read and write methods, which the
+        // TypeAdapter methods delegate to
+        TypeName adapterTypeName = idx == 0 && mSpecializedType == null
+                ? ClassName.get(mInfo.getPackageName(), className)
+                : null;
+
+        // The default values of the fields are those of an instance created like the read method does
+        UseStag useStag = annotatedClass.getElement().getAnnotation(UseStag.class);
+        boolean omitDefaults = mOmitDefaults || (useStag != null && useStag.omitDefaults());
+        if (omitDefaults) {
+            TypeName rawTypeName = typeVariableName instanceof ParameterizedTypeName
+                    ? ((ParameterizedTypeName) typeVariableName).rawType
+                    : typeVariableName;
+            adapterBuilder.addField(FieldSpec.builder(rawTypeName, DEFAULTS_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC,
+                                                      Modifier.FINAL)
+                                            .initializer("new $T()", rawTypeName)
+                                            .build());
+        }
+
+        // Repeated instances are replaced by the first instance read with the same id
+        CanonicalById canonicalById = annotatedClass.getElement().getAnnotation(CanonicalById.class);
+        FieldAccessor canonicalIdField = canonicalById != null
+                ? getCanonicalIdField(annotatedClass.getElement(), canonicalById, memberVariables, adapterTypeName)
+                : null;
+        String canonicalTableCode = null;
+        if (canonicalIdField != null && canonicalById.crossParseCapacity() > 0) {
+            adapterBuilder.addField(FieldSpec.builder(CanonicalTable.class, CANONICAL_TABLE_FIELD_NAME, Modifier.PUBLIC,
+                                                      Modifier.STATIC, Modifier.FINAL)
+                                            .initializer("new $T($L)", CanonicalTable.class,
+                                                         canonicalById.crossParseCapacity())
+                                            .build());
+            canonicalTableCode = CANONICAL_TABLE_FIELD_NAME;
+        } else if (canonicalIdField != null) {
+            canonicalTableCode = "stagReader != null ? stagReader.getCanonicalTable() : null";
+        }
+
+        MethodSpec writeMethod = getWriteMethodSpec("write", typeVariableName, memberVariables, adapterFieldInfo,
+                                                    staticAdapterClassNames, adapterTypeName, mOmitNulls,
+                                                    omitDefaults);
+        NameIndexMethodBuilder fieldIndexBuilder = new NameIndexMethodBuilder(FIELD_INDEX_METHOD_NAME);
+        List<String> fieldNames = new ArrayList<>();
+        MethodSpec readMethod = getReadMethodSpec(typeVariableName, memberVariables, adapterFieldInfo,
+                                                  staticAdapterClassNames, adapterTypeName, fieldIndexBuilder,
+                                                  fieldNames, mFieldOrderStats, false, false, canonicalIdField,
+                                                  canonicalTableCode);
+
+        adapterBuilder.addField(createFieldNamesSpec(fieldNames));
+        if (mFieldOrderStats) {
+            adapterBuilder.addField(FieldSpec.builder(FieldOrderCounter.class, FIELD_ORDER_COUNTER_FIELD_NAME,
+                                                      Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                                            .initializer("new $T()", FieldOrderCounter.class)
+                                            .build());
+        }
 
         adapterBuilder.addField(Gson.class, "mGson", Modifier.FINAL, Modifier.PRIVATE);
         constructorBuilder.addStatement("this.mGson = gson");
@@ -616,7 +1083,13 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         for (Map.Entry<String, FieldInfo> fieldInfo : adapterFieldInfo.mTypeTokenAccessorFields.entrySet()) {
             String originalFieldName = FileGenUtils.unescapeEscapedString(fieldInfo.getValue().accessorVariable);
             TypeName typeName = getTypeTokenFieldTypeName(fieldInfo.getValue().type);
-            constructorBuilder.addStatement(typeName.toString() + " " + originalFieldName + " = " + fieldInfo.getValue().initializationCode);
+            if (mLazyAdapterFields) {
+                // Lazily resolved adapters need the type tokens after the constructor has returned
+                adapterBuilder.addField(typeName, originalFieldName, Modifier.PRIVATE, Modifier.FINAL);
+                constructorBuilder.addStatement("this." + originalFieldName + " = " + fieldInfo.getValue().initializationCode);
+            } else {
+                constructorBuilder.addStatement(typeName.toString() + " " + originalFieldName + " = " + fieldInfo.getValue().initializationCode);
+            }
         }
 
         for (Map.Entry<String, FieldInfo> fieldInfo : adapterFieldInfo.mFieldAdapterAccessor.entrySet()) {
@@ -629,17 +1102,315 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         for (Map.Entry<String, FieldInfo> fieldInfo : adapterFieldInfo.mAdapterFields.entrySet()) {
             String originalFieldName = FileGenUtils.unescapeEscapedString(fieldInfo.getValue().accessorVariable);
             TypeName typeName = getAdapterFieldTypeName(fieldInfo.getValue().type);
-            adapterBuilder.addField(typeName, originalFieldName, Modifier.PRIVATE, Modifier.FINAL);
-            constructorBuilder.addStatement("this." + originalFieldName + " = " + fieldInfo.getValue().initializationCode);
+            if (mLazyAdapterFields) {
+                TypeName holderTypeName = ParameterizedTypeName.get(ClassName.get(FinalHolder.class), typeName);
+                adapterBuilder.addField(holderTypeName, originalFieldName, Modifier.PRIVATE);
+                adapterBuilder.addMethod(getLazyAdapterGetterSpec(originalFieldName, typeName, holderTypeName,
+                                                                  fieldInfo.getValue().initializationCode));
+            } else {
+                adapterBuilder.addField(typeName, originalFieldName, Modifier.PRIVATE, Modifier.FINAL);
+                constructorBuilder.addStatement("this." + originalFieldName + " = " + fieldInfo.getValue().initializationCode);
+            }
         }
 
         adapterBuilder.addMethod(constructorBuilder.build());
+        if (adapterTypeName != null) {
+            adapterBuilder.addMethod(MethodSpec.methodBuilder("write")
+                                             .addParameter(JsonWriter.class, "writer")
+                                             .addParameter(typeVariableName, "object")
+                                             .addModifiers(Modifier.PUBLIC)
+                                             .addAnnotation(Override.class)
+                                             .addException(IOException.class)
+                                             .addStatement("write(writer, object, this)")
+                                             .build());
+            adapterBuilder.addMethod(MethodSpec.methodBuilder("read")
+                                             .addParameter(JsonReader.class, "reader")
+                                             .returns(typeVariableName)
+                                             .addModifiers(Modifier.PUBLIC)
+                                             .addAnnotation(Override.class)
+                                             .addException(IOException.class)
+                                             .addStatement("return read(reader, this)")
+                                             .build());
+        }
         adapterBuilder.addMethod(writeMethod);
         adapterBuilder.addMethod(readMethod);
+        adapterBuilder.addMethod(fieldIndexBuilder.build());
+
+        if (mFieldProjection && adapterTypeName != null) {
+            // The projected read method only differs by skipping the fields that are not in the mask,
+            // so that the read method of every other TypeAdapter is left untouched
+            adapterBuilder.addMethod(getReadMethodSpec(typeVariableName, memberVariables, adapterFieldInfo,
+                                                       staticAdapterClassNames, adapterTypeName,
+                                                       new NameIndexMethodBuilder(FIELD_INDEX_METHOD_NAME),
+                                                       new ArrayList<String>(), mFieldOrderStats, true, false, null,
+                                                       null));
+            adapterBuilder.addMethod(getProjectingMethodSpec(typeVariableName, adapterTypeName));
+        }
+
+        if (mReadInto && adapterTypeName != null) {
+            adapterBuilder.addMethod(MethodSpec.methodBuilder(READ_INTO_METHOD_NAME)
+                                             .addParameter(JsonReader.class, "reader")
+                                             .addParameter(typeVariableName, READ_INTO_TARGET_PARAMETER)
+                                             .returns(typeVariableName)
+                                             .addModifiers(Modifier.PUBLIC)
+                                             .addException(IOException.class)
+                                             .addStatement("return $L(reader, $L, this)", READ_INTO_METHOD_NAME,
+                                                           READ_INTO_TARGET_PARAMETER)
+                                             .build());
+            adapterBuilder.addMethod(getReadMethodSpec(typeVariableName, memberVariables, adapterFieldInfo,
+                                                       staticAdapterClassNames, adapterTypeName,
+                                                       new NameIndexMethodBuilder(FIELD_INDEX_METHOD_NAME),
+                                                       new ArrayList<String>(), mFieldOrderStats, false, true, null,
+                                                       null));
+        }
+
+        if (adapterTypeName != null) {
+            Map<String, Map<FieldAccessor, TypeMirror>> views = getViews(memberVariables);
+            for (Map.Entry<String, Map<FieldAccessor, TypeMirror>> view : views.entrySet()) {
+                adapterBuilder.addMethod(getWriteMethodSpec(getViewWriteMethodName(view.getKey()), typeVariableName,
+                                                            view.getValue(), adapterFieldInfo, staticAdapterClassNames,
+                                                            adapterTypeName, mOmitNulls, omitDefaults));
+            }
+            if (!views.isEmpty()) {
+                adapterBuilder.addMethod(getViewMethodSpec(typeVariableName, adapterTypeName, views.keySet()));
+            }
+        }
 
         return adapterBuilder.build();
     }
 
+    /**
+     * Returns the field named by the {@link CanonicalById} annotation of a class, reporting an
+     * error if the class is generic or has no field with that JSON name.
+     */
+    @Nullable
+    private FieldAccessor getCanonicalIdField(@NotNull TypeElement element, @NotNull CanonicalById canonicalById,
+                                              @NotNull Map<FieldAccessor, TypeMirror> memberVariables,
+                                              @Nullable TypeName adapterTypeName) {
+        if (adapterTypeName == null) {
+            // The error is only reported once, by the TypeAdapter of the generic class itself
+            if (mSpecializedType == null) {
+                MessagerUtils.reportError("@CanonicalById is not supported on generic classes.", element);
+            }
+            return null;
+        }
+        for (FieldAccessor fieldAccessor : memberVariables.keySet()) {
+            if (fieldAccessor.getJsonName().equals(canonicalById.value())) {
+                return fieldAccessor;
+            }
+        }
+        MessagerUtils.reportError("@CanonicalById names \"" + canonicalById.value() +
+                                  "\", which is not the JSON name of a field of the class.", element);
+        return null;
+    }
+
+    /**
+     * Groups the fields by the views which include them. The views are sorted by name, and the
+     * fields of each view are in declared order.
+     */
+    @NotNull
+    private static Map<String, Map<FieldAccessor, TypeMirror>> getViews(@NotNull Map<FieldAccessor, TypeMirror> memberVariables) {
+        Map<String, Map<FieldAccessor, TypeMirror>> views = new TreeMap<>();
+        Map<String, String> viewNamesByMethodName = new HashMap<>();
+        for (Map.Entry<FieldAccessor, TypeMirror> entry : memberVariables.entrySet()) {
+            for (String viewName : entry.getKey().getViewNames()) {
+                if (!SourceVersion.isIdentifier(viewName) || SourceVersion.isKeyword(viewName)) {
+                    MessagerUtils.reportError("View name \"" + viewName + "\" must be a valid Java identifier.",
+                                              entry.getKey().getElement());
+                    continue;
+                }
+                String previousViewName = viewNamesByMethodName.put(getViewWriteMethodName(viewName), viewName);
+                if (previousViewName != null && !previousViewName.equals(viewName)) {
+                    MessagerUtils.reportError("View names \"" + viewName + "\" and \"" + previousViewName +
+                                              "\" only differ by their first letter.", entry.getKey().getElement());
+                    continue;
+                }
+                Map<FieldAccessor, TypeMirror> viewFields = views.get(viewName);
+                if (viewFields == null) {
+                    viewFields = new LinkedHashMap<>();
+                    views.put(viewName, viewFields);
+                }
+                viewFields.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return views;
+    }
+
+    /**
+     * The name of the static method writing the fields of a view, which is "write" followed by the
+     * capitalized view name and "View".
+     */
+    @NotNull
+    private static String getViewWriteMethodName(@NotNull String viewName) {
+        return "write" + Character.toUpperCase(viewName.charAt(0)) + viewName.substring(1) + "View";
+    }
+
+    /**
+     * Generates the method creating a TypeAdapter which writes the fields of a view, and reads all
+     * the fields.
+     */
+    @NotNull
+    private static MethodSpec getViewMethodSpec(@NotNull TypeName typeName, @NotNull TypeName adapterTypeName,
+                                                @NotNull Collection<String> viewNames) {
+        TypeName viewTypeName = ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), typeName);
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("view")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(viewTypeName)
+                .addParameter(Gson.class, "gson")
+                .addParameter(String.class, "name")
+                .addStatement("final $T $L = new $T(gson)", adapterTypeName, STATIC_ADAPTER_PARAMETER, adapterTypeName)
+                .beginControlFlow("switch (name)");
+        for (String viewName : viewNames) {
+            builder.addCode("case $S:\n", viewName).addCode("$>")
+                    .addStatement("return $L", getDelegatingAdapterSpec(typeName, adapterTypeName,
+                                                                        getViewWriteMethodName(viewName),
+                                                                        STATIC_ADAPTER_PARAMETER))
+                    .addCode("$<");
+        }
+        builder.addCode("default:\n").addCode("$>")
+                .addStatement("throw new $T(\"Unknown view: \" + name)", IllegalArgumentException.class)
+                .addCode("$<")
+                .endControlFlow();
+        return builder.build();
+    }
+
+    /**
+     * Generates an anonymous TypeAdapter which delegates to static methods of a generated TypeAdapter.
+     *
+     * @param typeName          the type of the model.
+     * @param adapterTypeName   the generated TypeAdapter, held by a final local variable.
+     * @param writeMethodName   the name of the static write method to call.
+     * @param readArguments     the arguments of the static read method, after the reader.
+     */
+    @NotNull
+    private static TypeSpec getDelegatingAdapterSpec(@NotNull TypeName typeName, @NotNull TypeName adapterTypeName,
+                                                     @NotNull String writeMethodName, @NotNull String readArguments) {
+        return TypeSpec.anonymousClassBuilder("")
+                .superclass(ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), typeName))
+                .addMethod(MethodSpec.methodBuilder("write")
+                                   .addParameter(JsonWriter.class, "writer")
+                                   .addParameter(typeName, "object")
+                                   .addModifiers(Modifier.PUBLIC)
+                                   .addAnnotation(Override.class)
+                                   .addException(IOException.class)
+                                   .addStatement("$T.$L(writer, object, $L)", adapterTypeName, writeMethodName,
+                                                 STATIC_ADAPTER_PARAMETER)
+                                   .build())
+                .addMethod(MethodSpec.methodBuilder("read")
+                                   .addParameter(JsonReader.class, "reader")
+                                   .returns(typeName)
+                                   .addModifiers(Modifier.PUBLIC)
+                                   .addAnnotation(Override.class)
+                                   .addException(IOException.class)
+                                   .addStatement("return $T.read(reader, $L)", adapterTypeName, readArguments)
+                                   .build())
+                .build();
+    }
+
+    /**
+     * Generates the method creating a TypeAdapter which only reads the fields of a {@link FieldMask},
+     * and writes all the fields.
+     */
+    @NotNull
+    private static MethodSpec getProjectingMethodSpec(@NotNull TypeName typeName, @NotNull TypeName adapterTypeName) {
+        TypeName projectingTypeName = ParameterizedTypeName.get(ClassName.get(TypeAdapter.class), typeName);
+        TypeSpec projectingAdapter = getDelegatingAdapterSpec(typeName, adapterTypeName, "write",
+                                                              STATIC_ADAPTER_PARAMETER + ", " + PROJECTION_PARAMETER);
+
+        return MethodSpec.methodBuilder("projecting")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(projectingTypeName)
+                .addParameter(Gson.class, "gson")
+                .addParameter(FieldMask.class, "mask")
+                .addStatement("final $T $L = new $T(gson)", adapterTypeName, STATIC_ADAPTER_PARAMETER, adapterTypeName)
+                .addStatement("final boolean[] $L = mask.select($L)", PROJECTION_PARAMETER, FIELD_NAMES_FIELD_NAME)
+                .addStatement("return $L", projectingAdapter)
+                .build();
+    }
+
+    /**
+     * Creates the array of the JSON names of the fields, in declared order, which the read method
+     * compares the next name with before looking it up.
+     */
+    @NotNull
+    private static FieldSpec createFieldNamesSpec(@NotNull List<String> fieldNames) {
+        CodeBlock.Builder initializer = CodeBlock.builder().add("{");
+        for (int i = 0; i < fieldNames.size(); i++) {
+            initializer.add(i == 0 ? "$S" : ", $S", fieldNames.get(i));
+        }
+        initializer.add("}");
+        return FieldSpec.builder(String[].class, FIELD_NAMES_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(initializer.build())
+                .build();
+    }
+
+    /**
+     * Creates the TypeToken of a specialized TypeAdapter, which is used by the package factory to
+     * match the parameterization.
+     */
+    @NotNull
+    private static FieldSpec createSpecializedTypeTokenSpec(@NotNull DeclaredType specializedType) {
+        TypeName typeTokenType = getTypeTokenFieldTypeName(specializedType);
+        return FieldSpec.builder(typeTokenType, "TYPE_TOKEN", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("($T) $T.get($L)", typeTokenType, TypeToken.class, StagFactoryGenerator.getTypeCode(specializedType))
+                .build();
+    }
+
+    /**
+     * Returns the qualified name of the TypeAdapter class of the type of a field, if it is a model
+     * of this module whose TypeAdapter has static read and write methods.
+     */
+    @Nullable
+    private String getStaticAdapterClassName(@NotNull FieldAccessor fieldAccessor,
+                                             @NotNull TypeMirror fieldType,
+                                             @NotNull StagGenerator stagGenerator) {
+        if (fieldAccessor.getJsonAdapterType() != null || fieldType.getKind() != TypeKind.DECLARED ||
+            TypeUtils.isParameterizedType(fieldType)) {
+            return null;
+        }
+        AnnotatedClass annotatedClass = mSupportedTypesModel.getSupportedType(fieldType);
+        if (annotatedClass == null) {
+            return null;
+        }
+        TypeElement element = annotatedClass.getElement();
+        if (element.getKind() != ElementKind.CLASS || TypeUtils.isAbstract(element) ||
+            TypeUtils.isParameterizedType(element) || !element.asType().toString().equals(fieldType.toString())) {
+            return null;
+        }
+        ClassInfo classInfo = stagGenerator.getKnownClass(fieldType);
+        return classInfo != null ? classInfo.getTypeAdapterQualifiedClassName() : null;
+    }
+
+    @NotNull
+    private static String getLazyAdapterGetterName(@NotNull String fieldName) {
+        return "get" + fieldName.substring(1);
+    }
+
+    /**
+     * Generates the getter of a lazily resolved TypeAdapter field. The field holds a
+     * {@link FinalHolder}, so a plain read of the field is enough to safely see the TypeAdapter
+     * created by another thread, and no volatile read is needed once the field is set. Threads
+     * racing on the first use may each create the TypeAdapter, which is harmless as
+     * {@link Gson} caches the TypeAdapters it creates.
+     */
+    @NotNull
+    private static MethodSpec getLazyAdapterGetterSpec(@NotNull String fieldName,
+                                                       @NotNull TypeName typeName,
+                                                       @NotNull TypeName holderTypeName,
+                                                       @NotNull String initializationCode) {
+        return MethodSpec.methodBuilder(getLazyAdapterGetterName(fieldName))
+                .addModifiers(Modifier.PRIVATE)
+                .returns(typeName)
+                .addStatement("$T typeAdapter = " + fieldName, holderTypeName)
+                .beginControlFlow("if (typeAdapter == null)")
+                .addStatement("$T gson = mGson", Gson.class)
+                .addStatement("typeAdapter = new $T(" + initializationCode + ")", holderTypeName)
+                .addStatement(fieldName + " = typeAdapter")
+                .endControlFlow()
+                .addStatement("return typeAdapter.value")
+                .build();
+    }
+
     private static class FieldInfo {
 
         @NotNull final TypeMirror type;
@@ -653,31 +1424,91 @@ public class TypeAdapterGenerator extends AdapterGenerator {
         }
     }
 
+    /**
+     * The code to access a TypeAdapter, which is either a TypeAdapter field of the generated
+     * TypeAdapter, read directly or through its lazy getter, or code which needs no instance of
+     * the generated TypeAdapter, such as a known TypeAdapter.
+     */
+    private static final class AdapterAccessor {
+
+        @Nullable private final String mFieldName;
+        private final boolean mLazy;
+        @NotNull private final String mCode;
+
+        private AdapterAccessor(@Nullable String fieldName, boolean lazy, @NotNull String code) {
+            mFieldName = fieldName;
+            mLazy = lazy;
+            mCode = code;
+        }
+
+        @NotNull
+        static AdapterAccessor forCode(@NotNull String code) {
+            return new AdapterAccessor(null, false, code);
+        }
+
+        @NotNull
+        static AdapterAccessor forField(@NotNull String fieldName, boolean lazy) {
+            return new AdapterAccessor(fieldName, lazy, fieldName);
+        }
+
+        /**
+         * Returns the code to access the TypeAdapter. The fields are accessed through the
+         * TypeAdapter parameter of the static methods, and from the instance otherwise.
+         */
+        @NotNull
+        String getCode(boolean isStatic) {
+            if (mFieldName == null) {
+                return mCode;
+            }
+            String member = mLazy ? getLazyAdapterGetterName(mFieldName) + "()" : mFieldName;
+            return isStatic ? STATIC_ADAPTER_PARAMETER + "." + member : member;
+        }
+    }
+
     private static class AdapterFieldInfo {
 
         //Type.toString -> Accessor Map
         @NotNull
-        private final Map<String, String> mAdapterAccessor;
+        private final Map<String, AdapterAccessor> mAdapterAccessor;
 
         //FieldName -> Accessor Map
         @NotNull final Map<String, FieldInfo> mFieldAdapterAccessor;
 
+        //FieldName -> Accessor code Map, for the fields whose adapters need no TypeAdapter field
+        @NotNull private final Map<String, AdapterAccessor> mFieldAccessorCode;
+
         //Type.toString -> Accessor Map
         @NotNull final Map<String, FieldInfo> mAdapterFields;
 
         //Type.toString -> Type Token Accessor Map
         @NotNull final Map<String, FieldInfo> mTypeTokenAccessorFields;
 
-        AdapterFieldInfo(int capacity) {
+        private final boolean mLazy;
+
+        AdapterFieldInfo(int capacity, boolean lazy) {
+            mLazy = lazy;
             mAdapterFields = new LinkedHashMap<>(capacity);
             mAdapterAccessor = new HashMap<>(capacity);
             mFieldAdapterAccessor = new HashMap<>(capacity);
+            mFieldAccessorCode = new HashMap<>();
             mTypeTokenAccessorFields = new LinkedHashMap<>();
         }
 
-        String getAdapterAccessor(@NotNull TypeMirror typeMirror, @NotNull String fieldName) {
+        @NotNull
+        AdapterAccessor getAdapterAccessor(@NotNull TypeMirror typeMirror, @NotNull String fieldName) {
+            AdapterAccessor accessor = mFieldAccessorCode.get(fieldName);
+            if (accessor != null) {
+                return accessor;
+            }
             FieldInfo adapterAccessor = mFieldAdapterAccessor.get(fieldName);
-            return adapterAccessor != null ? adapterAccessor.accessorVariable : mAdapterAccessor.get(typeMirror.toString());
+            if (adapterAccessor != null) {
+                return AdapterAccessor.forField(adapterAccessor.accessorVariable, false);
+            }
+            accessor = mAdapterAccessor.get(typeMirror.toString());
+            if (accessor == null) {
+                throw new IllegalStateException("No TypeAdapter for the field " + fieldName + " of type " + typeMirror);
+            }
+            return accessor;
         }
 
         String updateAndGetTypeTokenFieldName(@NotNull TypeMirror fieldType, @NotNull String initializationCode) {
@@ -689,25 +1520,39 @@ public class TypeAdapterGenerator extends AdapterGenerator {
             return result.accessorVariable;
         }
 
-        String getFieldName(@NotNull TypeMirror fieldType) {
+        @Nullable
+        AdapterAccessor getField(@NotNull TypeMirror fieldType) {
             FieldInfo fieldInfo = mAdapterFields.get(fieldType.toString());
-            return fieldInfo != null ? fieldInfo.accessorVariable : null;
+            return fieldInfo != null ? AdapterAccessor.forField(fieldInfo.accessorVariable, mLazy) : null;
         }
 
         int size() {
             return mAdapterFields.size() + mFieldAdapterAccessor.size();
         }
 
-        void addField(@NotNull TypeMirror fieldType, @NotNull String fieldName, @NotNull String fieldInitializationCode) {
+        /**
+         * Adds a TypeAdapter field for the type.
+         *
+         * @return the accessor of the field, which is read through its getter if the field is
+         * resolved lazily.
+         */
+        @NotNull
+        AdapterAccessor addField(@NotNull TypeMirror fieldType, @NotNull String fieldInitializationCode) {
+            String fieldName = TYPE_ADAPTER_FIELD_PREFIX + size();
             mAdapterFields.put(fieldType.toString(), new FieldInfo(fieldType, fieldInitializationCode, fieldName));
+            return AdapterAccessor.forField(fieldName, mLazy);
         }
 
-        void addTypeToAdapterAccessor(@NotNull TypeMirror typeMirror, String accessorCode) {
-            mAdapterAccessor.put(typeMirror.toString(), accessorCode);
+        void addTypeToAdapterAccessor(@NotNull TypeMirror typeMirror, @NotNull AdapterAccessor accessor) {
+            mAdapterAccessor.put(typeMirror.toString(), accessor);
         }
 
         void addFieldToAccessor(@NotNull String fieldName, @NotNull String variableName, TypeMirror fieldType, @NotNull String fieldInitializationCode) {
             mFieldAdapterAccessor.put(fieldName, new FieldInfo(fieldType, fieldInitializationCode, variableName));
         }
+
+        void addFieldToAccessorCode(@NotNull String fieldName, @NotNull String accessorCode) {
+            mFieldAccessorCode.put(fieldName, AdapterAccessor.forCode(accessorCode));
+        }
     }
 }
@@ -95,6 +95,17 @@ public final class ClassInfo {
         return mTypeName;
     }
 
+    /**
+     * The binary name of this class, which
+     * is the name returned by {@link Class#getName()}.
+     *
+     * @return a valid binary class name.
+     */
+    @NotNull
+    public String getBinaryName() {
+        return mPackageName + "." + mClassName;
+    }
+
     /**
      * The TypeMirror object backing this
      * ClassInfo object.
@@ -2,7 +2,11 @@ package com.vimeo.stag.processor.generators.model.accessor;
 
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.Intern;
+import com.vimeo.stag.StagView;
+import com.vimeo.stag.TimeFormat;
 import com.vimeo.stag.processor.utils.Preconditions;
+import com.vimeo.stag.processor.utils.TypeUtils;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -10,6 +14,7 @@ import org.jetbrains.annotations.Nullable;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeMirror;
 
@@ -146,6 +151,18 @@ public abstract class FieldAccessor {
         return mVariableElement.asType();
     }
 
+    /**
+     * The type of the field when it is viewed as a member of the provided type, in which the
+     * type variables of the declaring class are replaced by the type arguments.
+     *
+     * @param containing the parameterized type which has this field.
+     * @return the {@link TypeMirror} of the field in the containing type.
+     */
+    @NotNull
+    public final TypeMirror asMemberOf(@NotNull DeclaredType containing) {
+        return TypeUtils.asMemberOf(containing, mVariableElement);
+    }
+
     /**
      * Gets the JSON name for the element the name passed to
      * {@link SerializedName} will be used. If the element is
@@ -179,4 +196,47 @@ public abstract class FieldAccessor {
                 : null;
     }
 
+    /**
+     * Returns the names of the views which include the field, as
+     * given by its {@link StagView} annotation.
+     *
+     * @return an array of view names, which is empty if the field
+     * was not annotated.
+     */
+    @NotNull
+    public final String[] getViewNames() {
+        StagView annotation = mVariableElement.getAnnotation(StagView.class);
+        return annotation != null ? annotation.value() : new String[0];
+    }
+
+    /**
+     * Returns true if the field is annotated with {@link Intern}.
+     *
+     * @return true if the values of the field should be interned.
+     */
+    public final boolean isInterned() {
+        return mVariableElement.getAnnotation(Intern.class) != null;
+    }
+
+    /**
+     * Returns the format of the field, as given by its {@link TimeFormat} annotation.
+     *
+     * @return the format, or null if the field was not annotated.
+     */
+    @Nullable
+    public final TimeFormat.Style getTimeFormat() {
+        TimeFormat annotation = mVariableElement.getAnnotation(TimeFormat.class);
+        return annotation != null ? annotation.value() : null;
+    }
+
+    /**
+     * The element of the field, to which errors are reported.
+     *
+     * @return the {@link VariableElement} of the field.
+     */
+    @NotNull
+    public final VariableElement getElement() {
+        return mVariableElement;
+    }
+
 }
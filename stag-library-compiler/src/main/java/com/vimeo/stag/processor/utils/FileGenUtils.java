@@ -98,7 +98,7 @@ public final class FileGenUtils {
         }
     }
 
-    static void writeToResource(@NotNull Filer filer, @NotNull String generatedPackageName,
+    public static void writeToResource(@NotNull Filer filer, @NotNull String generatedPackageName,
                                 @NotNull String resourceName, @NotNull CharSequence content)
             throws IOException {
         FileObject file =
@@ -7,6 +7,8 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.vimeo.stag.KnownTypeAdapters;
+import com.vimeo.stag.RawJson;
+import com.vimeo.stag.TimeFormat;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -14,15 +16,35 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Currency;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -43,6 +65,9 @@ public final class KnownTypeAdapterUtils {
     @NotNull private static final HashMap<String, String> SUPPORTED_MAP_INSTANTIATORS = new HashMap<>();
     @NotNull private static final HashMap<String, String> KNOWN_PRIMITIVE_ARRAY_TYPE_ADAPTERS = new HashMap<>();
     @NotNull private static final HashMap<String, String> KNOWN_PRIMITIVE_TYPE_ADAPTERS = new HashMap<>();
+    @NotNull private static final HashMap<String, String> KNOWN_MAP_KEY_ADAPTERS = new HashMap<>();
+    @NotNull private static final HashMap<String, String> ISO_8601_TIME_TYPE_ADAPTERS = new HashMap<>();
+    @NotNull private static final HashMap<String, String> EPOCH_MILLIS_TIME_TYPE_ADAPTERS = new HashMap<>();
 
     static {
         KNOWN_TYPE_ADAPTERS.put(BitSet.class.getName(), typeAdapters(TypeAdapters.BIT_SET));
@@ -71,11 +96,30 @@ public final class KnownTypeAdapterUtils {
         KNOWN_TYPE_ADAPTERS.put(AtomicIntegerArray.class.getName(), typeAdapters(TypeAdapters.ATOMIC_INTEGER_ARRAY));
         KNOWN_TYPE_ADAPTERS.put(Currency.class.getName(), typeAdapters(TypeAdapters.CURRENCY));
         KNOWN_TYPE_ADAPTERS.put(Calendar.class.getName(), typeAdapters(TypeAdapters.CALENDAR));
+        KNOWN_TYPE_ADAPTERS.put(UUID.class.getName(), knownTypeAdapters(KnownTypeAdapters.UUID));
+        KNOWN_TYPE_ADAPTERS.put(URI.class.getName(), typeAdapters(TypeAdapters.URI));
+        KNOWN_TYPE_ADAPTERS.put(URL.class.getName(), typeAdapters(TypeAdapters.URL));
+        KNOWN_TYPE_ADAPTERS.put(Locale.class.getName(), typeAdapters(TypeAdapters.LOCALE));
+        KNOWN_TYPE_ADAPTERS.put(InetAddress.class.getName(), typeAdapters(TypeAdapters.INET_ADDRESS));
         KNOWN_TYPE_ADAPTERS.put(JsonElement.class.getName(), knownTypeAdapters(KnownTypeAdapters.JSON_ELEMENT));
         KNOWN_TYPE_ADAPTERS.put(JsonObject.class.getName(), knownTypeAdapters(KnownTypeAdapters.JSON_OBJECT));
         KNOWN_TYPE_ADAPTERS.put(JsonArray.class.getName(), knownTypeAdapters(KnownTypeAdapters.JSON_ARRAY));
         KNOWN_TYPE_ADAPTERS.put(JsonPrimitive.class.getName(), knownTypeAdapters(KnownTypeAdapters.JSON_PRIMITIVE));
         KNOWN_TYPE_ADAPTERS.put(JsonNull.class.getName(), knownTypeAdapters(KnownTypeAdapters.JSON_NULL));
+        KNOWN_TYPE_ADAPTERS.put(RawJson.class.getName(), knownTypeAdapters(KnownTypeAdapters.RAW_JSON));
+
+        // Date and time fields are left to the adapter registered with Gson unless they have a @TimeFormat
+        ISO_8601_TIME_TYPE_ADAPTERS.put(Date.class.getName(), knownTypeAdapters(KnownTypeAdapters.DATE));
+        ISO_8601_TIME_TYPE_ADAPTERS.put(Instant.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.INSTANT));
+        ISO_8601_TIME_TYPE_ADAPTERS.put(OffsetDateTime.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME));
+        ISO_8601_TIME_TYPE_ADAPTERS.put(LocalDate.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.LOCAL_DATE));
+        ISO_8601_TIME_TYPE_ADAPTERS.put(LocalDateTime.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME));
+
+        EPOCH_MILLIS_TIME_TYPE_ADAPTERS.put(Date.class.getName(), knownTypeAdapters(KnownTypeAdapters.DATE_EPOCH_MILLIS));
+        EPOCH_MILLIS_TIME_TYPE_ADAPTERS.put(Instant.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.INSTANT_EPOCH_MILLIS));
+        EPOCH_MILLIS_TIME_TYPE_ADAPTERS.put(OffsetDateTime.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME_EPOCH_MILLIS));
+        EPOCH_MILLIS_TIME_TYPE_ADAPTERS.put(LocalDate.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.LOCAL_DATE_EPOCH_MILLIS));
+        EPOCH_MILLIS_TIME_TYPE_ADAPTERS.put(LocalDateTime.class.getName(), javaTimeAdapters(KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME_EPOCH_MILLIS));
 
         KNOWN_PRIMITIVE_ARRAY_TYPE_ADAPTERS.put(int[].class.getSimpleName(), className(KnownTypeAdapters.PrimitiveIntegerArrayAdapter.class));
         KNOWN_PRIMITIVE_ARRAY_TYPE_ADAPTERS.put(long[].class.getSimpleName(), className(KnownTypeAdapters.PrimitiveLongArrayAdapter.class));
@@ -95,14 +139,35 @@ public final class KnownTypeAdapterUtils {
         KNOWN_PRIMITIVE_TYPE_ADAPTERS.put(boolean.class.getSimpleName(), className(KnownTypeAdapters.PrimitiveBooleanTypeAdapter.class));
         KNOWN_PRIMITIVE_TYPE_ADAPTERS.put(byte.class.getSimpleName(), className(KnownTypeAdapters.PrimitiveByteTypeAdapter.class));
 
+        KNOWN_MAP_KEY_ADAPTERS.put(String.class.getName(), knownTypeAdapters(KnownTypeAdapters.STRING_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Integer.class.getName(), knownTypeAdapters(KnownTypeAdapters.INTEGER_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Long.class.getName(), knownTypeAdapters(KnownTypeAdapters.LONG_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Short.class.getName(), knownTypeAdapters(KnownTypeAdapters.SHORT_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Byte.class.getName(), knownTypeAdapters(KnownTypeAdapters.BYTE_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Double.class.getName(), knownTypeAdapters(KnownTypeAdapters.DOUBLE_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Float.class.getName(), knownTypeAdapters(KnownTypeAdapters.FLOAT_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Boolean.class.getName(), knownTypeAdapters(KnownTypeAdapters.BOOLEAN_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(Character.class.getName(), knownTypeAdapters(KnownTypeAdapters.CHARACTER_MAP_KEY));
+        KNOWN_MAP_KEY_ADAPTERS.put(UUID.class.getName(), knownTypeAdapters(KnownTypeAdapters.UUID_MAP_KEY));
+
         SUPPORTED_COLLECTION_INSTANTIATORS.put(ArrayList.class.getName(), className(KnownTypeAdapters.ArrayListInstantiator.class));
         SUPPORTED_COLLECTION_INSTANTIATORS.put(List.class.getName(), className(KnownTypeAdapters.ListInstantiator.class));
         SUPPORTED_COLLECTION_INSTANTIATORS.put(Collection.class.getName(), className(KnownTypeAdapters.CollectionInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(Set.class.getName(), className(KnownTypeAdapters.SetInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(HashSet.class.getName(), className(KnownTypeAdapters.HashSetInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(LinkedHashSet.class.getName(), className(KnownTypeAdapters.LinkedHashSetInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(TreeSet.class.getName(), className(KnownTypeAdapters.TreeSetInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(Deque.class.getName(), className(KnownTypeAdapters.DequeInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(ArrayDeque.class.getName(), className(KnownTypeAdapters.ArrayDequeInstantiator.class));
+        SUPPORTED_COLLECTION_INSTANTIATORS.put(EnumSet.class.getName(), className(KnownTypeAdapters.EnumSetInstantiator.class));
 
         SUPPORTED_MAP_INSTANTIATORS.put(Map.class.getName(), className(KnownTypeAdapters.MapInstantiator.class));
         SUPPORTED_MAP_INSTANTIATORS.put(HashMap.class.getName(), className(KnownTypeAdapters.HashMapInstantiator.class));
         SUPPORTED_MAP_INSTANTIATORS.put(LinkedHashMap.class.getName(), className(KnownTypeAdapters.LinkedHashMapInstantiator.class));
         SUPPORTED_MAP_INSTANTIATORS.put(ConcurrentHashMap.class.getName(), className(KnownTypeAdapters.ConcurrentHashMapInstantiator.class));
+        SUPPORTED_MAP_INSTANTIATORS.put(SortedMap.class.getName(), className(KnownTypeAdapters.SortedMapInstantiator.class));
+        SUPPORTED_MAP_INSTANTIATORS.put(TreeMap.class.getName(), className(KnownTypeAdapters.TreeMapInstantiator.class));
+        SUPPORTED_MAP_INSTANTIATORS.put(EnumMap.class.getName(), className(KnownTypeAdapters.EnumMapInstantiator.class));
     }
 
     @NotNull
@@ -115,13 +180,18 @@ public final class KnownTypeAdapterUtils {
         return fieldToString(KnownTypeAdapters.class, object);
     }
 
+    @NotNull
+    private static String javaTimeAdapters(@NotNull Object object) {
+        return fieldToString(KnownTypeAdapters.JavaTime.class, object);
+    }
+
     @NotNull
     private static String fieldToString(@NotNull Class clazz, @NotNull Object object) {
         Field[] fields = clazz.getFields();
         for (Field field : fields) {
             try {
                 if (field.get(null) == object) {
-                    return clazz.getName() + '.' + field.getName();
+                    return clazz.getCanonicalName() + '.' + field.getName();
                 }
             } catch (IllegalAccessException e) {
                 DebugLog.log(e.getMessage());
@@ -139,6 +209,65 @@ public final class KnownTypeAdapterUtils {
         return KNOWN_TYPE_ADAPTERS.get(typeMirror.toString());
     }
 
+    /**
+     * Get the TypeAdapter which writes date or time values in a format.
+     *
+     * @param typeMirror the type of the values
+     * @param style      the format of the values
+     * @return the TypeAdapter, or null if the type is not a supported date or time type
+     */
+    @Nullable
+    public static String getTimeTypeAdapter(@NotNull TypeMirror typeMirror, @NotNull TimeFormat.Style style) {
+        String typeName = typeMirror.toString();
+        return style == TimeFormat.Style.EPOCH_MILLIS
+                ? EPOCH_MILLIS_TIME_TYPE_ADAPTERS.get(typeName)
+                : ISO_8601_TIME_TYPE_ADAPTERS.get(typeName);
+    }
+
+    /**
+     * Get the code of the TypeAdapter of a {@code java.time} value without a {@link TimeFormat},
+     * which is the TypeAdapter that Gson has for the type, if any, or else the ISO-8601 TypeAdapter
+     * of {@link KnownTypeAdapters.JavaTime}.
+     *
+     * @param typeMirror the type of the values
+     * @return the code of the TypeAdapter, or null if the type is not a {@code java.time} type
+     */
+    @Nullable
+    public static String getJavaTimeTypeAdapter(@NotNull TypeMirror typeMirror) {
+        String typeName = typeMirror.toString();
+        if (Date.class.getName().equals(typeName)) {
+            return null;
+        }
+        String defaultTypeAdapter = ISO_8601_TIME_TYPE_ADAPTERS.get(typeName);
+        if (defaultTypeAdapter == null) {
+            return null;
+        }
+        return KnownTypeAdapters.JavaTime.class.getCanonicalName() + ".getTypeAdapter(gson, " + typeName + ".class, " +
+               defaultTypeAdapter + ")";
+    }
+
+    /**
+     * The TypeAdapter of the String fields whose values are interned.
+     *
+     * @return the code of the TypeAdapter.
+     */
+    @NotNull
+    public static String getInternedStringTypeAdapter() {
+        return knownTypeAdapters(KnownTypeAdapters.INTERNED_STRING);
+    }
+
+    /**
+     * Get the {@link KnownTypeAdapters.MapKeyAdapter} for map keys
+     * that are always written as JSON names, such as {@link String} or {@link Integer}.
+     *
+     * @param typeMirror the type of the map key
+     * @return the key adapter, or null if the key type is not known
+     */
+    @Nullable
+    public static String getMapKeyAdapter(@NotNull TypeMirror typeMirror) {
+        return KNOWN_MAP_KEY_ADAPTERS.get(typeMirror.toString());
+    }
+
     /**
      * Get the instantiator for {@link List} types
      *
@@ -153,6 +282,10 @@ public final class KnownTypeAdapterUtils {
                                !declaredType.getTypeArguments().isEmpty() ? declaredType.getTypeArguments()
                 .get(0) : null;
         String postFix = valueType != null ? "<" + valueType.toString() + ">()" : "()";
+        if (valueType != null && outerClassType.equals(EnumSet.class.getName())) {
+            // Enum sets are created from the class of their constants
+            postFix = "<" + valueType.toString() + ">(" + valueType.toString() + ".class)";
+        }
         return "new " + SUPPORTED_COLLECTION_INSTANTIATORS.get(outerClassType) + postFix;
     }
 
@@ -174,6 +307,10 @@ public final class KnownTypeAdapterUtils {
                 .get(1) : null;
         String postFix = keyType != null && paramType != null ?
                 "<" + keyType.toString() + ", " + paramType.toString() + ">()" : "()";
+        if (keyType != null && paramType != null && outerClassType.equals(EnumMap.class.getName())) {
+            // Enum maps are created from the class of their keys
+            postFix = "<" + keyType.toString() + ", " + paramType.toString() + ">(" + keyType.toString() + ".class)";
+        }
 
         String instantiator = SUPPORTED_MAP_INSTANTIATORS.get(outerClassType);
 
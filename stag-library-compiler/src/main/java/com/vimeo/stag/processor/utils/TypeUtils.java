@@ -32,13 +32,23 @@ import com.vimeo.stag.processor.generators.model.accessor.FieldAccessor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.lang.model.element.Element;
@@ -477,9 +487,18 @@ public final class TypeUtils {
             return false;
         }
         String outerClassType = TypeUtils.getOuterClassType(type);
+        if (outerClassType.equals(EnumSet.class.getName())) {
+            return hasDeclaredTypeArgument(type);
+        }
         return outerClassType.equals(ArrayList.class.getName()) ||
                outerClassType.equals(List.class.getName()) ||
-               outerClassType.equals(Collection.class.getName());
+               outerClassType.equals(Collection.class.getName()) ||
+               outerClassType.equals(Set.class.getName()) ||
+               outerClassType.equals(HashSet.class.getName()) ||
+               outerClassType.equals(LinkedHashSet.class.getName()) ||
+               outerClassType.equals(TreeSet.class.getName()) ||
+               outerClassType.equals(Deque.class.getName()) ||
+               outerClassType.equals(ArrayDeque.class.getName());
     }
 
     /**
@@ -493,7 +512,12 @@ public final class TypeUtils {
             return false;
         }
         String outerClassType = TypeUtils.getOuterClassType(type);
+        if (outerClassType.equals(EnumMap.class.getName())) {
+            return hasDeclaredTypeArgument(type);
+        }
         return outerClassType.equals(Map.class.getName()) ||
+               outerClassType.equals(SortedMap.class.getName()) ||
+               outerClassType.equals(TreeMap.class.getName()) ||
                outerClassType.equals(HashMap.class.getName()) ||
                outerClassType.equals(ConcurrentHashMap.class.getName()) ||
                outerClassType.equals("android.util.ArrayMap") ||
@@ -501,6 +525,18 @@ public final class TypeUtils {
                outerClassType.equals(LinkedHashMap.class.getName());
     }
 
+    /**
+     * Returns true if the first type argument of the type is a declared type, such as the enum of
+     * an {@link EnumSet} or {@link EnumMap}, whose class can be referenced by the generated code.
+     */
+    private static boolean hasDeclaredTypeArgument(@NotNull TypeMirror type) {
+        if (!(type instanceof DeclaredType)) {
+            return false;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        return !typeArguments.isEmpty() && typeArguments.get(0).getKind() == TypeKind.DECLARED;
+    }
+
     /**
      * Method to check if the type is natively supported such as {@link String} etc
      *
@@ -619,4 +655,58 @@ public final class TypeUtils {
         return types.getDeclaredType(typeElem, typeArgs);
     }
 
+    /**
+     * Returns the type of an element when it is viewed as a member of a type.
+     *
+     * @param containing the type containing the element.
+     * @param element    the element, which must be a member of the containing type.
+     * @return the type of the element, with the type arguments of the containing type applied.
+     */
+    @NotNull
+    public static TypeMirror asMemberOf(@NotNull DeclaredType containing, @NotNull Element element) {
+        return getUtils().asMemberOf(containing, element);
+    }
+
+    /**
+     * Determines whether a type can be referenced from the code of a package, which is true if
+     * the type does not contain type variables, and every class it references is either public
+     * or declared in the package.
+     *
+     * @param type        the type to check.
+     * @param packageName the package that would reference the type.
+     * @return true if the type can be referenced from the package, false otherwise.
+     */
+    public static boolean isAccessibleFrom(@NotNull TypeMirror type, @NotNull String packageName) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            case ARRAY:
+                return isAccessibleFrom(((ArrayType) type).getComponentType(), packageName);
+            case DECLARED:
+                Element element = ((DeclaredType) type).asElement();
+                if (!packageName.equals(ElementUtils.getPackage(type))) {
+                    for (Element enclosing = element; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+                        if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                            return false;
+                        }
+                    }
+                }
+                for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
+                    if (!isAccessibleFrom(typeArgument, packageName)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ * <p/>
+ * Copyright (c) 2016 Vimeo
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.vimeo.stag.processor
+
+import com.vimeo.stag.processor.codegen.NameIndexMethodBuilder
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class NameIndexMethodBuilderUnitTest {
+
+    @Test
+    fun build_DifferentLengths_switchOnLength() {
+        val method = NameIndexMethodBuilder("getFieldIndex")
+                .add("id", 0)
+                .add("name", 1)
+                .build()
+
+        assertThat(method.name).isEqualTo("getFieldIndex")
+        assertThat(method.parameters[0].type.toString()).isEqualTo("java.lang.CharSequence")
+        assertThat(method.code.toString())
+                .contains("switch (name.length())")
+                .contains("return name.charAt(0) == 'i' && name.charAt(1) == 'd' ? 0 : -1;")
+                .contains("return name.charAt(0) == 'n' && name.charAt(1) == 'a' && name.charAt(2) == 'm' && name.charAt(3) == 'e' ? 1 : -1;")
+                .contains("return -1;")
+    }
+
+    @Test
+    fun build_SameLength_switchOnDistinguishingCharacter() {
+        val method = NameIndexMethodBuilder("getFieldIndex")
+                .add("user1", 0)
+                .add("user2", 1)
+                .build()
+
+        assertThat(method.code.toString())
+                .contains("switch (name.charAt(4))")
+                .contains("case '1':")
+                .contains("return name.charAt(0) == 'u' && name.charAt(1) == 's' && name.charAt(2) == 'e' && name.charAt(3) == 'r' ? 0 : -1;")
+                .contains("case '2':")
+                .contains("return name.charAt(0) == 'u' && name.charAt(1) == 's' && name.charAt(2) == 'e' && name.charAt(3) == 'r' ? 1 : -1;")
+    }
+
+    @Test
+    fun build_SpecialCharacters_escaped() {
+        val code = NameIndexMethodBuilder("getFieldIndex")
+                .add("a'b", 0)
+                .add("a\\b", 1)
+                .add("a\nb", 2)
+                .add("aéb", 3)
+                .build()
+                .code.toString()
+
+        assertThat(code)
+                .contains("case '\\'':")
+                .contains("case '\\\\':")
+                .contains("case '\\12':")
+                .contains("case '\\u00e9':")
+    }
+
+    @Test
+    fun build_DuplicateName_firstIndexKept() {
+        val code = NameIndexMethodBuilder("getFieldIndex")
+                .add("id", 0)
+                .add("id", 1)
+                .build()
+                .code.toString()
+
+        assertThat(code).contains("? 0 : -1").doesNotContain("? 1 : -1")
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ * <p/>
+ * Copyright (c) 2016 Vimeo
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.vimeo.stag.processor
+
+import com.vimeo.stag.processor.codegen.StringIndexMethodBuilder
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class StringIndexMethodBuilderUnitTest {
+
+    @Test
+    fun build_FewStrings_singleSwitchMethod() {
+        val methods = StringIndexMethodBuilder("getIndex")
+                .add("com.example.First", 0)
+                .add("com.example.Outer\$Inner", 1)
+                .build()
+
+        assertThat(methods).hasSize(1)
+        assertThat(methods[0].name).isEqualTo("getIndex")
+        assertThat(methods[0].code.toString())
+                .contains("case \"com.example.First\":")
+                .contains("case \"com.example.Outer\$Inner\":")
+                .contains("return -1")
+    }
+
+    @Test
+    fun build_ManyStrings_splitByHashCode() {
+        val builder = StringIndexMethodBuilder("getIndex")
+        val names = (0 until 600).map { "com.example.Model$it" }
+        names.forEachIndexed { index, name -> builder.add(name, index) }
+
+        val methods = builder.build()
+
+        assertThat(methods).hasSize(4)
+        assertThat(methods[0].name).isEqualTo("getIndex")
+        assertThat(methods[0].code.toString()).contains("(name.hashCode() & 0x7fffffff) % 3")
+        names.forEach { name ->
+            val bucket = (name.hashCode() and 0x7fffffff) % 3
+            assertThat(methods[bucket + 1].name).isEqualTo("getIndex$bucket")
+            assertThat(methods[bucket + 1].code.toString()).contains("case \"$name\":")
+        }
+    }
+}
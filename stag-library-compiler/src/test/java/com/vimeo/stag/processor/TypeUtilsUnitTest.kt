@@ -387,6 +387,8 @@ class TypeUtilsUnitTest : BaseUnitTest() {
         Assert.assertTrue(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(Map::class.java)))
         Assert.assertTrue(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(HashMap::class.java)))
         Assert.assertTrue(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(LinkedHashMap::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(SortedMap::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(TreeMap::class.java)))
 
         // Check type that implements map
         Assert.assertFalse(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(DummyMapClass::class.java)))
@@ -396,4 +398,29 @@ class TypeUtilsUnitTest : BaseUnitTest() {
         Assert.assertFalse(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(DummyConcreteClass::class.java)))
         Assert.assertFalse(TypeUtils.isSupportedMap(Utils.getTypeMirrorFromClass(String::class.java)))
     }
+
+    @Test
+    @Throws(Exception::class)
+    fun testIsList_supportsCorrectTypes() {
+        // Check null
+        Assert.assertFalse(TypeUtils.isSupportedList(null))
+
+        // Check supported types
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(List::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(ArrayList::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(Collection::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(Set::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(HashSet::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(LinkedHashSet::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(TreeSet::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(Deque::class.java)))
+        Assert.assertTrue(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(ArrayDeque::class.java)))
+
+        // Check enum sets of type variables, whose class is unknown
+        Assert.assertFalse(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(EnumSet::class.java)))
+
+        // Check other types
+        Assert.assertFalse(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(Any::class.java)))
+        Assert.assertFalse(TypeUtils.isSupportedList(Utils.getTypeMirrorFromClass(String::class.java)))
+    }
 }
@@ -201,6 +201,63 @@ class JavaIntegrationCrossModuleFunctionalTests {
         assertThatClassCompilationIsSuccessful(ParameterizedData::class)
     }
 
+    @Test
+    fun `Models compile successfully with lazy adapter fields`() {
+        val lazyProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagLazyAdapterFields=true")
+        Assertions.assertThat(lazyProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(lazyProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(lazyProcessorTester.compileClassInModule(module, ClassWithArrayTypes::class).isSuccessful()).isTrue()
+        Assertions.assertThat(lazyProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with field order stats`() {
+        val statsProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagFieldOrderStats=true")
+        Assertions.assertThat(statsProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(statsProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(statsProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with omitted nulls`() {
+        val omitNullsProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagOmitNulls=true")
+        Assertions.assertThat(omitNullsProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(omitNullsProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(omitNullsProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with omitted defaults`() {
+        val omitDefaultsProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagOmitDefaults=true")
+        Assertions.assertThat(omitDefaultsProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(omitDefaultsProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(omitDefaultsProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with field projection`() {
+        val projectionProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagFieldProjection=true")
+        Assertions.assertThat(projectionProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(projectionProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(projectionProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with read into`() {
+        val readIntoProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagReadInto=true")
+        Assertions.assertThat(readIntoProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(readIntoProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(readIntoProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
+    @Test
+    fun `Models compile successfully with interned strings`() {
+        val internProcessorTester = ProcessorTester({ StagProcessor() }, "-AstagAssumeHungarianNotation=true", "-AstagInternStrings=true")
+        Assertions.assertThat(internProcessorTester.compileClassInModule(module, ExternalModelExample2::class).isSuccessful()).isTrue()
+        Assertions.assertThat(internProcessorTester.compileClassInModule(module, JsonAdapterExample::class).isSuccessful()).isTrue()
+        Assertions.assertThat(internProcessorTester.compileClassInModule(module, ParameterizedData::class).isSuccessful()).isTrue()
+    }
+
     private fun <T : Any> assertThatClassCompilationIsSuccessful(kClass: KClass<T>) {
         Assertions.assertThat(processorTester.compileClassInModule(module, kClass).isSuccessful()).isTrue()
     }
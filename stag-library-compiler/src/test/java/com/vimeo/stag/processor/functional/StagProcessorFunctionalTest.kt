@@ -51,4 +51,45 @@ class StagProcessorFunctionalTest {
         assertThat(processorTester.compileResource("testcase/PrivateFields.java").isSuccessful()).isFalse()
     }
 
+    /**
+     * Ensure that view names which cannot be part of the names of the generated write methods
+     * result in compile-time errors.
+     */
+    @Test
+    fun invalidViewNameReportsAsAnError() {
+        assertThat(processorTester.compileResource("testcase/InvalidViewName.java").isSuccessful()).isFalse()
+    }
+
+    /**
+     * Ensure that interning fields which are not Strings results in compile-time errors.
+     */
+    @Test
+    fun internOnNonStringReportsAsAnError() {
+        assertThat(processorTester.compileResource("testcase/InternOnNonString.java").isSuccessful()).isFalse()
+    }
+
+    /**
+     * Ensure that formatting fields which are not dates or times results in compile-time errors.
+     */
+    @Test
+    fun timeFormatOnNonTimeReportsAsAnError() {
+        assertThat(processorTester.compileResource("testcase/TimeFormatOnNonTime.java").isSuccessful()).isFalse()
+    }
+
+    /**
+     * Ensure that canonicalizing a class by a field which does not exist results in compile-time errors.
+     */
+    @Test
+    fun canonicalByUnknownFieldReportsAsAnError() {
+        assertThat(processorTester.compileResource("testcase/CanonicalByIdUnknownField.java").isSuccessful()).isFalse()
+    }
+
+    /**
+     * Ensure that enums with more than one constant read for unknown values result in compile-time errors.
+     */
+    @Test
+    fun duplicateUnknownValueReportsAsAnError() {
+        assertThat(processorTester.compileResource("testcase/DuplicateUnknownValue.java").isSuccessful()).isFalse()
+    }
+
 }
@@ -0,0 +1,12 @@
+package com.vimeo.stag.processor.testcase;
+
+import com.vimeo.stag.CanonicalById;
+import com.vimeo.stag.UseStag;
+
+@UseStag
+@CanonicalById("id")
+public class CanonicalByIdUnknownField {
+
+    public String name;
+
+}
@@ -0,0 +1,15 @@
+package com.vimeo.stag.processor.testcase;
+
+import com.vimeo.stag.UnknownValue;
+import com.vimeo.stag.UseStag;
+
+@UseStag
+public enum DuplicateUnknownValue {
+
+    @UnknownValue
+    FIRST,
+
+    @UnknownValue
+    SECOND
+
+}
@@ -0,0 +1,12 @@
+package com.vimeo.stag.processor.testcase;
+
+import com.vimeo.stag.Intern;
+import com.vimeo.stag.UseStag;
+
+@UseStag
+public class InternOnNonString {
+
+    @Intern
+    public Integer field;
+
+}
@@ -0,0 +1,12 @@
+package com.vimeo.stag.processor.testcase;
+
+import com.vimeo.stag.StagView;
+import com.vimeo.stag.UseStag;
+
+@UseStag
+public class InvalidViewName {
+
+    @StagView("not-an-identifier")
+    public String field;
+
+}
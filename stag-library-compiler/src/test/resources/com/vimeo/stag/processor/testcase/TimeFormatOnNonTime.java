@@ -0,0 +1,12 @@
+package com.vimeo.stag.processor.testcase;
+
+import com.vimeo.stag.TimeFormat;
+import com.vimeo.stag.UseStag;
+
+@UseStag
+public class TimeFormatOnNonTime {
+
+    @TimeFormat(TimeFormat.Style.EPOCH_MILLIS)
+    public Long field;
+
+}
@@ -0,0 +1,55 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Use this annotation on a class annotated with {@link UseStag} whose instances are repeated
+ * in the JSON, such as a user embedded in every video of a feed, to keep only one instance
+ * per id.
+ * <p>
+ * The generated TypeAdapter looks the id of every object it reads up in a
+ * {@link CanonicalTable}: once the id is read, if an instance with the same id was already
+ * read, the rest of the object is skipped and the earlier instance is returned, otherwise the
+ * new instance is added to the table when the object ends. The table is the one of the
+ * {@link StagJsonReader} of the parse, so that instances are only shared within a document,
+ * unless {@link #crossParseCapacity()} is positive, in which case the table is a
+ * {@code CANONICAL_TABLE} field of the TypeAdapter, which is shared by every parse. With
+ * another JsonReader and no cross parse table, the instances are not canonicalized.
+ * </p>
+ * <p>
+ * The payload of an object whose id is already in the table is not read: if it differs from
+ * the instance in the table, for instance because the object was updated on the server since
+ * it was cached, the differences are silently dropped and the cached instance is returned.
+ * With a cross parse table, this holds for every later parse until the instance is dropped
+ * from the table.
+ * </p>
+ * <p>
+ * The same instance is returned for every object with its id, within a document and, with a
+ * cross parse table, across parses and threads, without any copy or synchronization, so the
+ * classes should be immutable: a change to an instance is seen by every model holding it, and
+ * may be seen partially by other threads.
+ * Canonicalization is only supported for classes which are not generic, and does not apply
+ * to the {@code projecting} and {@code readInto} methods of the TypeAdapter.
+ * </p>
+ */
+@Target({ElementType.TYPE})
+public @interface CanonicalById {
+
+    /**
+     * The JSON name of the field which identifies the instances.
+     *
+     * @return the name of the id field.
+     */
+    @NotNull String value();
+
+    /**
+     * The number of instances kept across parses, the least recently used instances being
+     * dropped first, or 0 to only share instances within a document.
+     *
+     * @return the capacity of the cross parse table.
+     */
+    int crossParseCapacity() default 0;
+}
@@ -0,0 +1,165 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A table of the instances read by the TypeAdapters of classes annotated with
+ * {@link CanonicalById}, by class and by id.
+ * <p>
+ * A table without capacity only lives as long as a parse, as the table of a
+ * {@link StagJsonReader}. A table with a capacity keeps at most that many instances of each
+ * class, so that it can be shared by every parse. Beyond its capacity, it drops the instances
+ * which were not looked up since they were last passed over, in the order they were added, which
+ * approximates dropping the least recently used ones without reordering the instances on every
+ * lookup.
+ * <p>
+ * This class is thread safe, and lookups take no locks.
+ */
+public final class CanonicalTable {
+
+    private final int mCapacity;
+    @NotNull private final ConcurrentMap<Class<?>, Instances> mInstances = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an unbounded table.
+     */
+    public CanonicalTable() {
+        mCapacity = 0;
+    }
+
+    /**
+     * Creates a bounded table.
+     *
+     * @param capacity the maximum number of instances of each class.
+     */
+    public CanonicalTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        mCapacity = capacity;
+    }
+
+    /**
+     * Returns the instance of a class with an id.
+     *
+     * @param type the class.
+     * @param id   the id.
+     * @param <T>  the type of the instance.
+     * @return the instance, or null if no instance of the class has the id.
+     */
+    @Nullable
+    public <T> T get(@NotNull Class<T> type, @NotNull Object id) {
+        Instances instances = mInstances.get(type);
+        if (instances == null) {
+            return null;
+        }
+        Entry entry = instances.mEntries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.mUsed) {
+            entry.mUsed = true;
+        }
+        return type.cast(entry.mValue);
+    }
+
+    /**
+     * Adds the instance of a class with an id, replacing the previous instance with the id.
+     *
+     * @param type     the class.
+     * @param id       the id.
+     * @param instance the instance.
+     * @param <T>      the type of the instance.
+     */
+    public <T> void put(@NotNull Class<T> type, @NotNull Object id, @NotNull T instance) {
+        Instances instances = mInstances.get(type);
+        if (instances == null) {
+            Instances created = new Instances(mCapacity);
+            instances = mInstances.putIfAbsent(type, created);
+            if (instances == null) {
+                instances = created;
+            }
+        }
+        instances.put(id, instance);
+    }
+
+    /**
+     * Returns the number of instances in the table.
+     *
+     * @return the number of instances of every class.
+     */
+    public int size() {
+        int size = 0;
+        for (Instances instances : mInstances.values()) {
+            size += instances.mEntries.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes every instance from the table.
+     */
+    public void clear() {
+        mInstances.clear();
+    }
+
+    /**
+     * The instances of a class.
+     */
+    private static final class Instances {
+
+        private final int mCapacity;
+        @NotNull final ConcurrentMap<Object, Entry> mEntries = new ConcurrentHashMap<>();
+        @Nullable private final Queue<Object> mOrder;
+
+        Instances(int capacity) {
+            mCapacity = capacity;
+            mOrder = capacity == 0 ? null : new ConcurrentLinkedQueue<Object>();
+        }
+
+        void put(@NotNull Object id, @NotNull Object instance) {
+            Entry previous = mEntries.put(id, new Entry(instance));
+            if (mOrder == null || previous != null) {
+                return;
+            }
+            mOrder.offer(id);
+            while (mEntries.size() > mCapacity) {
+                Object eldest = mOrder.poll();
+                if (eldest == null) {
+                    return;
+                }
+                Entry entry = mEntries.get(eldest);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.mUsed) {
+                    // Gives the instance a second chance, as it was looked up since it was last passed over
+                    entry.mUsed = false;
+                    mOrder.offer(eldest);
+                } else if (!mEntries.remove(eldest, entry) && mEntries.containsKey(eldest)) {
+                    // The instance was replaced meanwhile, so its id is kept in line
+                    mOrder.offer(eldest);
+                }
+            }
+        }
+    }
+
+    /**
+     * An instance, with whether it was looked up since it was last passed over.
+     */
+    private static final class Entry {
+
+        @NotNull final Object mValue;
+        volatile boolean mUsed;
+
+        Entry(@NotNull Object value) {
+            mValue = value;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A set of JSON names of the fields of a model, used to create a projecting TypeAdapter which only
+ * reads those fields and skips the values of all the other ones.
+ * <p>
+ * Projecting TypeAdapters are generated when the {@code stagFieldProjection} compiler argument is
+ * true, and are created by the static {@code projecting(Gson, FieldMask)} method of the generated
+ * TypeAdapter of a model. The names are the primary names of the fields, as given by their
+ * {@link com.google.gson.annotations.SerializedName} annotations or by their names.
+ */
+public final class FieldMask {
+
+    @NotNull private final Set<String> mNames;
+
+    private FieldMask(@NotNull Set<String> names) {
+        mNames = names;
+    }
+
+    /**
+     * Creates a mask.
+     *
+     * @param names the JSON names of the fields to read.
+     * @return the mask.
+     */
+    @NotNull
+    public static FieldMask of(@NotNull String... names) {
+        return of(Arrays.asList(names));
+    }
+
+    /**
+     * Creates a mask.
+     *
+     * @param names the JSON names of the fields to read.
+     * @return the mask.
+     */
+    @NotNull
+    public static FieldMask of(@NotNull Collection<String> names) {
+        return new FieldMask(Collections.unmodifiableSet(new HashSet<>(names)));
+    }
+
+    /**
+     * Returns true if the field with the given JSON name is read.
+     *
+     * @param name the JSON name of the field.
+     * @return true if the name is in the mask.
+     */
+    public boolean contains(@NotNull String name) {
+        return mNames.contains(name);
+    }
+
+    /**
+     * Returns which of the given fields are read, as an array which the generated TypeAdapters
+     * index with the positions of their fields.
+     *
+     * @param fieldNames the JSON names of all the fields of a model.
+     * @return an array with the same length, which is true for the names in the mask.
+     */
+    @NotNull
+    public boolean[] select(@NotNull String[] fieldNames) {
+        boolean[] selection = new boolean[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            selection[i] = mNames.contains(fieldNames[i]);
+        }
+        return selection;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof FieldMask && mNames.equals(((FieldMask) o).mNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return mNames.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FieldMask" + mNames;
+    }
+}
@@ -0,0 +1,33 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utilities used by the generated TypeAdapters to match JSON names.
+ */
+public final class FieldNames {
+
+    private FieldNames() {
+    }
+
+    /**
+     * Compares the characters of a JSON name with the name of a field, without creating a String.
+     *
+     * @param name      the JSON name, as returned by {@link StagJsonReader#nextNameChars()} or
+     *                  {@link com.google.gson.stream.JsonReader#nextName()}.
+     * @param fieldName the name of the field.
+     * @return true if the names are equal.
+     */
+    public static boolean equals(@NotNull CharSequence name, @NotNull String fieldName) {
+        int length = fieldName.length();
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != fieldName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often the generated TypeAdapter of a model found the JSON names in the order in
+ * which the fields are declared. The generated read methods guess that each name is the one of
+ * the field after the last field they matched, and only look the name up when the guess is wrong.
+ * <p>
+ * The counters are updated once per object read, so they are cheap enough to keep in production.
+ * They are only generated when the {@code stagFieldOrderStats} compiler argument is true, as
+ * {@code FIELD_ORDER_COUNTER} fields of the generated TypeAdapters.
+ */
+public final class FieldOrderCounter {
+
+    @NotNull private final AtomicLong mHits = new AtomicLong();
+    @NotNull private final AtomicLong mMisses = new AtomicLong();
+
+    /**
+     * Records the names of an object.
+     *
+     * @param hits   the number of names that were guessed.
+     * @param misses the number of names that had to be looked up.
+     */
+    public void record(int hits, int misses) {
+        if (hits != 0) {
+            mHits.addAndGet(hits);
+        }
+        if (misses != 0) {
+            mMisses.addAndGet(misses);
+        }
+    }
+
+    /**
+     * The number of names that were guessed.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return mHits.get();
+    }
+
+    /**
+     * The number of names that had to be looked up, including unknown names.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return mMisses.get();
+    }
+
+    /**
+     * The share of the names that were guessed.
+     *
+     * @return the hit rate between 0 and 1, or 0 if no name was read.
+     */
+    public double getHitRate() {
+        long hits = mHits.get();
+        long total = hits + mMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the counters.
+     */
+    public void reset() {
+        mHits.set(0);
+        mMisses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "FieldOrderCounter{hits=" + getHits() + ", misses=" + getMisses() + '}';
+    }
+}
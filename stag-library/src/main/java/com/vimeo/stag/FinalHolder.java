@@ -0,0 +1,22 @@
+package com.vimeo.stag;
+
+/**
+ * Holds a value in a final field. Generated TypeAdapters use it to resolve
+ * their nested TypeAdapters lazily without locks or volatile fields.
+ * <p>
+ * A holder may be stored in a plain field and read by other threads without
+ * synchronization. The Java memory model guarantees that any thread which
+ * sees the holder also sees the value, as it was when the holder was created.
+ * At worst, threads racing on the first use each create their own holder,
+ * and all but one of them is discarded.
+ *
+ * @param <T> the type of the value.
+ */
+public final class FinalHolder<T> {
+
+    public final T value;
+
+    public FinalHolder(T value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,22 @@
+package com.vimeo.stag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Use this annotation on a {@link String} field whose values repeat a lot, such as status codes,
+ * country codes or content types.
+ * <p>
+ * The generated TypeAdapter reads the values of the field through
+ * {@link KnownTypeAdapters#INTERNED_STRING}, which returns the same instance for equal values
+ * from the table of {@link StringInterner#getDefault()}, so that many copies of a value only
+ * retain one String. When the reader is a {@link StagJsonReader}, the value is looked up from
+ * the characters of the JSON, so no String is created for the values already in the table.
+ * </p>
+ * <p>
+ * The {@code stagInternStrings} compiler argument does the same for every String field.
+ * </p>
+ */
+@Target({ElementType.FIELD})
+public @interface Intern {
+}
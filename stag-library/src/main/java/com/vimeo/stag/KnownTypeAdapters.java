@@ -23,11 +23,14 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
 import com.google.gson.internal.JsonReaderInternalAccess;
 import com.google.gson.internal.LinkedTreeMap;
 import com.google.gson.internal.ObjectConstructor;
 import com.google.gson.internal.Streams;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
 import com.google.gson.internal.bind.TypeAdapters;
+import com.google.gson.internal.bind.util.ISO8601Utils;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
@@ -37,12 +40,35 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -415,6 +441,71 @@ public final class KnownTypeAdapters {
         T[] construct(int size);
     }
 
+    /**
+     * Per-thread scratch buffers used while decoding arrays. Elements are
+     * decoded into these growable buffers and copied once into an array of
+     * the exact size, so reading an array of primitives allocates only the
+     * final result and never boxes its elements.
+     */
+    private static final class ArrayScratch {
+
+        /**
+         * Buffers that have grown larger than this are dropped after use
+         * rather than being retained by the thread.
+         */
+        private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+        private static final int INITIAL_CAPACITY = 16;
+
+        int[] ints = new int[INITIAL_CAPACITY];
+        long[] longs = new long[INITIAL_CAPACITY];
+        double[] doubles = new double[INITIAL_CAPACITY];
+        short[] shorts = new short[INITIAL_CAPACITY];
+        float[] floats = new float[INITIAL_CAPACITY];
+        boolean[] booleans = new boolean[INITIAL_CAPACITY];
+        byte[] bytes = new byte[INITIAL_CAPACITY];
+        Object[] objects = new Object[INITIAL_CAPACITY];
+
+        /**
+         * Object arrays can be nested (e.g. String[][]), so the shared
+         * object buffer may only be used by the outermost read.
+         */
+        boolean objectsInUse;
+
+        static boolean shouldRetain(int capacity) {
+            return capacity <= MAX_RETAINED_CAPACITY;
+        }
+    }
+
+    private static final ThreadLocal<ArrayScratch> ARRAY_SCRATCH = new ThreadLocal<ArrayScratch>() {
+        @Override
+        protected ArrayScratch initialValue() {
+            return new ArrayScratch();
+        }
+    };
+
+    /**
+     * Consumes the start of a JSON array. A null value, or a value
+     * which is not an array, is consumed as well.
+     *
+     * @param reader the reader to consume from.
+     * @return true if an array was started and its elements should
+     * be read, false if the value should be treated as null.
+     * @throws IOException if the reader fails.
+     */
+    private static boolean beginArray(@NotNull JsonReader reader) throws IOException {
+        JsonToken peek = reader.peek();
+        if (JsonToken.NULL == peek) {
+            reader.nextNull();
+            return false;
+        }
+        if (JsonToken.BEGIN_ARRAY != peek) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginArray();
+        return true;
+    }
+
     /**
      * Type Adapter for [] types. eg String[] or Integer[].
      * For primitive array types such as int[], long[] etc, use the next set of adapters
@@ -446,26 +537,38 @@ public final class KnownTypeAdapters {
 
         @Override
         public T[] read(JsonReader reader) throws IOException {
-            JsonToken peek = reader.peek();
-            if (JsonToken.NULL == peek) {
-                reader.nextNull();
-                return null;
-            }
-            if (JsonToken.BEGIN_ARRAY != peek) {
-                reader.skipValue();
+            if (!beginArray(reader)) {
                 return null;
             }
-            reader.beginArray();
-
-            ArrayList<T> object = new ArrayList<>();
-            while (reader.hasNext()) {
-                object.add(mValueTypeAdapter.read(reader));
-            }
 
-            reader.endArray();
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            boolean isOutermost = !scratch.objectsInUse;
+            Object[] buffer = isOutermost ? scratch.objects : new Object[ArrayScratch.INITIAL_CAPACITY];
+            scratch.objectsInUse = true;
 
-            T[] result = this.mObjectCreator.construct(object.size());
-            return object.toArray(result);
+            int size = 0;
+            try {
+                while (reader.hasNext()) {
+                    if (size == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, size << 1);
+                    }
+                    buffer[size++] = mValueTypeAdapter.read(reader);
+                }
+                reader.endArray();
+
+                T[] result = this.mObjectCreator.construct(size);
+                System.arraycopy(buffer, 0, result, 0, size);
+                return result;
+            } finally {
+                if (isOutermost) {
+                    // Don't hold on to the elements after the read
+                    Arrays.fill(buffer, 0, size, null);
+                    if (ArrayScratch.shouldRetain(buffer.length)) {
+                        scratch.objects = buffer;
+                    }
+                    scratch.objectsInUse = false;
+                }
+            }
         }
     }
 
@@ -492,15 +595,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static int[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Integer> arrayList = INTEGER_ARRAY_LIST_ADAPTER.read(reader);
-            int[] result = null;
-            if (arrayList != null) {
-                result = new int[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            int[] buffer = scratch.ints;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveIntTypeAdapter.read(reader, 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.ints = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -527,15 +640,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static long[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Long> arrayList = LONG_ARRAY_LIST_ADAPTER.read(reader);
-            long[] result = null;
-            if (arrayList != null) {
-                result = new long[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            long[] buffer = scratch.longs;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveLongTypeAdapter.read(reader, 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.longs = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -562,15 +685,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static double[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Double> arrayList = DOUBLE_ARRAY_LIST_ADAPTER.read(reader);
-            double[] result = null;
-            if (arrayList != null) {
-                result = new double[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            double[] buffer = scratch.doubles;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveDoubleTypeAdapter.read(reader, 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.doubles = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -597,15 +730,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static short[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Short> arrayList = SHORT_ARRAY_LIST_ADAPTER.read(reader);
-            short[] result = null;
-            if (arrayList != null) {
-                result = new short[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            short[] buffer = scratch.shorts;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveShortTypeAdapter.read(reader, (short) 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.shorts = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -632,15 +775,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static float[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Float> arrayList = FLOAT_ARRAY_LIST_ADAPTER.read(reader);
-            float[] result = null;
-            if (arrayList != null) {
-                result = new float[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            float[] buffer = scratch.floats;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveFloatTypeAdapter.read(reader, 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.floats = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -667,15 +820,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static boolean[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Boolean> arrayList = BOOLEAN_ARRAY_LIST_ADAPTER.read(reader);
-            boolean[] result = null;
-            if (arrayList != null) {
-                result = new boolean[arrayList.size()];
-                for (int idx = 0; idx < arrayList.size(); idx++) {
-                    result[idx] = arrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            boolean[] buffer = scratch.booleans;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveBooleanTypeAdapter.read(reader, false);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.booleans = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -702,15 +865,25 @@ public final class KnownTypeAdapters {
 
         @Nullable
         public static byte[] read(@NotNull JsonReader reader) throws IOException {
-            ArrayList<Byte> byteArrayList = BYTE_ARRAY_LIST_ADAPTER.read(reader);
-            byte[] result = null;
-            if (byteArrayList != null) {
-                result = new byte[byteArrayList.size()];
-                for (int idx = 0; idx < byteArrayList.size(); idx++) {
-                    result[idx] = byteArrayList.get(idx);
+            if (!beginArray(reader)) {
+                return null;
+            }
+
+            ArrayScratch scratch = ARRAY_SCRATCH.get();
+            byte[] buffer = scratch.bytes;
+            int size = 0;
+            while (reader.hasNext()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size << 1);
                 }
+                buffer[size++] = PrimitiveByteTypeAdapter.read(reader, (byte) 0);
             }
-            return result;
+            reader.endArray();
+
+            if (ArrayScratch.shouldRetain(buffer.length)) {
+                scratch.bytes = buffer;
+            }
+            return Arrays.copyOf(buffer, size);
         }
     }
 
@@ -741,6 +914,35 @@ public final class KnownTypeAdapters {
         }
     }
 
+    /**
+     * Reads a value into an existing collection or map when the TypeAdapter is one of the
+     * collection or map TypeAdapters of this class, which clear and refill the target. A target
+     * which cannot be modified, such as {@link java.util.Collections#unmodifiableList(List)}, is replaced by
+     * a new collection or map. Any other TypeAdapter reads a new value. Used by the generated
+     * {@code readInto} methods.
+     *
+     * @param typeAdapter the TypeAdapter of the value.
+     * @param reader      the reader.
+     * @param target      the collection or map to fill, or null to create a new one.
+     * @param <T>         the type of the value.
+     * @return the value that was read.
+     * @throws IOException if the JSON could not be read.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T readInto(@NotNull TypeAdapter<T> typeAdapter, @NotNull JsonReader reader,
+                                 @Nullable T target) throws IOException {
+        if (target != null) {
+            if (typeAdapter instanceof ListTypeAdapter) {
+                return (T) ((ListTypeAdapter) typeAdapter).readInto(reader, (Collection) target);
+            } else if (typeAdapter instanceof StringKeyMapTypeAdapter) {
+                return (T) ((StringKeyMapTypeAdapter) typeAdapter).readInto(reader, (Map) target);
+            } else if (typeAdapter instanceof MapTypeAdapter) {
+                return (T) ((MapTypeAdapter) typeAdapter).readInto(reader, (Map) target);
+            }
+        }
+        return typeAdapter.read(reader);
+    }
+
     /**
      * Default Instantiator for List, by default it will create the Map of {@link ArrayList} type
      */
@@ -809,6 +1011,129 @@ public final class KnownTypeAdapters {
         }
     }
 
+    /**
+     * Default Instantiator for Set, by default it will create the Set of {@link LinkedHashSet} type
+     */
+    public static final class SetInstantiator<V> implements ObjectConstructor<Set<V>> {
+
+        @Override
+        public Set<V> construct() {
+            return new LinkedHashSet<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link HashSet}
+     */
+    public static final class HashSetInstantiator<V> implements ObjectConstructor<HashSet<V>> {
+
+        @Override
+        public HashSet<V> construct() {
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link LinkedHashSet}
+     */
+    public static final class LinkedHashSetInstantiator<V> implements ObjectConstructor<LinkedHashSet<V>> {
+
+        @Override
+        public LinkedHashSet<V> construct() {
+            return new LinkedHashSet<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link TreeSet}
+     */
+    public static final class TreeSetInstantiator<V> implements ObjectConstructor<TreeSet<V>> {
+
+        @Override
+        public TreeSet<V> construct() {
+            return new TreeSet<>();
+        }
+    }
+
+    /**
+     * Default Instantiator for Deque, by default it will create the Deque of {@link ArrayDeque} type
+     */
+    public static final class DequeInstantiator<V> implements ObjectConstructor<Deque<V>> {
+
+        @Override
+        public Deque<V> construct() {
+            return new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link ArrayDeque}
+     */
+    public static final class ArrayDequeInstantiator<V> implements ObjectConstructor<ArrayDeque<V>> {
+
+        @Override
+        public ArrayDeque<V> construct() {
+            return new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link EnumSet}, whose constants are stored as the bits of a vector.
+     */
+    public static final class EnumSetInstantiator<E extends Enum<E>> implements ObjectConstructor<EnumSet<E>> {
+
+        @NotNull private final Class<E> mEnumClass;
+
+        public EnumSetInstantiator(@NotNull Class<E> enumClass) {
+            mEnumClass = enumClass;
+        }
+
+        @Override
+        public EnumSet<E> construct() {
+            return EnumSet.noneOf(mEnumClass);
+        }
+    }
+
+    /**
+     * Default Instantiator for SortedMap, by default it will create the Map of {@link TreeMap} type
+     */
+    public static final class SortedMapInstantiator<K, V> implements ObjectConstructor<SortedMap<K, V>> {
+
+        @Override
+        public SortedMap<K, V> construct() {
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link TreeMap}
+     */
+    public static final class TreeMapInstantiator<K, V> implements ObjectConstructor<TreeMap<K, V>> {
+
+        @Override
+        public TreeMap<K, V> construct() {
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * Instantiator for {@link EnumMap}, whose values are stored in an array indexed by the
+     * ordinals of the keys.
+     */
+    public static final class EnumMapInstantiator<K extends Enum<K>, V> implements ObjectConstructor<EnumMap<K, V>> {
+
+        @NotNull private final Class<K> mEnumClass;
+
+        public EnumMapInstantiator(@NotNull Class<K> enumClass) {
+            mEnumClass = enumClass;
+        }
+
+        @Override
+        public EnumMap<K, V> construct() {
+            return new EnumMap<>(mEnumClass);
+        }
+    }
+
     /**
      * Default Instantiator for Maps, by default it will create the Map of {@link LinkedHashMap} type
      */
@@ -849,6 +1174,19 @@ public final class KnownTypeAdapters {
 
         @Override
         public T read(JsonReader reader) throws IOException {
+            return readInto(reader, null);
+        }
+
+        /**
+         * Reads a collection into an existing one, which is cleared and refilled, or replaced by a
+         * new collection if it cannot be modified.
+         *
+         * @param reader the reader.
+         * @param target the collection to fill, or null to create a new one.
+         * @return the filled collection, or null if the JSON value was null or not an array.
+         * @throws IOException if the JSON could not be read.
+         */
+        public T readInto(JsonReader reader, @Nullable T target) throws IOException {
             JsonToken peek = reader.peek();
             if (JsonToken.NULL == peek) {
                 reader.nextNull();
@@ -860,19 +1198,58 @@ public final class KnownTypeAdapters {
                 return null;
             }
 
-            T collection = objectConstructor.construct();
+            T collection = target != null ? clear(target) : objectConstructor.construct();
+            // Unknown constants are read as null, which an EnumSet cannot hold
+            boolean skipNulls = collection instanceof EnumSet;
             reader.beginArray();
             while (reader.hasNext()) {
-                collection.add(valueTypeAdapter.read(reader));
+                V value = valueTypeAdapter.read(reader);
+                if (value != null || !skipNulls) {
+                    collection = add(collection, value);
+                }
             }
             reader.endArray();
             return collection;
         }
+
+        /**
+         * Clears the target, or creates a new collection if the target cannot be modified.
+         */
+        @NotNull
+        private T clear(@NotNull T target) {
+            try {
+                target.clear();
+                return target;
+            } catch (UnsupportedOperationException e) {
+                return objectConstructor.construct();
+            }
+        }
+
+        /**
+         * Adds the value, moving the values to a new collection if the collection cannot be
+         * modified, as an empty unmodifiable collection can be cleared.
+         */
+        @NotNull
+        private T add(@NotNull T collection, V value) {
+            try {
+                collection.add(value);
+                return collection;
+            } catch (UnsupportedOperationException e) {
+                T copy = objectConstructor.construct();
+                copy.addAll(collection);
+                copy.add(value);
+                return copy;
+            }
+        }
     }
 
     /**
      * Type Adapter for {@link Map}. The constructor expects {@link ObjectConstructor} which is
      * used to instantiate maps of particular types eg, {@link HashMap} {@link LinkedHashMap} etc
+     * <p>
+     * Every key is converted to a {@link JsonElement} in order to find out whether the map has
+     * complex keys, so maps with keys that are always written as JSON names should use
+     * {@link StringKeyMapTypeAdapter} instead.
      */
     public static final class MapTypeAdapter<K, V, T extends Map<K, V>> extends TypeAdapter<T> {
 
@@ -927,13 +1304,26 @@ public final class KnownTypeAdapters {
 
         @Override
         public T read(JsonReader in) throws IOException {
+            return readInto(in, null);
+        }
+
+        /**
+         * Reads a map into an existing one, which is cleared and refilled, or replaced by a new map
+         * if it cannot be modified.
+         *
+         * @param in     the reader.
+         * @param target the map to fill, or null to create a new one.
+         * @return the filled map, or null if the JSON value was null.
+         * @throws IOException if the JSON could not be read.
+         */
+        public T readInto(JsonReader in, @Nullable T target) throws IOException {
             JsonToken peek = in.peek();
             if (peek == JsonToken.NULL) {
                 in.nextNull();
                 return null;
             }
 
-            T map = objectConstructor.construct();
+            T map = target != null ? clear(target) : objectConstructor.construct();
 
             if (peek == JsonToken.BEGIN_ARRAY) {
                 in.beginArray();
@@ -941,29 +1331,61 @@ public final class KnownTypeAdapters {
                     in.beginArray(); // entry array
                     K key = keyTypeAdapter.read(in);
                     V value = valueTypeAdapter.read(in);
-                    V replaced = map.put(key, value);
-                    if (replaced != null) {
-                        throw new JsonSyntaxException("duplicate key: " + key);
-                    }
+                    map = put(map, key, value);
                     in.endArray();
                 }
                 in.endArray();
             } else {
                 in.beginObject();
                 while (in.hasNext()) {
-                    JsonReaderInternalAccess.INSTANCE.promoteNameToValue(in);
+                    if (in instanceof StagJsonReader) {
+                        ((StagJsonReader) in).promoteNameToValue();
+                    } else {
+                        JsonReaderInternalAccess.INSTANCE.promoteNameToValue(in);
+                    }
                     K key = keyTypeAdapter.read(in);
                     V value = valueTypeAdapter.read(in);
-                    V replaced = map.put(key, value);
-                    if (replaced != null) {
-                        throw new JsonSyntaxException("duplicate key: " + key);
-                    }
+                    map = put(map, key, value);
                 }
                 in.endObject();
             }
             return map;
         }
 
+        /**
+         * Clears the target, or creates a new map if the target cannot be modified.
+         */
+        @NotNull
+        private T clear(@NotNull T target) {
+            try {
+                target.clear();
+                return target;
+            } catch (UnsupportedOperationException e) {
+                return objectConstructor.construct();
+            }
+        }
+
+        /**
+         * Puts the entry, moving the entries to a new map if the map cannot be modified, as an
+         * empty unmodifiable map can be cleared.
+         */
+        @NotNull
+        private T put(@NotNull T map, K key, V value) {
+            V replaced;
+            try {
+                replaced = map.put(key, value);
+            } catch (UnsupportedOperationException e) {
+                T copy = objectConstructor.construct();
+                copy.putAll(map);
+                replaced = copy.put(key, value);
+                map = copy;
+            }
+            if (replaced != null) {
+                throw new JsonSyntaxException("duplicate key: " + key);
+            }
+            return map;
+        }
+
         @NotNull
         private static String keyToString(@NotNull JsonElement keyElement) {
             if (keyElement.isJsonPrimitive()) {
@@ -986,29 +1408,429 @@ public final class KnownTypeAdapters {
     }
 
     /**
-     * Type Adapter for {@link Object}
+     * Converts map keys to and from JSON names without going through a {@link JsonElement}.
+     * Used by {@link StringKeyMapTypeAdapter} for keys that are always written as
+     * JSON primitives, such as strings, numbers, booleans and enums.
+     *
+     * @param <K> the type of the map key.
      */
-    public static final class ObjectTypeAdapter extends TypeAdapter<Object> {
+    public static abstract class MapKeyAdapter<K> {
 
-        public final TypeToken<Object> TYPE_TOKEN = TypeToken.get(Object.class);
+        /**
+         * Converts a non null key to the name it is written with.
+         *
+         * @param key the key to convert.
+         * @return the JSON name for the key.
+         */
+        @NotNull
+        public abstract String toName(@NotNull K key);
 
-        private final Gson gson;
+        /**
+         * Converts a JSON name back to a key.
+         *
+         * @param name the name read from the JSON.
+         * @return the key for the name.
+         * @throws IOException if the name is not a valid key.
+         */
+        @Nullable
+        public abstract K fromName(@NotNull String name) throws IOException;
+    }
 
-        public ObjectTypeAdapter(@NotNull Gson gson) {
-            this.gson = gson;
+    private static long parseIntegralKey(@NotNull String name) {
+        try {
+            return Long.parseLong(name);
+        } catch (NumberFormatException e) {
+            // Keys such as "1.0" are accepted by JsonReader#nextInt and JsonReader#nextLong
+            double asDouble = Double.parseDouble(name);
+            long result = (long) asDouble;
+            if (result != asDouble) {
+                throw new JsonSyntaxException("Expected an integral key but was " + name);
+            }
+            return result;
+        }
+    }
+
+    private static double parseDoubleKey(@NotNull String name) {
+        try {
+            return Double.parseDouble(name);
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
+    }
 
+    /**
+     * Map key adapter for {@link String} keys.
+     */
+    public static final MapKeyAdapter<String> STRING_MAP_KEY = new MapKeyAdapter<String>() {
+        @NotNull
         @Override
-        public Object read(JsonReader in) throws IOException {
-            JsonToken token = in.peek();
-            switch (token) {
-                case BEGIN_ARRAY:
-                    List<Object> list = new ArrayList<>();
-                    in.beginArray();
-                    while (in.hasNext()) {
-                        list.add(read(in));
-                    }
-                    in.endArray();
+        public String toName(@NotNull String key) {
+            return key;
+        }
+
+        @Override
+        public String fromName(@NotNull String name) {
+            return name;
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Integer} keys.
+     */
+    public static final MapKeyAdapter<Integer> INTEGER_MAP_KEY = new MapKeyAdapter<Integer>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Integer key) {
+            return key.toString();
+        }
+
+        @Override
+        public Integer fromName(@NotNull String name) {
+            try {
+                return Integer.parseInt(name);
+            } catch (NumberFormatException e) {
+                long value = parseIntegralKey(name);
+                if ((int) value != value) {
+                    throw new JsonSyntaxException("Expected an int key but was " + name);
+                }
+                return (int) value;
+            }
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Long} keys.
+     */
+    public static final MapKeyAdapter<Long> LONG_MAP_KEY = new MapKeyAdapter<Long>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Long key) {
+            return key.toString();
+        }
+
+        @Override
+        public Long fromName(@NotNull String name) {
+            return parseIntegralKey(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Short} keys.
+     */
+    public static final MapKeyAdapter<Short> SHORT_MAP_KEY = new MapKeyAdapter<Short>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Short key) {
+            return key.toString();
+        }
+
+        @Override
+        public Short fromName(@NotNull String name) {
+            return (short) parseIntegralKey(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Byte} keys.
+     */
+    public static final MapKeyAdapter<Byte> BYTE_MAP_KEY = new MapKeyAdapter<Byte>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Byte key) {
+            return key.toString();
+        }
+
+        @Override
+        public Byte fromName(@NotNull String name) {
+            return (byte) parseIntegralKey(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Double} keys.
+     */
+    public static final MapKeyAdapter<Double> DOUBLE_MAP_KEY = new MapKeyAdapter<Double>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Double key) {
+            return key.toString();
+        }
+
+        @Override
+        public Double fromName(@NotNull String name) {
+            return parseDoubleKey(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Float} keys.
+     */
+    public static final MapKeyAdapter<Float> FLOAT_MAP_KEY = new MapKeyAdapter<Float>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Float key) {
+            return key.toString();
+        }
+
+        @Override
+        public Float fromName(@NotNull String name) {
+            return (float) parseDoubleKey(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Boolean} keys.
+     */
+    public static final MapKeyAdapter<Boolean> BOOLEAN_MAP_KEY = new MapKeyAdapter<Boolean>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Boolean key) {
+            return key.toString();
+        }
+
+        @Override
+        public Boolean fromName(@NotNull String name) {
+            return Boolean.parseBoolean(name);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link Character} keys.
+     */
+    public static final MapKeyAdapter<Character> CHARACTER_MAP_KEY = new MapKeyAdapter<Character>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull Character key) {
+            return key.toString();
+        }
+
+        @Override
+        public Character fromName(@NotNull String name) {
+            if (name.length() != 1) {
+                throw new JsonSyntaxException("Expecting character, got: " + name);
+            }
+            return name.charAt(0);
+        }
+    };
+
+    /**
+     * Map key adapter for {@link UUID} keys.
+     */
+    public static final MapKeyAdapter<UUID> UUID_MAP_KEY = new MapKeyAdapter<UUID>() {
+        @NotNull
+        @Override
+        public String toName(@NotNull UUID key) {
+            return formatUuid(key);
+        }
+
+        @Override
+        public UUID fromName(@NotNull String name) {
+            return parseUuid(name);
+        }
+    };
+
+    /**
+     * Map key adapter for enum keys. The names of the constants are resolved once
+     * through the enum's {@link TypeAdapter}, so {@link SerializedName} values
+     * declared on the constants are honored.
+     *
+     * @param <E> the type of the enum.
+     */
+    public static final class EnumMapKeyAdapter<E extends Enum<E>> extends MapKeyAdapter<E> {
+
+        private final TypeAdapter<E> mEnumTypeAdapter;
+        private final String[] mConstantToName;
+        private final Map<String, E> mNameToConstant;
+
+        public EnumMapKeyAdapter(@NotNull Class<E> enumClass, @NotNull TypeAdapter<E> enumTypeAdapter) {
+            mEnumTypeAdapter = enumTypeAdapter;
+            E[] constants = enumClass.getEnumConstants();
+            mConstantToName = new String[constants.length];
+            mNameToConstant = new HashMap<>(constants.length);
+            for (E constant : constants) {
+                String name = MapTypeAdapter.keyToString(enumTypeAdapter.toJsonTree(constant));
+                mConstantToName[constant.ordinal()] = name;
+                mNameToConstant.put(name, constant);
+            }
+        }
+
+        @NotNull
+        @Override
+        public String toName(@NotNull E key) {
+            return mConstantToName[key.ordinal()];
+        }
+
+        @Override
+        public E fromName(@NotNull String name) {
+            E constant = mNameToConstant.get(name);
+            if (constant == null) {
+                // Let the enum adapter resolve alternate names
+                constant = mEnumTypeAdapter.fromJsonTree(new JsonPrimitive(name));
+            }
+            return constant;
+        }
+    }
+
+    /**
+     * Type Adapter for {@link Map} types whose keys are written as JSON names, such as
+     * {@code Map<String, V>} or maps keyed by a number, boolean or enum. Entries are written
+     * directly with {@link JsonWriter#name(String)} and keys are read directly from
+     * {@link JsonReader#nextName()}, without building a {@link JsonElement} for every key
+     * like {@link MapTypeAdapter} does.
+     */
+    public static final class StringKeyMapTypeAdapter<K, V, T extends Map<K, V>> extends TypeAdapter<T> {
+
+        private final ObjectConstructor<T> objectConstructor;
+        private final TypeAdapter<V> valueTypeAdapter;
+        private final MapKeyAdapter<K> keyAdapter;
+
+        public StringKeyMapTypeAdapter(@NotNull MapKeyAdapter<K> keyAdapter,
+                                       @NotNull TypeAdapter<V> valueTypeAdapter,
+                                       @NotNull ObjectConstructor<T> objectConstructor) {
+            this.keyAdapter = keyAdapter;
+            this.valueTypeAdapter = valueTypeAdapter;
+            this.objectConstructor = objectConstructor;
+        }
+
+        @Override
+        public void write(JsonWriter writer, T value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            for (Map.Entry<K, V> entry : value.entrySet()) {
+                K key = entry.getKey();
+                writer.name(key == null ? "null" : keyAdapter.toName(key));
+                valueTypeAdapter.write(writer, entry.getValue());
+            }
+            writer.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            return readInto(in, null);
+        }
+
+        /**
+         * Reads a map into an existing one, which is cleared and refilled, or replaced by a new map
+         * if it cannot be modified.
+         *
+         * @param in     the reader.
+         * @param target the map to fill, or null to create a new one.
+         * @return the filled map, or null if the JSON value was null.
+         * @throws IOException if the JSON could not be read.
+         */
+        public T readInto(JsonReader in, @Nullable T target) throws IOException {
+            JsonToken peek = in.peek();
+            if (peek == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            T map = target != null ? clear(target) : objectConstructor.construct();
+
+            if (peek == JsonToken.BEGIN_ARRAY) {
+                // The entry array form written by complex map key serialization
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray(); // entry array
+                    K key = readArrayKey(in);
+                    V value = valueTypeAdapter.read(in);
+                    map = put(map, key, value);
+                    in.endArray();
+                }
+                in.endArray();
+            } else {
+                // Unknown constants are read as null, which an EnumMap cannot hold
+                boolean skipNullKeys = map instanceof EnumMap;
+                in.beginObject();
+                while (in.hasNext()) {
+                    K key = keyAdapter.fromName(in.nextName());
+                    if (key == null && skipNullKeys) {
+                        in.skipValue();
+                        continue;
+                    }
+                    V value = valueTypeAdapter.read(in);
+                    map = put(map, key, value);
+                }
+                in.endObject();
+            }
+            return map;
+        }
+
+        /**
+         * Clears the target, or creates a new map if the target cannot be modified.
+         */
+        @NotNull
+        private T clear(@NotNull T target) {
+            try {
+                target.clear();
+                return target;
+            } catch (UnsupportedOperationException e) {
+                return objectConstructor.construct();
+            }
+        }
+
+        /**
+         * Puts the entry, moving the entries to a new map if the map cannot be modified, as an
+         * empty unmodifiable map can be cleared.
+         */
+        @NotNull
+        private T put(@NotNull T map, K key, V value) {
+            V replaced;
+            try {
+                replaced = map.put(key, value);
+            } catch (UnsupportedOperationException e) {
+                T copy = objectConstructor.construct();
+                copy.putAll(map);
+                replaced = copy.put(key, value);
+                map = copy;
+            }
+            if (replaced != null) {
+                throw new JsonSyntaxException("duplicate key: " + key);
+            }
+            return map;
+        }
+
+        @Nullable
+        private K readArrayKey(@NotNull JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case NULL:
+                    in.nextNull();
+                    return null;
+                case BOOLEAN:
+                    return keyAdapter.fromName(String.valueOf(in.nextBoolean()));
+                default:
+                    return keyAdapter.fromName(in.nextString());
+            }
+        }
+    }
+
+    /**
+     * Type Adapter for {@link Object}
+     */
+    public static final class ObjectTypeAdapter extends TypeAdapter<Object> {
+
+        public final TypeToken<Object> TYPE_TOKEN = TypeToken.get(Object.class);
+
+        private final Gson gson;
+
+        public ObjectTypeAdapter(@NotNull Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public Object read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            switch (token) {
+                case BEGIN_ARRAY:
+                    List<Object> list = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        list.add(read(in));
+                    }
+                    in.endArray();
                     return list;
                 case BEGIN_OBJECT:
                     Map<String, Object> map = new LinkedTreeMap<>();
@@ -1058,6 +1880,130 @@ public final class KnownTypeAdapters {
     public static final TypeAdapter<JsonElement> JSON_ELEMENT =
             com.google.gson.internal.bind.TypeAdapters.JSON_ELEMENT.nullSafe();
 
+    public static final TypeAdapter<RawJson> RAW_JSON = new RawJson.RawJsonTypeAdapter();
+
+    /**
+     * Reads Strings as their canonical instances from {@link StringInterner#getDefault()}, for
+     * fields annotated with {@link Intern}.
+     */
+    public static final TypeAdapter<String> INTERNED_STRING = new TypeAdapter<String>() {
+        @Override
+        public void write(JsonWriter out, String value) throws IOException {
+            out.value(value);
+        }
+
+        @Override
+        public String read(JsonReader in) throws IOException {
+            JsonToken peek = in.peek();
+            if (peek == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (peek == JsonToken.BOOLEAN) {
+                return Boolean.toString(in.nextBoolean());
+            }
+            if (in instanceof StagJsonReader) {
+                return ((StagJsonReader) in).nextString(StringInterner.getDefault());
+            }
+            return StringInterner.getDefault().intern(in.nextString());
+        }
+    };
+
+    /**
+     * Reads and writes {@link UUID} values in their canonical form. The hexadecimal digits are
+     * converted directly, and when the reader is a {@link StagJsonReader}, they are read from the
+     * characters of the JSON without creating a String.
+     */
+    public static final TypeAdapter<UUID> UUID = new TypeAdapter<UUID>() {
+        @Override
+        public void write(JsonWriter out, UUID value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(formatUuid(value));
+            }
+        }
+
+        @Override
+        public UUID read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (in instanceof StagJsonReader) {
+                return parseUuid(((StagJsonReader) in).nextStringChars());
+            }
+            return parseUuid(in.nextString());
+        }
+    };
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Formats the UUID as 36 characters, the same as {@link UUID#toString()}.
+     */
+    @NotNull
+    static String formatUuid(@NotNull UUID uuid) {
+        char[] chars = new char[36];
+        formatHex(uuid.getMostSignificantBits(), chars, 0, 0, 8);
+        chars[8] = '-';
+        formatHex(uuid.getMostSignificantBits(), chars, 9, 8, 4);
+        chars[13] = '-';
+        formatHex(uuid.getMostSignificantBits(), chars, 14, 12, 4);
+        chars[18] = '-';
+        formatHex(uuid.getLeastSignificantBits(), chars, 19, 0, 4);
+        chars[23] = '-';
+        formatHex(uuid.getLeastSignificantBits(), chars, 24, 4, 12);
+        return new String(chars);
+    }
+
+    private static void formatHex(long bits, @NotNull char[] chars, int offset, int firstDigit, int digits) {
+        for (int i = 0; i < digits; i++) {
+            int shift = (15 - firstDigit - i) * 4;
+            chars[offset + i] = HEX_DIGITS[(int) (bits >>> shift) & 0xf];
+        }
+    }
+
+    /**
+     * Parses a UUID in its canonical form of 36 characters, falling back to
+     * {@link UUID#fromString(String)} for the shorter forms it accepts.
+     *
+     * @throws JsonSyntaxException if the value is not a UUID.
+     */
+    @NotNull
+    static UUID parseUuid(@NotNull CharSequence value) {
+        if (value.length() == 36 && value.charAt(8) == '-' && value.charAt(13) == '-' &&
+            value.charAt(18) == '-' && value.charAt(23) == '-') {
+            long mostSignificantBits = 0;
+            long leastSignificantBits = 0;
+            int digits = 0;
+            for (int i = 0; i < 36; i++) {
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    continue;
+                }
+                int digit = Character.digit(value.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                if (digits < 16) {
+                    mostSignificantBits = mostSignificantBits << 4 | digit;
+                } else {
+                    leastSignificantBits = leastSignificantBits << 4 | digit;
+                }
+                digits++;
+            }
+            if (digits == 32) {
+                return new UUID(mostSignificantBits, leastSignificantBits);
+            }
+        }
+        String string = value.toString();
+        try {
+            return java.util.UUID.fromString(string);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Expecting UUID, got: " + string, e);
+        }
+    }
+
     public static final TypeAdapter<JsonObject> JSON_OBJECT = new TypeAdapter<JsonObject>() {
         @Override
         public void write(JsonWriter out, JsonObject value) throws IOException {
@@ -1112,4 +2058,287 @@ public final class KnownTypeAdapters {
             return jsonElement != null && jsonElement.isJsonNull() ? jsonElement.getAsJsonNull() : null;
         }
     }.nullSafe();
+
+    /**
+     * The base of the TypeAdapters of dates and times, which write values either as ISO-8601
+     * strings or as numbers of milliseconds since the epoch, and read both representations.
+     * <p>
+     * The TypeAdapters hold no mutable state, so they are thread safe without locks.
+     *
+     * @param <T> the type of the values.
+     */
+    abstract static class TimeTypeAdapter<T> extends TypeAdapter<T> {
+
+        private final boolean mEpochMillis;
+
+        TimeTypeAdapter(boolean epochMillis) {
+            mEpochMillis = epochMillis;
+        }
+
+        @NotNull
+        abstract T parse(@NotNull String value) throws Exception;
+
+        @NotNull
+        abstract String format(@NotNull T value);
+
+        @NotNull
+        abstract T fromEpochMillis(long value);
+
+        abstract long toEpochMillis(@NotNull T value);
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else if (mEpochMillis) {
+                out.value(toEpochMillis(value));
+            } else {
+                out.value(format(value));
+            }
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            JsonToken peek = in.peek();
+            if (peek == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (peek == JsonToken.NUMBER) {
+                return fromEpochMillis(in.nextLong());
+            }
+            String value = in.nextString();
+            try {
+                return parse(value);
+            } catch (Exception e) {
+                throw new JsonSyntaxException("Unable to parse " + value + " at " + in.getPath(), e);
+            }
+        }
+    }
+
+    /**
+     * The TypeAdapter of {@link Date} values, which are written as ISO-8601 strings in UTC.
+     */
+    public static final TypeAdapter<Date> DATE = new DateTypeAdapter(false);
+
+    /**
+     * The TypeAdapter of {@link Date} values, which are written as milliseconds since the epoch.
+     */
+    public static final TypeAdapter<Date> DATE_EPOCH_MILLIS = new DateTypeAdapter(true);
+
+    static final class DateTypeAdapter extends TimeTypeAdapter<Date> {
+
+        DateTypeAdapter(boolean epochMillis) {
+            super(epochMillis);
+        }
+
+        @NotNull
+        @Override
+        Date parse(@NotNull String value) throws Exception {
+            try {
+                return ISO8601Utils.parse(value, new ParsePosition(0));
+            } catch (ParseException e) {
+                // The formats which Gson writes dates with by default are read as well
+                try {
+                    return DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US).parse(value);
+                } catch (ParseException ignored) {
+                    return DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT).parse(value);
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        String format(@NotNull Date value) {
+            return ISO8601Utils.format(value, true);
+        }
+
+        @NotNull
+        @Override
+        Date fromEpochMillis(long value) {
+            return new Date(value);
+        }
+
+        @Override
+        long toEpochMillis(@NotNull Date value) {
+            return value.getTime();
+        }
+    }
+
+    /**
+     * The TypeAdapters of the {@code java.time} types, which are written as ISO-8601 strings, or
+     * as milliseconds since the epoch by the {@code _EPOCH_MILLIS} TypeAdapters. Local dates and
+     * times are converted to and from the epoch in UTC.
+     * <p>
+     * These TypeAdapters are kept apart from the others, so that this class is only loaded on
+     * platforms which have {@code java.time}.
+     */
+    public static final class JavaTime {
+
+        private JavaTime() {
+            throw new IllegalStateException("JavaTime cannot be instantiated");
+        }
+
+        public static final TypeAdapter<Instant> INSTANT = new InstantTypeAdapter(false);
+
+        public static final TypeAdapter<Instant> INSTANT_EPOCH_MILLIS = new InstantTypeAdapter(true);
+
+        public static final TypeAdapter<OffsetDateTime> OFFSET_DATE_TIME = new OffsetDateTimeTypeAdapter(false);
+
+        public static final TypeAdapter<OffsetDateTime> OFFSET_DATE_TIME_EPOCH_MILLIS = new OffsetDateTimeTypeAdapter(true);
+
+        public static final TypeAdapter<LocalDate> LOCAL_DATE = new LocalDateTypeAdapter(false);
+
+        public static final TypeAdapter<LocalDate> LOCAL_DATE_EPOCH_MILLIS = new LocalDateTypeAdapter(true);
+
+        public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME = new LocalDateTimeTypeAdapter(false);
+
+        public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_EPOCH_MILLIS = new LocalDateTimeTypeAdapter(true);
+
+        /**
+         * Returns the TypeAdapter that Gson has for a {@code java.time} type, such as one
+         * registered with {@code GsonBuilder.registerTypeAdapter}, or the given TypeAdapter if
+         * Gson could only read and write the type by reflection. Used by the generated
+         * TypeAdapters for the fields without a {@link TimeFormat}.
+         *
+         * @param gson               the Gson instance.
+         * @param type               the {@code java.time} type.
+         * @param defaultTypeAdapter the TypeAdapter of this class for the type.
+         * @param <T>                the type.
+         * @return the TypeAdapter of the type.
+         */
+        @NotNull
+        public static <T> TypeAdapter<T> getTypeAdapter(@NotNull Gson gson, @NotNull Class<T> type,
+                                                        @NotNull TypeAdapter<T> defaultTypeAdapter) {
+            TypeAdapter<T> typeAdapter;
+            try {
+                typeAdapter = gson.getAdapter(type);
+            } catch (RuntimeException e) {
+                // Platforms with modules do not let Gson reflect on the fields of java.time classes
+                return defaultTypeAdapter;
+            }
+            return typeAdapter instanceof ReflectiveTypeAdapterFactory.Adapter ? defaultTypeAdapter : typeAdapter;
+        }
+
+        static final class InstantTypeAdapter extends TimeTypeAdapter<Instant> {
+
+            InstantTypeAdapter(boolean epochMillis) {
+                super(epochMillis);
+            }
+
+            @NotNull
+            @Override
+            Instant parse(@NotNull String value) {
+                // Unlike Instant.parse, this accepts offsets other than Z
+                return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value));
+            }
+
+            @NotNull
+            @Override
+            String format(@NotNull Instant value) {
+                return value.toString();
+            }
+
+            @NotNull
+            @Override
+            Instant fromEpochMillis(long value) {
+                return Instant.ofEpochMilli(value);
+            }
+
+            @Override
+            long toEpochMillis(@NotNull Instant value) {
+                return value.toEpochMilli();
+            }
+        }
+
+        static final class OffsetDateTimeTypeAdapter extends TimeTypeAdapter<OffsetDateTime> {
+
+            OffsetDateTimeTypeAdapter(boolean epochMillis) {
+                super(epochMillis);
+            }
+
+            @NotNull
+            @Override
+            OffsetDateTime parse(@NotNull String value) {
+                return OffsetDateTime.parse(value);
+            }
+
+            @NotNull
+            @Override
+            String format(@NotNull OffsetDateTime value) {
+                return value.toString();
+            }
+
+            @NotNull
+            @Override
+            OffsetDateTime fromEpochMillis(long value) {
+                return OffsetDateTime.ofInstant(Instant.ofEpochMilli(value), ZoneOffset.UTC);
+            }
+
+            @Override
+            long toEpochMillis(@NotNull OffsetDateTime value) {
+                return value.toInstant().toEpochMilli();
+            }
+        }
+
+        static final class LocalDateTypeAdapter extends TimeTypeAdapter<LocalDate> {
+
+            LocalDateTypeAdapter(boolean epochMillis) {
+                super(epochMillis);
+            }
+
+            @NotNull
+            @Override
+            LocalDate parse(@NotNull String value) {
+                return LocalDate.parse(value);
+            }
+
+            @NotNull
+            @Override
+            String format(@NotNull LocalDate value) {
+                return value.toString();
+            }
+
+            @NotNull
+            @Override
+            LocalDate fromEpochMillis(long value) {
+                return Instant.ofEpochMilli(value).atOffset(ZoneOffset.UTC).toLocalDate();
+            }
+
+            @Override
+            long toEpochMillis(@NotNull LocalDate value) {
+                return value.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+        }
+
+        static final class LocalDateTimeTypeAdapter extends TimeTypeAdapter<LocalDateTime> {
+
+            LocalDateTimeTypeAdapter(boolean epochMillis) {
+                super(epochMillis);
+            }
+
+            @NotNull
+            @Override
+            LocalDateTime parse(@NotNull String value) {
+                return LocalDateTime.parse(value);
+            }
+
+            @NotNull
+            @Override
+            String format(@NotNull LocalDateTime value) {
+                return value.toString();
+            }
+
+            @NotNull
+            @Override
+            LocalDateTime fromEpochMillis(long value) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(value), ZoneOffset.UTC);
+            }
+
+            @Override
+            long toEpochMillis(@NotNull LocalDateTime value) {
+                return value.toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * A field value which is kept as JSON until it is first accessed.
+ * <p>
+ * Declare a field as {@code LazyJson<Metadata>} instead of {@code Metadata} to skip decoding large,
+ * rarely accessed values: the JSON of the value is copied once when the model is read, and is only
+ * decoded by the TypeAdapter of the value when {@link #get()} is first called. When the reader is a
+ * {@link StagJsonReader}, the text of the value is copied from its buffer as one range, without
+ * decoding any of its names or strings. If the value was never decoded, the JSON is written back
+ * verbatim.
+ * <p>
+ * The value is decoded once under the lock of this object, after which {@link #get()} returns it
+ * without locking.
+ * <p>
+ * The TypeAdapter of this class is created by {@link Factory}, which Gson finds through the
+ * {@link JsonAdapter} annotation of the class, so that fields of this type need no registration.
+ *
+ * @param <T> the type of the value.
+ */
+@JsonAdapter(LazyJson.Factory.class)
+public final class LazyJson<T> {
+
+    /**
+     * The JSON of the value, or null once it was decoded. The value is assigned before this field
+     * is cleared, so a thread which reads null here also sees the value.
+     */
+    @Nullable private volatile String mJson;
+    @Nullable private TypeAdapter<T> mTypeAdapter;
+    @Nullable private T mValue;
+
+    private LazyJson(@NotNull String json, @NotNull TypeAdapter<T> typeAdapter) {
+        mJson = json;
+        mTypeAdapter = typeAdapter;
+    }
+
+    private LazyJson(@Nullable T value) {
+        mValue = value;
+    }
+
+    /**
+     * Creates a decoded value, for models which are created in code.
+     *
+     * @param value the value.
+     * @param <T>   the type of the value.
+     * @return the lazy value, which is already decoded.
+     */
+    @NotNull
+    public static <T> LazyJson<T> of(@Nullable T value) {
+        return new LazyJson<>(value);
+    }
+
+    /**
+     * Returns the value, decoding its JSON on the first call.
+     *
+     * @return the value.
+     * @throws IllegalStateException if the JSON could not be decoded.
+     */
+    @Nullable
+    public T get() {
+        if (mJson == null) {
+            return mValue;
+        }
+        synchronized (this) {
+            String json = mJson;
+            if (json != null && mTypeAdapter != null) {
+                try {
+                    JsonReader reader = new JsonReader(new StringReader(json));
+                    reader.setLenient(true);
+                    mValue = mTypeAdapter.read(reader);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to decode " + json, e);
+                }
+                mTypeAdapter = null;
+                mJson = null;
+            }
+        }
+        return mValue;
+    }
+
+    /**
+     * Replaces the value, discarding the JSON if it was not decoded yet.
+     *
+     * @param value the new value.
+     */
+    public synchronized void set(@Nullable T value) {
+        mValue = value;
+        mTypeAdapter = null;
+        mJson = null;
+    }
+
+    /**
+     * Returns true if the value was decoded or set, false if it is still held as JSON.
+     *
+     * @return true if the value was decoded.
+     */
+    public boolean isDecoded() {
+        return mJson == null;
+    }
+
+    /**
+     * Returns the JSON of the value if it was not decoded yet.
+     *
+     * @return the JSON, or null if the value was decoded.
+     */
+    @Nullable
+    public String getJson() {
+        return mJson;
+    }
+
+    /**
+     * Creates the TypeAdapters of {@link LazyJson} values from the TypeAdapters of the values.
+     */
+    public static final class Factory implements TypeAdapterFactory {
+
+        @Override
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+            if (type.getRawType() != LazyJson.class) {
+                return null;
+            }
+            Type valueType = type.getType() instanceof ParameterizedType
+                    ? ((ParameterizedType) type.getType()).getActualTypeArguments()[0]
+                    : Object.class;
+            @SuppressWarnings("unchecked")
+            TypeAdapter<R> typeAdapter = (TypeAdapter<R>) new LazyJsonTypeAdapter<>(gson.getAdapter(TypeToken.get(valueType)));
+            return typeAdapter;
+        }
+    }
+
+    /**
+     * The TypeAdapter of {@link LazyJson} values, which copies the JSON of the values when reading
+     * and writes it back if they were not decoded.
+     */
+    static final class LazyJsonTypeAdapter<T> extends TypeAdapter<LazyJson<T>> {
+
+        @NotNull private final TypeAdapter<T> mValueTypeAdapter;
+
+        LazyJsonTypeAdapter(@NotNull TypeAdapter<T> valueTypeAdapter) {
+            mValueTypeAdapter = valueTypeAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, LazyJson<T> value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            String json = value.mJson;
+            if (json == null) {
+                mValueTypeAdapter.write(out, value.mValue);
+                return;
+            }
+            RawJson.writeJson(out, json);
+        }
+
+        @Override
+        public LazyJson<T> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return new LazyJson<>(RawJson.readJson(in), mValueTypeAdapter);
+        }
+    }
+}
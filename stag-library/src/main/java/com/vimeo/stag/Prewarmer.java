@@ -0,0 +1,81 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Creates TypeAdapters ahead of time, so that the first requests which need them do not pay for
+ * building them. Used by the generated {@code Stag.prewarm} method.
+ */
+public final class Prewarmer {
+
+    private Prewarmer() {
+    }
+
+    /**
+     * Gets the TypeAdapter of each type from the provided {@link Gson} instance, which caches it.
+     * A task is submitted to the executor for each type, and this method blocks until all of
+     * them have run.
+     *
+     * @param gson     the Gson instance that the TypeAdapters are created for.
+     * @param executor the executor that runs the tasks, usually a thread pool with one thread
+     *                 per core.
+     * @param types    the types to create the TypeAdapters of.
+     * @return the time in nanoseconds that it took to get the TypeAdapter of each type, in the
+     * order of the types. A TypeAdapter built by another task as a dependency is usually cheap to
+     * get, so the times do not add up to the total time.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     * @throws RuntimeException     the first failure thrown while creating a TypeAdapter.
+     */
+    @NotNull
+    public static Map<Type, Long> prewarm(@NotNull final Gson gson, @NotNull Executor executor,
+                                          @NotNull List<? extends Type> types) throws InterruptedException {
+        final Map<Type, Long> timings = new ConcurrentHashMap<>(types.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(types.size());
+
+        for (final Type type : types) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long start = System.nanoTime();
+                        gson.getAdapter(TypeToken.get(type));
+                        timings.put(type, System.nanoTime() - start);
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+
+        Throwable throwable = failure.get();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else if (throwable != null) {
+            throw new RuntimeException(throwable);
+        }
+
+        Map<Type, Long> result = new LinkedHashMap<>(types.size());
+        for (Type type : types) {
+            result.put(type, timings.get(type));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package com.vimeo.stag;
+
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.internal.Streams;
+import com.google.gson.internal.bind.JsonTreeWriter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * A JSON value which is passed through without being decoded.
+ * <p>
+ * Declare a field as {@code RawJson} instead of {@code JsonElement} to relay a sub-document
+ * without building a tree of it: the JSON of the value is copied into a string when the model is
+ * read, and the string is written back verbatim with {@link JsonWriter#jsonValue(String)}.
+ * <p>
+ * When the reader is a {@link StagJsonReader}, the text of the value is copied from its buffer
+ * exactly as it appears in the input, without decoding its names and strings. Other readers
+ * only return decoded tokens, so the value is then copied token by token as compact JSON, which
+ * drops insignificant whitespace, re-escapes names and strings, and turns lenient syntax into
+ * strict JSON.
+ * <p>
+ * Stag uses {@link KnownTypeAdapters#RAW_JSON} for fields of this type, and Gson finds the same
+ * TypeAdapter through the {@link JsonAdapter} annotation of the class.
+ */
+@JsonAdapter(RawJson.RawJsonTypeAdapter.class)
+public final class RawJson {
+
+    @NotNull private final String mJson;
+
+    private RawJson(@NotNull String json) {
+        mJson = json;
+    }
+
+    /**
+     * Wraps JSON which is written verbatim. The JSON is not validated, so it must contain
+     * exactly one well formed value.
+     *
+     * @param json the JSON of the value.
+     * @return the raw value.
+     */
+    @NotNull
+    public static RawJson of(@NotNull String json) {
+        return new RawJson(json);
+    }
+
+    /**
+     * Returns the JSON of the value.
+     *
+     * @return the JSON.
+     */
+    @NotNull
+    public String getJson() {
+        return mJson;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof RawJson && mJson.equals(((RawJson) o).mJson);
+    }
+
+    @Override
+    public int hashCode() {
+        return mJson.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return mJson;
+    }
+
+    /**
+     * Copies the value at the current position of the reader, without decoding it into objects.
+     * The text of the value is copied from a {@link StagJsonReader} as it is, and the tokens of
+     * other readers are written again as compact JSON.
+     */
+    @NotNull
+    static String readJson(@NotNull JsonReader reader) throws IOException {
+        if (reader instanceof StagJsonReader) {
+            return ((StagJsonReader) reader).nextJsonText();
+        }
+        StringWriter stringWriter = new StringWriter();
+        JsonWriter writer = new JsonWriter(stringWriter);
+        writer.setLenient(true);
+        int depth = 0;
+        do {
+            switch (reader.peek()) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    writer.name(reader.nextName());
+                    break;
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    writer.value(new LazilyParsedNumber(reader.nextString()));
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected end of document at " + reader.getPath());
+            }
+        } while (depth > 0);
+        writer.flush();
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes JSON which was copied by {@link #readJson(JsonReader)} verbatim.
+     */
+    static void writeJson(@NotNull JsonWriter writer, @NotNull String json) throws IOException {
+        if (writer instanceof JsonTreeWriter) {
+            // The writer of Gson#toJsonTree builds a tree, so it cannot take raw JSON
+            Streams.write(new JsonParser().parse(json), writer);
+        } else {
+            writer.jsonValue(json);
+        }
+    }
+
+    /**
+     * The TypeAdapter of {@link RawJson} values, which copies the JSON of the values when reading
+     * and writes it back verbatim.
+     */
+    static final class RawJsonTypeAdapter extends TypeAdapter<RawJson> {
+
+        @Override
+        public void write(JsonWriter out, @Nullable RawJson value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                writeJson(out, value.mJson);
+            }
+        }
+
+        @Override
+        public RawJson read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return new RawJson(readJson(in));
+        }
+    }
+}
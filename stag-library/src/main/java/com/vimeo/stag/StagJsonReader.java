@@ -0,0 +1,1212 @@
+package com.vimeo.stag;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * A {@link JsonReader} which can read property names without creating a {@link String} for each
+ * of them. The TypeAdapters generated by Stag match the names returned by
+ * {@link #nextNameChars()} against the names of the fields they know, and only fall back to
+ * {@link #nextName()} when they are given another JsonReader.
+ * <p>
+ * The reader parses the JSON itself, with the same behavior as {@link JsonReader}, including
+ * its lenient mode and the non-execute prefix it skips. Numbers are parsed from the buffer
+ * without creating Strings, except for long or exponent forms. It is not a complete replacement
+ * for JsonReader though: the state of the parent JsonReader is unused, so
+ * {@link com.google.gson.internal.JsonReaderInternalAccess} cannot be used on this reader, which
+ * means that the map TypeAdapters of Gson, and any other TypeAdapter which promotes names to
+ * values through it, fail with an IOException. The map TypeAdapters of Stag use
+ * {@link #promoteNameToValue()} instead.
+ * <p>
+ * This class is not thread safe.
+ */
+public class StagJsonReader extends JsonReader {
+
+    private static final int PEEKED_NONE = 0;
+    private static final int PEEKED_BEGIN_OBJECT = 1;
+    private static final int PEEKED_END_OBJECT = 2;
+    private static final int PEEKED_BEGIN_ARRAY = 3;
+    private static final int PEEKED_END_ARRAY = 4;
+    private static final int PEEKED_TRUE = 5;
+    private static final int PEEKED_FALSE = 6;
+    private static final int PEEKED_NULL = 7;
+    private static final int PEEKED_SINGLE_QUOTED = 8;
+    private static final int PEEKED_DOUBLE_QUOTED = 9;
+    private static final int PEEKED_UNQUOTED = 10;
+    private static final int PEEKED_SINGLE_QUOTED_NAME = 11;
+    private static final int PEEKED_DOUBLE_QUOTED_NAME = 12;
+    private static final int PEEKED_UNQUOTED_NAME = 13;
+    private static final int PEEKED_NUMBER = 14;
+    private static final int PEEKED_EOF = 15;
+    private static final int PEEKED_BUFFERED = 16;
+
+    /**
+     * The exact powers of ten which divide the mantissas of {@link #parseDouble()}.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * The prefix which a lenient reader skips at the start of a document, as {@link JsonReader} does.
+     */
+    private static final char[] NON_EXECUTE_PREFIX = ")]}'\n".toCharArray();
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+    private static final int CLOSED = 8;
+
+    /**
+     * The Reader given to the parent JsonReader, which is never supposed to read anything.
+     */
+    private static final Reader UNSUPPORTED_READER = new Reader() {
+        @Override
+        public int read(@NotNull char[] buffer, int offset, int length) throws IOException {
+            throw new IOException("The state of a StagJsonReader cannot be accessed through JsonReaderInternalAccess");
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @NotNull private final Reader mIn;
+    @NotNull private final char[] mBuffer = new char[1024];
+    private int mPos;
+    private int mLimit;
+    private int mLineNumber;
+    private int mLineStart;
+
+    private int mPeeked = PEEKED_NONE;
+
+    /**
+     * The text of the current name, string or literal.
+     */
+    @NotNull private char[] mText = new char[64];
+    private int mTextLength;
+    @NotNull private final NameChars mNameChars = new NameChars();
+
+    @NotNull private int[] mStack = new int[32];
+    private int mStackSize;
+    @NotNull private StringBuilder[] mPathNames = new StringBuilder[32];
+    @NotNull private boolean[] mHasPathName = new boolean[32];
+    @NotNull private int[] mPathIndices = new int[32];
+
+    @Nullable private CanonicalTable mCanonicalTable;
+
+    /**
+     * The text of the value being copied by {@link #nextJsonText()}, which receives the consumed
+     * characters of the buffer from {@link #mRawTextStart} before the buffer is refilled.
+     */
+    @Nullable private StringBuilder mRawText;
+    private int mRawTextStart;
+
+    /**
+     * Creates a reader.
+     *
+     * @param in the reader of the JSON.
+     */
+    public StagJsonReader(@NotNull Reader in) {
+        super(UNSUPPORTED_READER);
+        mIn = in;
+        mStack[mStackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Consumes the next token, which must be a property name, without creating a {@link String}.
+     *
+     * @return the characters of the name, which are only valid until the next call to this reader.
+     * @throws IOException if the JSON is malformed.
+     */
+    @NotNull
+    public CharSequence nextNameChars() throws IOException {
+        readName();
+        setPathName();
+        return mNameChars;
+    }
+
+    /**
+     * Consumes the next value, which may be an object or an array, and returns its JSON exactly
+     * as it appears in the input, without decoding its names and strings. Escape sequences,
+     * whitespace inside the value and lenient syntax are kept as they are.
+     *
+     * @return the text of the value.
+     * @throws IOException if the JSON is malformed.
+     */
+    @NotNull
+    public String nextJsonText() throws IOException {
+        int p = peekIfNone();
+        switch (p) {
+            case PEEKED_BEGIN_OBJECT:
+            case PEEKED_BEGIN_ARRAY:
+            case PEEKED_DOUBLE_QUOTED:
+            case PEEKED_SINGLE_QUOTED:
+                // The opening character was the last one consumed, so the value starts right before the position
+                StringBuilder rawText = new StringBuilder();
+                mRawText = rawText;
+                mRawTextStart = mPos - 1;
+                try {
+                    skipValue();
+                    rawText.append(mBuffer, mRawTextStart, mPos - mRawTextStart);
+                } finally {
+                    mRawText = null;
+                }
+                return rawText.toString();
+            case PEEKED_TRUE:
+            case PEEKED_FALSE:
+            case PEEKED_NUMBER:
+            case PEEKED_UNQUOTED:
+                // Literals were read into the text buffer as they are
+                String literal = new String(mText, 0, mTextLength);
+                consumeValue();
+                return literal;
+            case PEEKED_NULL:
+                consumeValue();
+                return "null";
+            case PEEKED_BUFFERED:
+                // The string was already decoded, so it is encoded again
+                StringWriter stringWriter = new StringWriter();
+                JsonWriter writer = new JsonWriter(stringWriter);
+                writer.setLenient(true);
+                writer.value(new String(mText, 0, mTextLength));
+                writer.flush();
+                consumeValue();
+                return stringWriter.toString();
+            default:
+                throw unexpected("a value");
+        }
+    }
+
+    /**
+     * Returns the table of the instances of the classes annotated with {@link CanonicalById}
+     * which were read by this reader, so that repeated instances are shared within the document.
+     *
+     * @return the table, which is created on first use.
+     */
+    @NotNull
+    public CanonicalTable getCanonicalTable() {
+        if (mCanonicalTable == null) {
+            mCanonicalTable = new CanonicalTable();
+        }
+        return mCanonicalTable;
+    }
+
+    /**
+     * Turns the next property name into a value, so that it can be read by a TypeAdapter, for
+     * instance as the key of a map.
+     *
+     * @throws IOException if the JSON is malformed.
+     */
+    public void promoteNameToValue() throws IOException {
+        int p = mPeeked;
+        if (p == PEEKED_NONE) {
+            p = doPeek();
+        }
+        if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+            mPeeked = PEEKED_DOUBLE_QUOTED;
+        } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+            mPeeked = PEEKED_SINGLE_QUOTED;
+        } else if (p == PEEKED_UNQUOTED_NAME) {
+            readLiteral();
+            mPeeked = PEEKED_UNQUOTED;
+        } else {
+            throw new IllegalStateException("Expected a name but was " + peek() + locationString());
+        }
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        if (peekIfNone() != PEEKED_BEGIN_ARRAY) {
+            throw unexpected("BEGIN_ARRAY");
+        }
+        push(EMPTY_ARRAY);
+        mPathIndices[mStackSize - 1] = 0;
+        mPeeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        if (peekIfNone() != PEEKED_END_ARRAY) {
+            throw unexpected("END_ARRAY");
+        }
+        mStackSize--;
+        mPathIndices[mStackSize - 1]++;
+        mPeeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        if (peekIfNone() != PEEKED_BEGIN_OBJECT) {
+            throw unexpected("BEGIN_OBJECT");
+        }
+        push(EMPTY_OBJECT);
+        mPeeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        if (peekIfNone() != PEEKED_END_OBJECT) {
+            throw unexpected("END_OBJECT");
+        }
+        mStackSize--;
+        mHasPathName[mStackSize] = false;
+        mPathIndices[mStackSize - 1]++;
+        mPeeked = PEEKED_NONE;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        int p = peekIfNone();
+        return p != PEEKED_END_OBJECT && p != PEEKED_END_ARRAY && p != PEEKED_EOF;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        switch (peekIfNone()) {
+            case PEEKED_BEGIN_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            case PEEKED_END_OBJECT:
+                return JsonToken.END_OBJECT;
+            case PEEKED_BEGIN_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case PEEKED_END_ARRAY:
+                return JsonToken.END_ARRAY;
+            case PEEKED_SINGLE_QUOTED_NAME:
+            case PEEKED_DOUBLE_QUOTED_NAME:
+            case PEEKED_UNQUOTED_NAME:
+                return JsonToken.NAME;
+            case PEEKED_TRUE:
+            case PEEKED_FALSE:
+                return JsonToken.BOOLEAN;
+            case PEEKED_NULL:
+                return JsonToken.NULL;
+            case PEEKED_SINGLE_QUOTED:
+            case PEEKED_DOUBLE_QUOTED:
+            case PEEKED_UNQUOTED:
+            case PEEKED_BUFFERED:
+                return JsonToken.STRING;
+            case PEEKED_NUMBER:
+                return JsonToken.NUMBER;
+            case PEEKED_EOF:
+                return JsonToken.END_DOCUMENT;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        readName();
+        setPathName();
+        return new String(mText, 0, mTextLength);
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        String result = readValueText("a string");
+        consumeValue();
+        return result;
+    }
+
+    /**
+     * Consumes the next token, which must be a string or a number, without creating a
+     * {@link String}.
+     *
+     * @return the characters of the value, which are only valid until the next call to this reader.
+     * @throws IOException if the JSON is malformed.
+     */
+    @NotNull
+    public CharSequence nextStringChars() throws IOException {
+        readValueChars("a string");
+        consumeValue();
+        return mNameChars;
+    }
+
+    /**
+     * Consumes the next token, which must be a string or a number, and returns its canonical
+     * String from the table, without creating a String if the value is already in it.
+     *
+     * @param interner the table of canonical Strings.
+     * @return the value.
+     * @throws IOException if the JSON is malformed.
+     */
+    @NotNull
+    public String nextString(@NotNull StringInterner interner) throws IOException {
+        readValueChars("a string");
+        String result = interner.intern(mText, 0, mTextLength);
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        int p = peekIfNone();
+        if (p != PEEKED_TRUE && p != PEEKED_FALSE) {
+            throw unexpected("a boolean");
+        }
+        consumeValue();
+        return p == PEEKED_TRUE;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        if (peekIfNone() != PEEKED_NULL) {
+            throw unexpected("null");
+        }
+        consumeValue();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        if (peekIfNone() == PEEKED_NUMBER) {
+            double result = parseDouble();
+            if (!Double.isNaN(result)) {
+                consumeValue();
+                return result;
+            }
+        }
+        String text = readValueText("a double");
+        double result = Double.parseDouble(text);
+        if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result))) {
+            throw new MalformedJsonException("JSON forbids NaN and infinities: " + result + locationString());
+        }
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        long result = readLong("a long");
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long result = readLong("an int");
+        if ((int) result != result) {
+            throw new NumberFormatException("Expected an int but was " + result + locationString());
+        }
+        consumeValue();
+        return (int) result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mPeeked = PEEKED_NONE;
+        mStack[0] = CLOSED;
+        mStackSize = 1;
+        mIn.close();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int count = 0;
+        do {
+            int p = peekIfNone();
+            if (p == PEEKED_BEGIN_ARRAY) {
+                push(EMPTY_ARRAY);
+                count++;
+            } else if (p == PEEKED_BEGIN_OBJECT) {
+                push(EMPTY_OBJECT);
+                count++;
+            } else if (p == PEEKED_END_ARRAY || p == PEEKED_END_OBJECT) {
+                mStackSize--;
+                count--;
+            } else if (p == PEEKED_UNQUOTED_NAME) {
+                readLiteral();
+            } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_SINGLE_QUOTED_NAME) {
+                readQuoted('\'');
+            } else if (p == PEEKED_DOUBLE_QUOTED || p == PEEKED_DOUBLE_QUOTED_NAME) {
+                readQuoted('"');
+            }
+            mPeeked = PEEKED_NONE;
+        } while (count != 0);
+
+        mPathIndices[mStackSize - 1]++;
+        setPathName("null");
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + locationString();
+    }
+
+    @Override
+    public String getPath() {
+        StringBuilder result = new StringBuilder().append('$');
+        for (int i = 0; i < mStackSize; i++) {
+            switch (mStack[i]) {
+                case EMPTY_ARRAY:
+                case NONEMPTY_ARRAY:
+                    result.append('[').append(mPathIndices[i]).append(']');
+                    break;
+                case EMPTY_OBJECT:
+                case DANGLING_NAME:
+                case NONEMPTY_OBJECT:
+                    result.append('.');
+                    if (mHasPathName[i]) {
+                        result.append(mPathNames[i]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return result.toString();
+    }
+
+    private int peekIfNone() throws IOException {
+        return mPeeked != PEEKED_NONE ? mPeeked : doPeek();
+    }
+
+    private void consumeValue() {
+        mPeeked = PEEKED_NONE;
+        mPathIndices[mStackSize - 1]++;
+    }
+
+    /**
+     * Reads the next name into the text buffer.
+     */
+    private void readName() throws IOException {
+        int p = peekIfNone();
+        if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+            readQuoted('"');
+        } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+            readQuoted('\'');
+        } else if (p == PEEKED_UNQUOTED_NAME) {
+            readLiteral();
+        } else {
+            throw unexpected("a name");
+        }
+        mPeeked = PEEKED_NONE;
+    }
+
+    private void setPathName() {
+        StringBuilder pathName = getPathNameBuilder();
+        pathName.setLength(0);
+        pathName.append(mText, 0, mTextLength);
+    }
+
+    private void setPathName(@NotNull String name) {
+        StringBuilder pathName = getPathNameBuilder();
+        pathName.setLength(0);
+        pathName.append(name);
+    }
+
+    @NotNull
+    private StringBuilder getPathNameBuilder() {
+        int index = mStackSize - 1;
+        StringBuilder pathName = mPathNames[index];
+        if (pathName == null) {
+            pathName = new StringBuilder();
+            mPathNames[index] = pathName;
+        }
+        mHasPathName[index] = true;
+        return pathName;
+    }
+
+    /**
+     * Returns the text of the next string or number, without consuming it. A quoted string is
+     * read into the text buffer, so that it can still be consumed if it cannot be parsed.
+     */
+    @NotNull
+    private String readValueText(@NotNull String expected) throws IOException {
+        readValueChars(expected);
+        return new String(mText, 0, mTextLength);
+    }
+
+    /**
+     * Reads the text of the next string or number into the text buffer, without consuming it.
+     */
+    private void readValueChars(@NotNull String expected) throws IOException {
+        int p = peekIfNone();
+        if (p == PEEKED_DOUBLE_QUOTED) {
+            readQuoted('"');
+            mPeeked = PEEKED_BUFFERED;
+        } else if (p == PEEKED_SINGLE_QUOTED) {
+            readQuoted('\'');
+            mPeeked = PEEKED_BUFFERED;
+        } else if (p != PEEKED_UNQUOTED && p != PEEKED_NUMBER && p != PEEKED_BUFFERED) {
+            throw unexpected(expected);
+        }
+    }
+
+    private long readLong(@NotNull String expected) throws IOException {
+        if (peekIfNone() == PEEKED_NUMBER) {
+            long result = parseLong();
+            if (result != Long.MIN_VALUE || isTextEqualTo(Long.toString(Long.MIN_VALUE))) {
+                return result;
+            }
+        }
+        String text = readValueText(expected);
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ignored) {
+            // Fall back to parsing a double, as JsonReader does
+        }
+        double asDouble = Double.parseDouble(text);
+        long result = (long) asDouble;
+        if (result != asDouble) {
+            throw new NumberFormatException("Expected " + expected + " but was " + text + locationString());
+        }
+        return result;
+    }
+
+    /**
+     * Parses the number in the text buffer as a long without creating a String.
+     *
+     * @return the number, or {@link Long#MIN_VALUE} if it is not a long, or does not fit.
+     */
+    private long parseLong() {
+        int i = 0;
+        boolean negative = false;
+        if (mTextLength > 0 && mText[0] == '-') {
+            negative = true;
+            i++;
+        }
+        if (i == mTextLength || mTextLength - i > 18) {
+            // Longer numbers might overflow, so they are parsed as Strings
+            return Long.MIN_VALUE;
+        }
+        long result = 0;
+        for (; i < mTextLength; i++) {
+            char c = mText[i];
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses the number in the text buffer as a double without creating a String, when it has
+     * no exponent and at most 15 digits. Such a number and the power of ten dividing it are
+     * exact doubles, so their quotient is correctly rounded, as by {@link Double#parseDouble}.
+     *
+     * @return the number, or {@link Double#NaN} if it must be parsed as a String.
+     */
+    private double parseDouble() {
+        int i = 0;
+        boolean negative = false;
+        if (mTextLength > 0 && mText[0] == '-') {
+            negative = true;
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < mTextLength; i++) {
+            char c = mText[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 15) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        double result = fractionDigits == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -result : result;
+    }
+
+    private boolean isTextEqualTo(@NotNull String value) {
+        if (value.length() != mTextLength) {
+            return false;
+        }
+        for (int i = 0; i < mTextLength; i++) {
+            if (mText[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void push(int newTop) {
+        if (mStackSize == mStack.length) {
+            int newLength = mStackSize * 2;
+            mStack = Arrays.copyOf(mStack, newLength);
+            mPathIndices = Arrays.copyOf(mPathIndices, newLength);
+            mPathNames = Arrays.copyOf(mPathNames, newLength);
+            mHasPathName = Arrays.copyOf(mHasPathName, newLength);
+        }
+        mHasPathName[mStackSize] = false;
+        mStack[mStackSize++] = newTop;
+    }
+
+    private int doPeek() throws IOException {
+        int peekStack = mStack[mStackSize - 1];
+        if (peekStack == EMPTY_ARRAY) {
+            mStack[mStackSize - 1] = NONEMPTY_ARRAY;
+        } else if (peekStack == NONEMPTY_ARRAY) {
+            int c = nextNonWhitespace(true);
+            switch (c) {
+                case ']':
+                    return mPeeked = PEEKED_END_ARRAY;
+                case ';':
+                    checkLenient();
+                    break;
+                case ',':
+                    break;
+                default:
+                    throw syntaxError("Unterminated array");
+            }
+        } else if (peekStack == EMPTY_OBJECT || peekStack == NONEMPTY_OBJECT) {
+            mStack[mStackSize - 1] = DANGLING_NAME;
+            if (peekStack == NONEMPTY_OBJECT) {
+                int c = nextNonWhitespace(true);
+                switch (c) {
+                    case '}':
+                        return mPeeked = PEEKED_END_OBJECT;
+                    case ';':
+                        checkLenient();
+                        break;
+                    case ',':
+                        break;
+                    default:
+                        throw syntaxError("Unterminated object");
+                }
+            }
+            int c = nextNonWhitespace(true);
+            switch (c) {
+                case '"':
+                    return mPeeked = PEEKED_DOUBLE_QUOTED_NAME;
+                case '\'':
+                    checkLenient();
+                    return mPeeked = PEEKED_SINGLE_QUOTED_NAME;
+                case '}':
+                    if (peekStack != NONEMPTY_OBJECT) {
+                        return mPeeked = PEEKED_END_OBJECT;
+                    }
+                    throw syntaxError("Expected name");
+                default:
+                    checkLenient();
+                    mPos--;
+                    if (isLiteral((char) c)) {
+                        return mPeeked = PEEKED_UNQUOTED_NAME;
+                    }
+                    throw syntaxError("Expected name");
+            }
+        } else if (peekStack == DANGLING_NAME) {
+            mStack[mStackSize - 1] = NONEMPTY_OBJECT;
+            int c = nextNonWhitespace(true);
+            switch (c) {
+                case ':':
+                    break;
+                case '=':
+                    checkLenient();
+                    if ((mPos < mLimit || fillBuffer(1)) && mBuffer[mPos] == '>') {
+                        mPos++;
+                    }
+                    break;
+                default:
+                    throw syntaxError("Expected ':'");
+            }
+        } else if (peekStack == EMPTY_DOCUMENT) {
+            if (isLenient()) {
+                consumeNonExecutePrefix();
+            }
+            mStack[mStackSize - 1] = NONEMPTY_DOCUMENT;
+        } else if (peekStack == NONEMPTY_DOCUMENT) {
+            int c = nextNonWhitespace(false);
+            if (c == -1) {
+                return mPeeked = PEEKED_EOF;
+            }
+            checkLenient();
+            mPos--;
+        } else if (peekStack == CLOSED) {
+            throw new IllegalStateException("JsonReader is closed");
+        }
+
+        int c = nextNonWhitespace(true);
+        switch (c) {
+            case ']':
+                if (peekStack == EMPTY_ARRAY) {
+                    return mPeeked = PEEKED_END_ARRAY;
+                }
+                // In lenient mode, a ] after a comma is an implicit null
+                if (peekStack == NONEMPTY_ARRAY) {
+                    checkLenient();
+                    mPos--;
+                    return mPeeked = PEEKED_NULL;
+                }
+                throw syntaxError("Unexpected value");
+            case ';':
+            case ',':
+                if (peekStack == EMPTY_ARRAY || peekStack == NONEMPTY_ARRAY) {
+                    checkLenient();
+                    mPos--;
+                    return mPeeked = PEEKED_NULL;
+                }
+                throw syntaxError("Unexpected value");
+            case '\'':
+                checkLenient();
+                return mPeeked = PEEKED_SINGLE_QUOTED;
+            case '"':
+                return mPeeked = PEEKED_DOUBLE_QUOTED;
+            case '[':
+                return mPeeked = PEEKED_BEGIN_ARRAY;
+            case '{':
+                return mPeeked = PEEKED_BEGIN_OBJECT;
+            default:
+                mPos--;
+                return mPeeked = peekLiteral();
+        }
+    }
+
+    /**
+     * Reads an unquoted literal, which is a keyword, a number, or a string in lenient mode.
+     */
+    private int peekLiteral() throws IOException {
+        readLiteral();
+        if (mTextLength == 0) {
+            throw syntaxError("Expected value");
+        }
+        if (isTextKeyword("true")) {
+            return PEEKED_TRUE;
+        } else if (isTextKeyword("false")) {
+            return PEEKED_FALSE;
+        } else if (isTextKeyword("null")) {
+            return PEEKED_NULL;
+        } else if (isTextNumber()) {
+            return PEEKED_NUMBER;
+        }
+        checkLenient();
+        return PEEKED_UNQUOTED;
+    }
+
+    private boolean isTextKeyword(@NotNull String keyword) {
+        if (keyword.length() != mTextLength) {
+            return false;
+        }
+        for (int i = 0; i < mTextLength; i++) {
+            if (Character.toLowerCase(mText[i]) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether the text buffer is a number, as defined by the JSON grammar.
+     */
+    private boolean isTextNumber() {
+        int i = 0;
+        if (i < mTextLength && mText[i] == '-') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < mTextLength && mText[i] >= '0' && mText[i] <= '9') {
+            i++;
+        }
+        if (i == digitsStart || (mText[digitsStart] == '0' && i - digitsStart > 1)) {
+            return false;
+        }
+        if (i < mTextLength && mText[i] == '.') {
+            i++;
+            int fractionStart = i;
+            while (i < mTextLength && mText[i] >= '0' && mText[i] <= '9') {
+                i++;
+            }
+            if (i == fractionStart) {
+                return false;
+            }
+        }
+        if (i < mTextLength && (mText[i] == 'e' || mText[i] == 'E')) {
+            i++;
+            if (i < mTextLength && (mText[i] == '+' || mText[i] == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < mTextLength && mText[i] >= '0' && mText[i] <= '9') {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == mTextLength;
+    }
+
+    private boolean isLiteral(char c) throws IOException {
+        switch (c) {
+            case '/':
+            case '\\':
+            case ';':
+            case '#':
+            case '=':
+                checkLenient();
+                return false;
+            case '{':
+            case '}':
+            case '[':
+            case ']':
+            case ':':
+            case ',':
+            case ' ':
+            case '\t':
+            case '\f':
+            case '\r':
+            case '\n':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Reads the characters of an unquoted literal into the text buffer.
+     */
+    private void readLiteral() throws IOException {
+        mTextLength = 0;
+        while (true) {
+            int start = mPos;
+            int p = mPos;
+            while (p < mLimit && isLiteral(mBuffer[p])) {
+                p++;
+            }
+            appendText(start, p - start);
+            mPos = p;
+            if (p < mLimit || !fillBuffer(1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the characters of a quoted string into the text buffer, after the opening quote has
+     * been consumed.
+     */
+    private void readQuoted(char quote) throws IOException {
+        mTextLength = 0;
+        while (true) {
+            int p = mPos;
+            int start = p;
+            while (p < mLimit) {
+                char c = mBuffer[p++];
+                if (c == quote) {
+                    appendText(start, p - start - 1);
+                    mPos = p;
+                    return;
+                } else if (c == '\\') {
+                    appendText(start, p - start - 1);
+                    mPos = p;
+                    appendChar(readEscapeCharacter());
+                    p = mPos;
+                    start = p;
+                } else if (c == '\n') {
+                    mLineNumber++;
+                    mLineStart = p;
+                }
+            }
+            appendText(start, p - start);
+            mPos = p;
+            if (!fillBuffer(1)) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException {
+        if (mPos == mLimit && !fillBuffer(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char escaped = mBuffer[mPos++];
+        switch (escaped) {
+            case 'u':
+                if (mPos + 4 > mLimit && !fillBuffer(4)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                char result = 0;
+                for (int i = mPos, end = i + 4; i < end; i++) {
+                    char c = mBuffer[i];
+                    result <<= 4;
+                    if (c >= '0' && c <= '9') {
+                        result += (c - '0');
+                    } else if (c >= 'a' && c <= 'f') {
+                        result += (c - 'a' + 10);
+                    } else if (c >= 'A' && c <= 'F') {
+                        result += (c - 'A' + 10);
+                    } else {
+                        throw new NumberFormatException("\\u" + new String(mBuffer, mPos, 4));
+                    }
+                }
+                mPos += 4;
+                return result;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '\n':
+                mLineNumber++;
+                mLineStart = mPos;
+                return escaped;
+            default:
+                // Quotes, slashes and any other character are kept as they are
+                return escaped;
+        }
+    }
+
+    private void appendText(int start, int length) {
+        ensureTextCapacity(mTextLength + length);
+        System.arraycopy(mBuffer, start, mText, mTextLength, length);
+        mTextLength += length;
+    }
+
+    private void appendChar(char c) {
+        ensureTextCapacity(mTextLength + 1);
+        mText[mTextLength++] = c;
+    }
+
+    private void ensureTextCapacity(int capacity) {
+        if (capacity > mText.length) {
+            mText = Arrays.copyOf(mText, Math.max(capacity, mText.length * 2));
+        }
+    }
+
+    /**
+     * Moves the unread characters to the start of the buffer, and reads characters until at
+     * least the minimum number of characters is available.
+     *
+     * @return true if the minimum number of characters is available.
+     */
+    private boolean fillBuffer(int minimum) throws IOException {
+        if (mRawText != null) {
+            // The consumed characters are about to be discarded
+            mRawText.append(mBuffer, mRawTextStart, mPos - mRawTextStart);
+            mRawTextStart = 0;
+        }
+        mLineStart -= mPos;
+        if (mLimit != mPos) {
+            mLimit -= mPos;
+            System.arraycopy(mBuffer, mPos, mBuffer, 0, mLimit);
+        } else {
+            mLimit = 0;
+        }
+        mPos = 0;
+
+        int total;
+        while ((total = mIn.read(mBuffer, mLimit, mBuffer.length - mLimit)) != -1) {
+            mLimit += total;
+
+            // Skip a byte order mark at the start of the document
+            if (mLineNumber == 0 && mLineStart == 0 && mLimit > 0 && mBuffer[0] == '\ufeff') {
+                mPos++;
+                mLineStart++;
+                minimum++;
+            }
+
+            if (mLimit >= minimum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next character which is not whitespace, skipping comments in lenient mode.
+     *
+     * @return the character, or -1 at the end of the input if throwOnEof is false.
+     */
+    private int nextNonWhitespace(boolean throwOnEof) throws IOException {
+        int p = mPos;
+        int l = mLimit;
+        while (true) {
+            if (p == l) {
+                mPos = p;
+                if (!fillBuffer(1)) {
+                    break;
+                }
+                p = mPos;
+                l = mLimit;
+            }
+
+            int c = mBuffer[p++];
+            if (c == '\n') {
+                mLineNumber++;
+                mLineStart = p;
+                continue;
+            } else if (c == ' ' || c == '\r' || c == '\t') {
+                continue;
+            }
+
+            if (c == '/') {
+                mPos = p;
+                if (p == l) {
+                    mPos--;
+                    boolean charsLoaded = fillBuffer(2);
+                    mPos++;
+                    if (!charsLoaded) {
+                        return c;
+                    }
+                }
+
+                checkLenient();
+                char peek = mBuffer[mPos];
+                switch (peek) {
+                    case '*':
+                        mPos++;
+                        if (!skipTo("*/")) {
+                            throw syntaxError("Unterminated comment");
+                        }
+                        p = mPos + 2;
+                        l = mLimit;
+                        continue;
+                    case '/':
+                        mPos++;
+                        skipToEndOfLine();
+                        p = mPos;
+                        l = mLimit;
+                        continue;
+                    default:
+                        return c;
+                }
+            } else if (c == '#') {
+                mPos = p;
+                checkLenient();
+                skipToEndOfLine();
+                p = mPos;
+                l = mLimit;
+            } else {
+                mPos = p;
+                return c;
+            }
+        }
+        if (throwOnEof) {
+            throw new EOFException("End of input" + locationString());
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the prefix which some servers put before JSON to make it non executable.
+     */
+    private void consumeNonExecutePrefix() throws IOException {
+        nextNonWhitespace(true);
+        mPos--;
+        if (mPos + NON_EXECUTE_PREFIX.length > mLimit && !fillBuffer(NON_EXECUTE_PREFIX.length)) {
+            return;
+        }
+        for (int i = 0; i < NON_EXECUTE_PREFIX.length; i++) {
+            if (mBuffer[mPos + i] != NON_EXECUTE_PREFIX[i]) {
+                return;
+            }
+        }
+        mPos += NON_EXECUTE_PREFIX.length;
+    }
+
+    private void skipToEndOfLine() throws IOException {
+        while (mPos < mLimit || fillBuffer(1)) {
+            char c = mBuffer[mPos++];
+            if (c == '\n') {
+                mLineNumber++;
+                mLineStart = mPos;
+                break;
+            } else if (c == '\r') {
+                break;
+            }
+        }
+    }
+
+    private boolean skipTo(@NotNull String toFind) throws IOException {
+        int length = toFind.length();
+        outer:
+        for (; mPos + length <= mLimit || fillBuffer(length); mPos++) {
+            if (mBuffer[mPos] == '\n') {
+                mLineNumber++;
+                mLineStart = mPos + 1;
+                continue;
+            }
+            for (int c = 0; c < length; c++) {
+                if (mBuffer[mPos + c] != toFind.charAt(c)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void checkLenient() throws IOException {
+        if (!isLenient()) {
+            throw syntaxError("Use JsonReader.setLenient(true) to accept malformed JSON");
+        }
+    }
+
+    @NotNull
+    private IOException syntaxError(@NotNull String message) throws IOException {
+        throw new MalformedJsonException(message + locationString());
+    }
+
+    @NotNull
+    private IllegalStateException unexpected(@NotNull String expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek() + locationString());
+    }
+
+    @NotNull
+    private String locationString() {
+        int line = mLineNumber + 1;
+        int column = mPos - mLineStart + 1;
+        return " at line " + line + " column " + column + " path " + getPath();
+    }
+
+    /**
+     * A view of the name or value in the text buffer.
+     */
+    private final class NameChars implements CharSequence {
+
+        @Override
+        public int length() {
+            return mTextLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return mText[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(mText, start, end - start);
+        }
+
+        @Override
+        @NotNull
+        public String toString() {
+            return new String(mText, 0, mTextLength);
+        }
+    }
+}
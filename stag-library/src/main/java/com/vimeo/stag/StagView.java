@@ -0,0 +1,34 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Use this annotation to add a field to one or more views of its class.
+ * <p>
+ * For every view of a class, the generated TypeAdapter has a static
+ * method which only writes the fields of that view, named after the
+ * view: the fields of the view {@code "summary"} are written by
+ * {@code writeSummaryView(JsonWriter, T, TypeAdapter)}. The static
+ * {@code view(Gson, String)} method of the generated TypeAdapter
+ * returns a TypeAdapter which writes the fields of a view and reads
+ * all the fields.
+ * </p>
+ * <p>
+ * Views are only generated for classes which are not generic, and
+ * only apply to the fields of the class itself, not to the fields of
+ * nested models. View names must be valid Java identifiers.
+ * </p>
+ */
+@Target({ElementType.FIELD})
+public @interface StagView {
+
+    /**
+     * The views which include the field.
+     *
+     * @return the names of the views.
+     */
+    @NotNull String[] value();
+}
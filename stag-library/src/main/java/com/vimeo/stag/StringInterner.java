@@ -0,0 +1,223 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded table of canonical Strings, which returns the same instance for equal values.
+ * <p>
+ * Unlike {@link String#intern()}, the table has a fixed number of slots, and a String which
+ * hashes to an occupied slot replaces the String in it, so that the table never grows and
+ * values which stop repeating are eventually forgotten. Values can be looked up from their
+ * characters, so that no String is created when the value is already in the table.
+ * <p>
+ * The table needs no locks: the slots are updated with atomic writes, so concurrent lookups can
+ * at worst replace each other's values, which only costs a later miss. Values longer than
+ * {@link #MAX_LENGTH} characters are neither hashed nor kept, as they rarely repeat.
+ * <p>
+ * Hits and misses are only counted by tables created with statistics, as counting them adds a
+ * shared atomic write to every lookup. The default table does not count them, unless it is
+ * replaced with {@link #setDefault(StringInterner)} by a table which does.
+ */
+public final class StringInterner {
+
+    /**
+     * The number of slots of the default table.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * The length of the longest values which are kept in the table.
+     */
+    public static final int MAX_LENGTH = 64;
+
+    @NotNull private static volatile StringInterner sDefault = new StringInterner(DEFAULT_CAPACITY);
+
+    @NotNull private final AtomicReferenceArray<String> mTable;
+    private final int mMask;
+    private final boolean mRecordStats;
+    @NotNull private final AtomicLong mHits = new AtomicLong();
+    @NotNull private final AtomicLong mMisses = new AtomicLong();
+
+    /**
+     * Creates a table which does not count hits and misses.
+     *
+     * @param capacity the number of slots, which is rounded up to a power of two.
+     */
+    public StringInterner(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Creates a table.
+     *
+     * @param capacity    the number of slots, which is rounded up to a power of two.
+     * @param recordStats true to count hits and misses, false otherwise.
+     */
+    public StringInterner(int capacity, boolean recordStats) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mTable = new AtomicReferenceArray<>(size);
+        mMask = size - 1;
+        mRecordStats = recordStats;
+    }
+
+    /**
+     * The table used by {@link KnownTypeAdapters#INTERNED_STRING}, and so by the fields annotated
+     * with {@link Intern} and by every String field when the {@code stagInternStrings} compiler
+     * argument is true.
+     *
+     * @return the default table.
+     */
+    @NotNull
+    public static StringInterner getDefault() {
+        return sDefault;
+    }
+
+    /**
+     * Replaces the default table, for instance with {@code new StringInterner(DEFAULT_CAPACITY, true)}
+     * to count its hits and misses. This should be called before the first parse, as the values
+     * of the previous table are not carried over.
+     *
+     * @param interner the new default table.
+     */
+    public static void setDefault(@NotNull StringInterner interner) {
+        sDefault = interner;
+    }
+
+    /**
+     * Returns the canonical String of the characters, creating it only if it is not in the table.
+     *
+     * @param chars  the characters.
+     * @param offset the index of the first character.
+     * @param length the number of characters.
+     * @return a String equal to the characters.
+     */
+    @NotNull
+    public String intern(@NotNull char[] chars, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int index = index(hash);
+        String cached = mTable.get(index);
+        if (cached != null && isEqual(cached, chars, offset, length)) {
+            if (mRecordStats) {
+                mHits.incrementAndGet();
+            }
+            return cached;
+        }
+        String result = new String(chars, offset, length);
+        mTable.lazySet(index, result);
+        if (mRecordStats) {
+            mMisses.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the canonical String of a value which was already created.
+     *
+     * @param string the value.
+     * @return a String equal to the value, which is the value itself if it was not in the table.
+     */
+    @NotNull
+    public String intern(@NotNull String string) {
+        if (string.length() > MAX_LENGTH) {
+            return string;
+        }
+        int index = index(string.hashCode());
+        String cached = mTable.get(index);
+        if (string.equals(cached)) {
+            if (mRecordStats) {
+                mHits.incrementAndGet();
+            }
+            return cached;
+        }
+        mTable.lazySet(index, string);
+        if (mRecordStats) {
+            mMisses.incrementAndGet();
+        }
+        return string;
+    }
+
+    /**
+     * Whether the table counts hits and misses.
+     *
+     * @return true if statistics are recorded, false otherwise.
+     */
+    public boolean isRecordingStats() {
+        return mRecordStats;
+    }
+
+    /**
+     * The number of values which were found in the table, which is always 0 if the table does
+     * not record statistics.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return mHits.get();
+    }
+
+    /**
+     * The number of values which were added to the table, not counting the values which were
+     * too long to be kept. This is always 0 if the table does not record statistics.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return mMisses.get();
+    }
+
+    /**
+     * The share of the values which were found in the table.
+     *
+     * @return the hit rate between 0 and 1, or 0 if no value was looked up.
+     */
+    public double getHitRate() {
+        long hits = mHits.get();
+        long total = hits + mMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the counters, keeping the values of the table.
+     */
+    public void resetStats() {
+        mHits.set(0);
+        mMisses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "StringInterner{hits=" + getHits() + ", misses=" + getMisses() + '}';
+    }
+
+    private int index(int hash) {
+        // Spreads the higher bits, as short values mostly differ in their last characters
+        return (hash ^ (hash >>> 16)) & mMask;
+    }
+
+    private static boolean isEqual(@NotNull String string, @NotNull char[] chars, int offset, int length) {
+        if (string.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.vimeo.stag;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Use this annotation to read and write a date or time field with the TypeAdapters of
+ * {@link KnownTypeAdapters}, in the given format. Whatever the format of a field, both ISO-8601
+ * strings and numbers of milliseconds since the epoch are read.
+ * <p>
+ * Date and time fields without this annotation are read and written by the TypeAdapter that
+ * Gson has for their type, so that an adapter registered with
+ * {@code GsonBuilder.registerTypeAdapter} still applies to them. As Gson has no TypeAdapter of
+ * its own for {@code Instant}, {@code OffsetDateTime}, {@code LocalDate} and
+ * {@code LocalDateTime}, fields of these types for which no adapter is registered are read and
+ * written by {@link KnownTypeAdapters.JavaTime}, as ISO-8601 strings.
+ * </p>
+ */
+@Target({ElementType.FIELD})
+public @interface TimeFormat {
+
+    /**
+     * The format of the field.
+     *
+     * @return the format in which the field is written.
+     */
+    @NotNull Style value();
+
+    /**
+     * The formats of dates and times.
+     */
+    enum Style {
+        /**
+         * An ISO-8601 string, such as {@code "2018-01-17T10:15:30.000Z"}.
+         */
+        ISO_8601,
+
+        /**
+         * A number of milliseconds since the epoch, such as {@code 1516184130000}.
+         */
+        EPOCH_MILLIS
+    }
+}
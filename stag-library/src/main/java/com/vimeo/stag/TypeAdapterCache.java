@@ -0,0 +1,117 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded, concurrent cache of TypeAdapters, keyed by the {@link Gson} instance they were
+ * created for and by their type. Generated factories use it for the adapters of generic models,
+ * which are otherwise built again for every parameterization that is looked up.
+ * <p>
+ * Types are compared through {@link TypeToken#equals(Object)}, which canonicalizes them, so that
+ * equal types from different {@link java.lang.reflect.Type} implementations share an entry. When
+ * the cache is full, an arbitrary entry is evicted to make room for a new one.
+ */
+public final class TypeAdapterCache {
+
+    private final int mMaxSize;
+    @NotNull private final ConcurrentMap<Key, TypeAdapter<?>> mTypeAdapters;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize the maximum number of TypeAdapters in the cache.
+     */
+    public TypeAdapterCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        mMaxSize = maxSize;
+        mTypeAdapters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the cached TypeAdapter of a type.
+     *
+     * @param gson the Gson instance the TypeAdapter was created for.
+     * @param type the type.
+     * @param <T>  the type.
+     * @return the TypeAdapter, or null if it is not in the cache.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <T> TypeAdapter<T> get(@NotNull Gson gson, @NotNull TypeToken<T> type) {
+        return (TypeAdapter<T>) mTypeAdapters.get(new Key(gson, type));
+    }
+
+    /**
+     * Adds the TypeAdapter of a type to the cache, unless another thread added one first.
+     *
+     * @param gson        the Gson instance the TypeAdapter was created for.
+     * @param type        the type.
+     * @param typeAdapter the TypeAdapter.
+     * @param <T>         the type.
+     * @return the TypeAdapter in the cache, which should be used instead of the provided one.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public <T> TypeAdapter<T> putIfAbsent(@NotNull Gson gson, @NotNull TypeToken<T> type,
+                                          @NotNull TypeAdapter<T> typeAdapter) {
+        if (mTypeAdapters.size() >= mMaxSize) {
+            Iterator<Key> iterator = mTypeAdapters.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        TypeAdapter<?> existing = mTypeAdapters.putIfAbsent(new Key(gson, type), typeAdapter);
+        return existing != null ? (TypeAdapter<T>) existing : typeAdapter;
+    }
+
+    /**
+     * The number of TypeAdapters in the cache.
+     *
+     * @return the size of the cache.
+     */
+    public int size() {
+        return mTypeAdapters.size();
+    }
+
+    private static final class Key {
+
+        @NotNull private final Gson mGson;
+        @NotNull private final TypeToken<?> mType;
+        private final int mHashCode;
+
+        Key(@NotNull Gson gson, @NotNull TypeToken<?> type) {
+            mGson = gson;
+            mType = type;
+            mHashCode = 31 * System.identityHashCode(gson) + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mGson == key.mGson && mType.equals(key.mType);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -1,35 +1,260 @@
 package com.vimeo.stag;
 
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Implementations of the generic {@link Type} interfaces, used by the generated TypeAdapters to
+ * describe the types of their fields.
+ * <p>
+ * The types are equal to, and have the same hash codes as, any other implementation of the same
+ * interface describing the same type, such as the ones returned by reflection. The instances
+ * returned by this class are interned in a bounded table, so that the generated TypeAdapters
+ * mostly share one instance per distinct type, and their hash codes are computed once. Like
+ * {@link StringInterner}, the table has a fixed number of slots and a type which hashes to an
+ * occupied slot replaces the type in it, so that the types created at runtime, such as the
+ * parameterizations of generic models, never make the table grow.
+ */
 public final class Types {
 
+    private static final Type[] EMPTY_TYPE_ARRAY = new Type[0];
+
+    /**
+     * The number of slots of the table of interned types.
+     */
+    static final int INTERNED_TYPES_CAPACITY = 1024;
+
+    private static final AtomicReferenceArray<Type> INTERNED_TYPES = new AtomicReferenceArray<>(INTERNED_TYPES_CAPACITY);
+
     private Types() {}
 
-    public static WildcardType getWildcardType(Type[] upperBounds, Type[] lowerBounds) {
-        return new WildcardTypeImpl(upperBounds, lowerBounds);
+    /**
+     * Returns the canonical instance of a parameterized type.
+     *
+     * @param ownerType     the type that the raw type is a member of, or null for a top level type.
+     * @param rawType       the generic class.
+     * @param typeArguments the type arguments.
+     * @return the interned type.
+     */
+    @NotNull
+    public static ParameterizedType getParameterizedType(@Nullable Type ownerType, @NotNull Class<?> rawType,
+                                                         @NotNull Type... typeArguments) {
+        return Types.<ParameterizedType>intern(new ParameterizedTypeImpl(ownerType, rawType, typeArguments));
+    }
+
+    /**
+     * Returns the canonical instance of a wildcard type. A wildcard without upper bounds is
+     * bounded by {@link Object}, as it is when returned by reflection.
+     *
+     * @param upperBounds the upper bounds.
+     * @param lowerBounds the lower bounds.
+     * @return the interned type.
+     */
+    @NotNull
+    public static WildcardType getWildcardType(@NotNull Type[] upperBounds, @NotNull Type[] lowerBounds) {
+        Type[] bounds = upperBounds.length == 0 ? new Type[]{Object.class} : upperBounds;
+        return Types.<WildcardType>intern(new WildcardTypeImpl(bounds, lowerBounds));
+    }
+
+    /**
+     * Returns the canonical instance of a generic array type.
+     *
+     * @param componentType the type of the elements of the array.
+     * @return the interned type.
+     */
+    @NotNull
+    public static GenericArrayType getGenericArrayType(@NotNull Type componentType) {
+        return Types.<GenericArrayType>intern(new GenericArrayTypeImpl(componentType));
+    }
+
+    /**
+     * Returns the canonical instance of a type created by this class, which is the instance in
+     * the table if an equal type is in it, and the type itself otherwise.
+     *
+     * @param type the type.
+     * @param <T>  the kind of type.
+     * @return the interned type, which is equal to the provided one.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    static <T extends Type> T intern(@NotNull T type) {
+        int hash = type.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (INTERNED_TYPES_CAPACITY - 1);
+        Type interned = INTERNED_TYPES.get(index);
+        if (type.equals(interned)) {
+            return (T) interned;
+        }
+        INTERNED_TYPES.lazySet(index, type);
+        return type;
+    }
+
+    private static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+    private static int hashCodeOrZero(@Nullable Object o) {
+        return o != null ? o.hashCode() : 0;
+    }
+
+    @NotNull
+    private static String typeToString(@NotNull Type type) {
+        return type instanceof Class ? ((Class<?>) type).getName() : type.toString();
+    }
+
+    private static final class ParameterizedTypeImpl implements ParameterizedType {
+
+        @Nullable private final Type ownerType;
+        @NotNull private final Class<?> rawType;
+        @NotNull private final Type[] typeArguments;
+        private final int hashCode;
+
+        ParameterizedTypeImpl(@Nullable Type ownerType, @NotNull Class<?> rawType, @NotNull Type[] typeArguments) {
+            this.ownerType = ownerType != null ? ownerType : rawType.getEnclosingClass();
+            this.rawType = rawType;
+            this.typeArguments = typeArguments.clone();
+            // Same hash code as the JDK implementation, so that the types are interchangeable in maps
+            this.hashCode = Arrays.hashCode(this.typeArguments) ^ hashCodeOrZero(this.ownerType) ^ rawType.hashCode();
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return ownerType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType that = (ParameterizedType) o;
+            return rawType.equals(that.getRawType()) && equal(ownerType, that.getOwnerType()) &&
+                   Arrays.equals(typeArguments, that.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(typeToString(rawType));
+            if (typeArguments.length > 0) {
+                builder.append('<');
+                for (int i = 0; i < typeArguments.length; i++) {
+                    if (i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append(typeToString(typeArguments[i]));
+                }
+                builder.append('>');
+            }
+            return builder.toString();
+        }
     }
 
     private static final class WildcardTypeImpl implements WildcardType {
 
-        private final Type[] upperBounds;
-        private final Type[] lowerBounds;
+        @NotNull private final Type[] upperBounds;
+        @NotNull private final Type[] lowerBounds;
+        private final int hashCode;
 
-        public WildcardTypeImpl(Type[] upperBounds, Type[] lowerBounds) {
-            this.upperBounds = upperBounds;
-            this.lowerBounds = lowerBounds;
+        WildcardTypeImpl(@NotNull Type[] upperBounds, @NotNull Type[] lowerBounds) {
+            this.upperBounds = upperBounds.clone();
+            this.lowerBounds = lowerBounds.length == 0 ? EMPTY_TYPE_ARRAY : lowerBounds.clone();
+            this.hashCode = Arrays.hashCode(this.lowerBounds) ^ Arrays.hashCode(this.upperBounds);
         }
 
         @Override
         public Type[] getUpperBounds() {
-            return upperBounds;
+            return upperBounds.clone();
         }
 
         @Override
         public Type[] getLowerBounds() {
-            return lowerBounds;
+            return lowerBounds.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WildcardType)) {
+                return false;
+            }
+            WildcardType that = (WildcardType) o;
+            return Arrays.equals(upperBounds, that.getUpperBounds()) &&
+                   Arrays.equals(lowerBounds, that.getLowerBounds());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            if (lowerBounds.length > 0) {
+                return "? super " + typeToString(lowerBounds[0]);
+            } else if (upperBounds[0] == Object.class) {
+                return "?";
+            } else {
+                return "? extends " + typeToString(upperBounds[0]);
+            }
+        }
+    }
+
+    private static final class GenericArrayTypeImpl implements GenericArrayType {
+
+        @NotNull private final Type componentType;
+        private final int hashCode;
+
+        GenericArrayTypeImpl(@NotNull Type componentType) {
+            this.componentType = componentType;
+            this.hashCode = componentType.hashCode();
+        }
+
+        @Override
+        public Type getGenericComponentType() {
+            return componentType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o ||
+                   (o instanceof GenericArrayType && componentType.equals(((GenericArrayType) o).getGenericComponentType()));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return typeToString(componentType) + "[]";
         }
     }
 }
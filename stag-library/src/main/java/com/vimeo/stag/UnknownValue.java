@@ -0,0 +1,18 @@
+package com.vimeo.stag;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Use this annotation on the constant of an enum annotated with {@link UseStag} which is read
+ * for unknown values.
+ * <p>
+ * The generated TypeAdapter of an enum reads values which match none of the names of its
+ * constants, as well as values which are neither strings nor numbers, as this constant. If no
+ * constant is annotated, such values are read as null. In both cases, unknown values are
+ * skipped without throwing.
+ * </p>
+ */
+@Target({ElementType.FIELD})
+public @interface UnknownValue {
+}
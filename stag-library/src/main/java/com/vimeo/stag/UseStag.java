@@ -68,4 +68,21 @@ public @interface UseStag {
      * if none is specified.
      */
     @NotNull FieldOption value() default FieldOption.ALL;
+
+    /**
+     * Whether the generated TypeAdapter should skip writing fields
+     * which are equal to their default values, which are the values
+     * they have after the no argument constructor of the class ran.
+     * Since the generated TypeAdapter reads JSON into an instance
+     * created by the same constructor, the skipped fields are read
+     * back with the same values.
+     * <p>
+     * Only the values set by the constructor or the initializers
+     * count as defaults: a String or collection field without an
+     * initializer starts as null, so its empty values are written.
+     * Objects are compared with equals, and arrays by their elements.
+     *
+     * @return true to omit default values, false by default.
+     */
+    boolean omitDefaults() default false;
 }
\ No newline at end of file
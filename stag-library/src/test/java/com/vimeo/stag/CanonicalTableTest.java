@@ -0,0 +1,71 @@
+package com.vimeo.stag;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CanonicalTableTest {
+
+    @Test
+    public void testInstancesAreKeptByClassAndId() throws Exception {
+        CanonicalTable table = new CanonicalTable();
+        table.put(String.class, 1, "one");
+        table.put(Integer.class, 1, 1);
+        Assert.assertEquals("one", table.get(String.class, 1));
+        Assert.assertEquals(Integer.valueOf(1), table.get(Integer.class, 1));
+        Assert.assertNull(table.get(String.class, 2));
+        Assert.assertNull(table.get(Long.class, 1));
+        Assert.assertEquals(2, table.size());
+
+        table.clear();
+        Assert.assertNull(table.get(String.class, 1));
+        Assert.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testBoundedTableDropsLeastRecentlyUsedInstances() throws Exception {
+        CanonicalTable table = new CanonicalTable(2);
+        table.put(String.class, 1, "one");
+        table.put(String.class, 2, "two");
+        Assert.assertEquals("one", table.get(String.class, 1));
+        table.put(String.class, 3, "three");
+        Assert.assertEquals("one", table.get(String.class, 1));
+        Assert.assertNull(table.get(String.class, 2));
+        Assert.assertEquals("three", table.get(String.class, 3));
+        Assert.assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testBoundedTableIsSharedByThreads() throws Exception {
+        final CanonicalTable table = new CanonicalTable(64);
+        final AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int offset = i * 1000;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int id = offset; id < offset + 1000; id++) {
+                        table.put(Integer.class, id % 100, id);
+                        Integer instance = table.get(Integer.class, id % 100);
+                        if (instance != null && instance % 100 != id % 100) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, mismatches.get());
+        Assert.assertTrue(table.size() <= 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() throws Exception {
+        new CanonicalTable(0);
+    }
+}
@@ -0,0 +1,24 @@
+package com.vimeo.stag;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class FieldMaskTest {
+
+    @Test
+    public void testContains() {
+        FieldMask mask = FieldMask.of("a", "b");
+        Assert.assertTrue(mask.contains("a"));
+        Assert.assertTrue(mask.contains("b"));
+        Assert.assertFalse(mask.contains("c"));
+        Assert.assertEquals(FieldMask.of(Arrays.asList("b", "a")), mask);
+    }
+
+    @Test
+    public void testSelect() {
+        boolean[] selection = FieldMask.of("b", "d").select(new String[]{"a", "b", "c"});
+        Assert.assertArrayEquals(new boolean[]{false, true, false}, selection);
+    }
+}
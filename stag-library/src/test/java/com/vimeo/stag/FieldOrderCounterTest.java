@@ -0,0 +1,32 @@
+package com.vimeo.stag;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FieldOrderCounterTest {
+
+    @Test
+    public void testRecord() {
+        FieldOrderCounter counter = new FieldOrderCounter();
+        Assert.assertEquals(0, counter.getHitRate(), 0);
+
+        counter.record(3, 1);
+        counter.record(0, 0);
+        Assert.assertEquals(3, counter.getHits());
+        Assert.assertEquals(1, counter.getMisses());
+        Assert.assertEquals(0.75, counter.getHitRate(), 0);
+
+        counter.reset();
+        Assert.assertEquals(0, counter.getHits());
+        Assert.assertEquals(0, counter.getMisses());
+    }
+
+    @Test
+    public void testFieldNamesEquals() {
+        Assert.assertTrue(FieldNames.equals("name", "name"));
+        Assert.assertTrue(FieldNames.equals(new StringBuilder("name"), "name"));
+        Assert.assertFalse(FieldNames.equals("names", "name"));
+        Assert.assertFalse(FieldNames.equals("nane", "name"));
+        Assert.assertTrue(FieldNames.equals("", ""));
+    }
+}
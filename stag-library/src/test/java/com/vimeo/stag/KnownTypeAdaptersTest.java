@@ -1,19 +1,37 @@
 package com.vimeo.stag;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
+import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
 
 public class KnownTypeAdaptersTest {
 
@@ -540,6 +558,89 @@ public class KnownTypeAdaptersTest {
         Assert.assertArrayEquals(value1, readValue1);
     }
 
+    /**
+     * Test for {@link KnownTypeAdapters.PrimitiveDoubleArrayAdapter} with arrays
+     * larger than the initial scratch buffer, read one after another.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForLargePrimitiveArrayDoubleTypeAdapter() throws Exception {
+        double[] value = new double[10000];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = i * 0.5;
+        }
+
+        StringWriter stringWriter = new StringWriter();
+        KnownTypeAdapters.PrimitiveDoubleArrayAdapter.write(new JsonWriter(stringWriter), value);
+        String jsonString = stringWriter.toString();
+
+        double[] readValue = KnownTypeAdapters.PrimitiveDoubleArrayAdapter.read(new JsonReader(new StringReader(jsonString)));
+        Assert.assertArrayEquals(value, readValue, 0);
+
+        // a smaller array read afterwards must not contain leftovers from the previous read
+        double[] readValue1 = KnownTypeAdapters.PrimitiveDoubleArrayAdapter.read(new JsonReader(new StringReader("[1.5,2.5]")));
+        Assert.assertArrayEquals(new double[]{1.5, 2.5}, readValue1, 0);
+    }
+
+    /**
+     * Test for the null and non array handling of the primitive array adapters.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForPrimitiveArrayAdaptersNonArrayValues() throws Exception {
+        Assert.assertNull(KnownTypeAdapters.PrimitiveIntegerArrayAdapter.read(new JsonReader(new StringReader("null"))));
+        Assert.assertNull(KnownTypeAdapters.PrimitiveLongArrayAdapter.read(new JsonReader(new StringReader("{\"a\":1}"))));
+
+        int[] emptyValue = KnownTypeAdapters.PrimitiveIntegerArrayAdapter.read(new JsonReader(new StringReader("[]")));
+        Assert.assertArrayEquals(new int[0], emptyValue);
+
+        boolean[] booleanValue = KnownTypeAdapters.PrimitiveBooleanArrayAdapter.read(new JsonReader(new StringReader("[true,null,\"true\"]")));
+        Assert.assertArrayEquals(new boolean[]{true, false, true}, booleanValue);
+    }
+
+    /**
+     * Test for {@link KnownTypeAdapters.ArrayTypeAdapter} with nested arrays.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForNestedArrayTypeAdapter() throws Exception {
+        KnownTypeAdapters.ArrayTypeAdapter<String> innerAdapter =
+                new KnownTypeAdapters.ArrayTypeAdapter<>(TypeAdapters.STRING, new KnownTypeAdapters.PrimitiveArrayConstructor<String>() {
+                    @NotNull
+                    @Override
+                    public String[] construct(int size) {
+                        return new String[size];
+                    }
+                });
+        KnownTypeAdapters.ArrayTypeAdapter<String[]> outerAdapter =
+                new KnownTypeAdapters.ArrayTypeAdapter<>(innerAdapter, new KnownTypeAdapters.PrimitiveArrayConstructor<String[]>() {
+                    @NotNull
+                    @Override
+                    public String[][] construct(int size) {
+                        return new String[size][];
+                    }
+                });
+
+        String[][] value = new String[40][];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = new String[]{"a" + i, "b" + i, null};
+        }
+
+        StringWriter stringWriter = new StringWriter();
+        outerAdapter.write(new JsonWriter(stringWriter), value);
+        String jsonString = stringWriter.toString();
+
+        String[][] readValue = outerAdapter.read(new JsonReader(new StringReader(jsonString)));
+
+        Assert.assertEquals(value.length, readValue.length);
+        for (int i = 0; i < value.length; i++) {
+            Assert.assertArrayEquals(value[i], readValue[i]);
+        }
+    }
+
     /**
      * Test for {@link KnownTypeAdapters.ListTypeAdapter}
      *
@@ -620,6 +721,88 @@ public class KnownTypeAdaptersTest {
         Utils.assertMapsEqual(intDummyMap, readValue1);
     }
 
+    /**
+     * Test for {@link KnownTypeAdapters.StringKeyMapTypeAdapter}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForStringKeyMapTypeAdapter() throws Exception {
+
+        // for string keys
+        HashMap<String, String> dummyMap = Utils.createStringDummyMap();
+
+        TypeAdapter<HashMap<String, String>> mapTypeAdapter =
+                new KnownTypeAdapters.StringKeyMapTypeAdapter<>(KnownTypeAdapters.STRING_MAP_KEY, TypeAdapters.STRING,
+                                                                new KnownTypeAdapters.HashMapInstantiator<String, String>());
+
+        StringWriter stringWriter = new StringWriter();
+        mapTypeAdapter.write(new JsonWriter(stringWriter), dummyMap);
+        String jsonString = stringWriter.toString();
+
+        HashMap<String, String> readValue = mapTypeAdapter.read(new JsonReader(new StringReader(jsonString)));
+
+        Assert.assertEquals(dummyMap.size(), readValue.size());
+        Utils.assertMapsEqual(dummyMap, readValue);
+
+        // for integer keys, the output should match the general map adapter
+        HashMap<Integer, Integer> intDummyMap = Utils.createIntegerDummyMap();
+
+        TypeAdapter<HashMap<Integer, Integer>> mapTypeAdapter1 =
+                new KnownTypeAdapters.StringKeyMapTypeAdapter<>(KnownTypeAdapters.INTEGER_MAP_KEY, KnownTypeAdapters.INTEGER,
+                                                                new KnownTypeAdapters.HashMapInstantiator<Integer, Integer>());
+        TypeAdapter<HashMap<Integer, Integer>> generalTypeAdapter =
+                new KnownTypeAdapters.MapTypeAdapter<>(KnownTypeAdapters.INTEGER, KnownTypeAdapters.INTEGER,
+                                                       new KnownTypeAdapters.HashMapInstantiator<Integer, Integer>());
+
+        stringWriter = new StringWriter();
+        mapTypeAdapter1.write(new JsonWriter(stringWriter), intDummyMap);
+        jsonString = stringWriter.toString();
+
+        Assert.assertEquals(generalTypeAdapter.toJson(intDummyMap), jsonString);
+
+        HashMap<Integer, Integer> readValue1 = mapTypeAdapter1.read(new JsonReader(new StringReader(jsonString)));
+
+        Assert.assertEquals(intDummyMap.size(), readValue1.size());
+        Utils.assertMapsEqual(intDummyMap, readValue1);
+
+        // entry arrays are read as well
+        HashMap<Integer, Integer> readValue2 = mapTypeAdapter1.fromJson("[[1,2],[\"3\",4]]");
+        Assert.assertEquals(2, readValue2.size());
+        Assert.assertEquals(Integer.valueOf(2), readValue2.get(1));
+        Assert.assertEquals(Integer.valueOf(4), readValue2.get(3));
+    }
+
+    private enum DummyEnum {
+        FIRST,
+        @SerializedName("second")
+        SECOND
+    }
+
+    /**
+     * Test for {@link KnownTypeAdapters.EnumMapKeyAdapter}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForEnumMapKeyAdapter() throws Exception {
+        TypeAdapter<DummyEnum> enumTypeAdapter = new Gson().getAdapter(DummyEnum.class);
+        TypeAdapter<Map<DummyEnum, String>> mapTypeAdapter =
+                new KnownTypeAdapters.StringKeyMapTypeAdapter<>(new KnownTypeAdapters.EnumMapKeyAdapter<>(DummyEnum.class, enumTypeAdapter),
+                                                                TypeAdapters.STRING,
+                                                                new KnownTypeAdapters.MapInstantiator<DummyEnum, String>());
+
+        Map<DummyEnum, String> dummyMap = new LinkedHashMap<>();
+        dummyMap.put(DummyEnum.FIRST, "1");
+        dummyMap.put(DummyEnum.SECOND, "2");
+
+        String jsonString = mapTypeAdapter.toJson(dummyMap);
+        Assert.assertEquals("{\"FIRST\":\"1\",\"second\":\"2\"}", jsonString);
+
+        Map<DummyEnum, String> readValue = mapTypeAdapter.fromJson(jsonString);
+        Assert.assertEquals(dummyMap, readValue);
+    }
+
     /**
      * Test for {@link KnownTypeAdapters#JSON_OBJECT}
      *
@@ -661,4 +844,178 @@ public class KnownTypeAdaptersTest {
         }
     }
 
+    /**
+     * Test for {@link KnownTypeAdapters#readInto(TypeAdapter, JsonReader, Object)}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testReadIntoRefillsCollectionsAndMaps() throws Exception {
+        ArrayList<Integer> list = new ArrayList<>();
+        list.add(1);
+        ArrayList<Integer> readList = KnownTypeAdapters.readInto(KnownTypeAdapters.INTEGER_ARRAY_LIST_ADAPTER,
+                                                                 new JsonReader(new StringReader("[2,3]")), list);
+        Assert.assertSame(list, readList);
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(Integer.valueOf(2), list.get(0));
+
+        TypeAdapter<Map<Integer, String>> mapTypeAdapter =
+                new KnownTypeAdapters.MapTypeAdapter<>(KnownTypeAdapters.INTEGER, TypeAdapters.STRING,
+                                                       new KnownTypeAdapters.MapInstantiator<Integer, String>());
+        Map<Integer, String> map = new HashMap<>();
+        map.put(1, "a");
+        Map<Integer, String> readMap = KnownTypeAdapters.readInto(mapTypeAdapter,
+                                                                  new JsonReader(new StringReader("{\"2\":\"b\"}")), map);
+        Assert.assertSame(map, readMap);
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals("b", map.get(2));
+
+        // Targets which cannot be modified are replaced
+        TypeAdapter<List<Integer>> listTypeAdapter =
+                new KnownTypeAdapters.ListTypeAdapter<>(KnownTypeAdapters.INTEGER,
+                                                        new KnownTypeAdapters.ListInstantiator<Integer>());
+        List<Integer> readUnmodifiableList = KnownTypeAdapters.readInto(listTypeAdapter,
+                                                                        new JsonReader(new StringReader("[2,3]")),
+                                                                        Collections.<Integer>unmodifiableList(list));
+        Assert.assertEquals(Arrays.asList(2, 3), readUnmodifiableList);
+        Map<Integer, String> readEmptyMap = KnownTypeAdapters.readInto(mapTypeAdapter,
+                                                                       new JsonReader(new StringReader("{\"2\":\"b\"}")),
+                                                                       Collections.<Integer, String>emptyMap());
+        Assert.assertEquals(Collections.singletonMap(2, "b"), readEmptyMap);
+
+        // Other TypeAdapters read new values
+        Assert.assertEquals("c", KnownTypeAdapters.readInto(TypeAdapters.STRING,
+                                                            new JsonReader(new StringReader("\"c\"")), "d"));
+    }
+
+    /**
+     * Test for {@link KnownTypeAdapters#DATE} and {@link KnownTypeAdapters#DATE_EPOCH_MILLIS}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForDateTypeAdapters() throws Exception {
+        Date date = new Date(1516184130000L);
+
+        Assert.assertEquals("\"2018-01-17T10:15:30.000Z\"", KnownTypeAdapters.DATE.toJson(date));
+        Assert.assertEquals("1516184130000", KnownTypeAdapters.DATE_EPOCH_MILLIS.toJson(date));
+
+        // Both representations are read by both TypeAdapters
+        Assert.assertEquals(date, KnownTypeAdapters.DATE.fromJson("1516184130000"));
+        Assert.assertEquals(date, KnownTypeAdapters.DATE_EPOCH_MILLIS.fromJson("\"2018-01-17T10:15:30.000Z\""));
+        Assert.assertEquals(date, KnownTypeAdapters.DATE.fromJson("\"2018-01-17T11:15:30+01:00\""));
+        Assert.assertNull(KnownTypeAdapters.DATE.fromJson("null"));
+
+        // The default format of Gson is read as well
+        String gsonJson = new Gson().toJson(date);
+        Assert.assertEquals(date, KnownTypeAdapters.DATE.fromJson(gsonJson));
+    }
+
+    /**
+     * Test that an unparseable date fails with a {@link JsonSyntaxException}
+     *
+     * @throws Exception
+     */
+    @Test(expected = JsonSyntaxException.class)
+    public void testForDateTypeAdapterWithInvalidDate() throws Exception {
+        KnownTypeAdapters.DATE.fromJson("\"not a date\"");
+    }
+
+    /**
+     * Test for the TypeAdapters of {@link KnownTypeAdapters.JavaTime}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForJavaTimeTypeAdapters() throws Exception {
+        Instant instant = Instant.ofEpochMilli(1516184130000L);
+        Assert.assertEquals("\"2018-01-17T10:15:30Z\"", KnownTypeAdapters.JavaTime.INSTANT.toJson(instant));
+        Assert.assertEquals("1516184130000", KnownTypeAdapters.JavaTime.INSTANT_EPOCH_MILLIS.toJson(instant));
+        Assert.assertEquals(instant, KnownTypeAdapters.JavaTime.INSTANT.fromJson("\"2018-01-17T11:15:30+01:00\""));
+        Assert.assertEquals(instant, KnownTypeAdapters.JavaTime.INSTANT.fromJson("1516184130000"));
+
+        OffsetDateTime offsetDateTime = OffsetDateTime.of(2018, 1, 17, 11, 15, 30, 0, ZoneOffset.ofHours(1));
+        Assert.assertEquals("\"2018-01-17T11:15:30+01:00\"",
+                            KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME.toJson(offsetDateTime));
+        Assert.assertEquals(offsetDateTime,
+                            KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME.fromJson("\"2018-01-17T11:15:30+01:00\""));
+        Assert.assertEquals("1516184130000",
+                            KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME_EPOCH_MILLIS.toJson(offsetDateTime));
+        Assert.assertEquals(offsetDateTime.toInstant(),
+                            KnownTypeAdapters.JavaTime.OFFSET_DATE_TIME.fromJson("1516184130000").toInstant());
+
+        LocalDate localDate = LocalDate.of(2018, 1, 17);
+        Assert.assertEquals("\"2018-01-17\"", KnownTypeAdapters.JavaTime.LOCAL_DATE.toJson(localDate));
+        Assert.assertEquals("1516147200000", KnownTypeAdapters.JavaTime.LOCAL_DATE_EPOCH_MILLIS.toJson(localDate));
+        Assert.assertEquals(localDate, KnownTypeAdapters.JavaTime.LOCAL_DATE.fromJson("1516147200000"));
+
+        LocalDateTime localDateTime = LocalDateTime.of(2018, 1, 17, 10, 15, 30);
+        Assert.assertEquals("\"2018-01-17T10:15:30\"", KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME.toJson(localDateTime));
+        Assert.assertEquals("1516184130000",
+                            KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME_EPOCH_MILLIS.toJson(localDateTime));
+        Assert.assertEquals(localDateTime,
+                            KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME.fromJson("\"2018-01-17T10:15:30\""));
+        Assert.assertNull(KnownTypeAdapters.JavaTime.LOCAL_DATE_TIME.fromJson("null"));
+    }
+
+    /**
+     * Test for {@link KnownTypeAdapters.JavaTime#getTypeAdapter(Gson, Class, TypeAdapter)}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testJavaTimeTypeAdaptersRegisteredWithGsonAreUsed() throws Exception {
+        Assert.assertSame(KnownTypeAdapters.JavaTime.INSTANT,
+                          KnownTypeAdapters.JavaTime.getTypeAdapter(new Gson(), Instant.class,
+                                                                    KnownTypeAdapters.JavaTime.INSTANT));
+
+        Gson gson = new GsonBuilder().registerTypeAdapter(Instant.class, KnownTypeAdapters.JavaTime.INSTANT_EPOCH_MILLIS)
+                .create();
+        Assert.assertSame(KnownTypeAdapters.JavaTime.INSTANT_EPOCH_MILLIS,
+                          KnownTypeAdapters.JavaTime.getTypeAdapter(gson, Instant.class,
+                                                                    KnownTypeAdapters.JavaTime.INSTANT));
+    }
+
+    /**
+     * Test for {@link KnownTypeAdapters#UUID}
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testForUuidTypeAdapter() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            Assert.assertEquals(uuid.toString(), KnownTypeAdapters.formatUuid(uuid));
+            Assert.assertEquals(uuid, KnownTypeAdapters.parseUuid(uuid.toString()));
+            Assert.assertEquals(uuid, KnownTypeAdapters.parseUuid(uuid.toString().toUpperCase(Locale.US)));
+        }
+        UUID uuid = new UUID(-1L, 0L);
+        Assert.assertEquals("ffffffff-ffff-ffff-0000-000000000000", KnownTypeAdapters.formatUuid(uuid));
+        Assert.assertEquals(uuid, KnownTypeAdapters.parseUuid("ffffffff-ffff-ffff-0000-000000000000"));
+
+        // The shorter forms accepted by UUID.fromString are read as well
+        Assert.assertEquals(UUID.fromString("1-2-3-4-5"), KnownTypeAdapters.parseUuid("1-2-3-4-5"));
+
+        String json = "[\"123e4567-e89b-12d3-a456-426655440000\",null]";
+        StagJsonReader reader = new StagJsonReader(new StringReader(json));
+        reader.beginArray();
+        Assert.assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426655440000"), KnownTypeAdapters.UUID.read(reader));
+        Assert.assertNull(KnownTypeAdapters.UUID.read(reader));
+        reader.endArray();
+
+        Assert.assertEquals("\"123e4567-e89b-12d3-a456-426655440000\"",
+                            KnownTypeAdapters.UUID.toJson(UUID.fromString("123e4567-e89b-12d3-a456-426655440000")));
+        Assert.assertEquals(uuid, KnownTypeAdapters.UUID_MAP_KEY.fromName(KnownTypeAdapters.UUID_MAP_KEY.toName(uuid)));
+    }
+
+    /**
+     * Test that an invalid UUID fails with a {@link JsonSyntaxException}
+     *
+     * @throws Exception
+     */
+    @Test(expected = JsonSyntaxException.class)
+    public void testForUuidTypeAdapterWithInvalidUuid() throws Exception {
+        KnownTypeAdapters.UUID.fromJson("\"123e4567-e89b-12d3-a456-42665544000g\"");
+    }
+
 }
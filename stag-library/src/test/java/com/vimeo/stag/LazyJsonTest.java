@@ -0,0 +1,84 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.bind.TypeAdapters;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyJsonTest {
+
+    @Test
+    public void testDecodedValue() throws Exception {
+        LazyJson<String> lazyJson = LazyJson.of("value");
+        Assert.assertTrue(lazyJson.isDecoded());
+        Assert.assertNull(lazyJson.getJson());
+        Assert.assertEquals("value", lazyJson.get());
+    }
+
+    @Test
+    public void testJsonIsCopiedFromStagJsonReaderAsItIs() throws Exception {
+        TypeAdapter<LazyJson<List<String>>> typeAdapter =
+                new Gson().getAdapter(new TypeToken<LazyJson<List<String>>>() {});
+        String json = "[\"\\u00e9\", \"a\\/b\"]";
+        LazyJson<List<String>> lazyJson = typeAdapter.read(new StagJsonReader(new StringReader(json)));
+
+        Assert.assertFalse(lazyJson.isDecoded());
+        Assert.assertEquals(json, lazyJson.getJson());
+        Assert.assertEquals(json, typeAdapter.toJson(lazyJson));
+        Assert.assertEquals("\u00e9", lazyJson.get().get(0));
+        Assert.assertEquals("a/b", lazyJson.get().get(1));
+        Assert.assertTrue(lazyJson.isDecoded());
+    }
+
+    @Test
+    public void testValueIsDecodedOnceUnderConcurrentAccess() throws Exception {
+        final AtomicInteger decodeCount = new AtomicInteger();
+        TypeAdapter<String> countingTypeAdapter = new TypeAdapter<String>() {
+            @Override
+            public void write(JsonWriter out, String value) throws IOException {
+                TypeAdapters.STRING.write(out, value);
+            }
+
+            @Override
+            public String read(JsonReader in) throws IOException {
+                decodeCount.incrementAndGet();
+                return TypeAdapters.STRING.read(in);
+            }
+        };
+        final LazyJson<String> lazyJson = new LazyJson.LazyJsonTypeAdapter<>(countingTypeAdapter).fromJson("\"value\"");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Callable<String> get = new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return lazyJson.get();
+                }
+            };
+            Future<?>[] futures = new Future<?>[64];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(get);
+            }
+            for (Future<?> future : futures) {
+                Assert.assertEquals("value", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(1, decodeCount.get());
+    }
+}
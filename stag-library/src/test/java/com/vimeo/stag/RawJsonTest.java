@@ -0,0 +1,54 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class RawJsonTest {
+
+    @Test
+    public void testReadJsonCopiesOneValue() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("[{\"a\" : [1, 2.50, -3e2], \"b\" : {\"c\" : null}}, true, \"x\"]"));
+        reader.beginArray();
+        Assert.assertEquals("{\"a\":[1,2.50,-3e2],\"b\":{\"c\":null}}", RawJson.readJson(reader));
+        Assert.assertEquals("true", RawJson.readJson(reader));
+        Assert.assertEquals("\"x\"", RawJson.readJson(reader));
+        reader.endArray();
+    }
+
+    @Test
+    public void testReadJsonCopiesTextOfStagJsonReader() throws Exception {
+        String value = "{\"a\" : [1, 2.50, -3e2], \"b\" : \"\\u00e9\\/\"}";
+        StagJsonReader reader = new StagJsonReader(new StringReader("[" + value + ", true]"));
+        reader.beginArray();
+        Assert.assertEquals(value, RawJson.readJson(reader));
+        Assert.assertTrue(reader.nextBoolean());
+        reader.endArray();
+    }
+
+    @Test
+    public void testTypeAdapterPassesJsonThrough() throws Exception {
+        String json = "{\"a\":[1,2.50,-3e2],\"b\":\"\\u00e9 \\\"c\\\"\"}";
+        RawJson rawJson = KnownTypeAdapters.RAW_JSON.fromJson(json);
+        Assert.assertEquals(RawJson.of("{\"a\":[1,2.50,-3e2],\"b\":\"\u00e9 \\\"c\\\"\"}"), rawJson);
+        Assert.assertEquals(rawJson.getJson(), KnownTypeAdapters.RAW_JSON.toJson(rawJson));
+        Assert.assertNull(KnownTypeAdapters.RAW_JSON.fromJson("null"));
+        Assert.assertEquals("null", KnownTypeAdapters.RAW_JSON.toJson(null));
+    }
+
+    @Test
+    public void testGsonFindsTypeAdapter() throws Exception {
+        Gson gson = new Gson();
+        RawJson rawJson = gson.fromJson("[1, {\"a\" : true}]", RawJson.class);
+        Assert.assertEquals("[1,{\"a\":true}]", rawJson.getJson());
+        Assert.assertEquals("[1,{\"a\":true}]", gson.toJson(rawJson));
+
+        JsonElement tree = gson.toJsonTree(rawJson);
+        Assert.assertEquals(2, tree.getAsJsonArray().size());
+    }
+}
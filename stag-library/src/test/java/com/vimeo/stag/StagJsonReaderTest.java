@@ -0,0 +1,319 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.internal.bind.TypeAdapters;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class StagJsonReaderTest {
+
+    private static final String[] DOCUMENTS = {
+            "{}",
+            "[]",
+            "{\"a\":1,\"b\":[true,false,null],\"c\":{\"d\":\"e\"}}",
+            "[1, -2, 3.5, -0.25e10, 1E+2, 9223372036854775807, -9223372036854775808, 12345678901234567890]",
+            "{\"escaped\\\"name\":\"tab\\tnewline\\nunicode\\u00e9slash\\/\"}",
+            "  \n {\n  \"nested\" : [ [ [ ] ], { \"x\" : { } } ]\n}\n",
+            "\"top level string\"",
+            "42",
+    };
+
+    private static final String[] LENIENT_DOCUMENTS = {
+            "{a:1, 'b':'c'; d=2, e=>3}",
+            "[NaN, -Infinity, unquoted, 'single']",
+            "// comment\n{\"a\":/* comment */1 # comment\n}",
+            "[1,,2]",
+            "{\"a\":1} {\"b\":2}",
+            ")]}'\n{\"a\":1}",
+    };
+
+    /**
+     * A Reader that returns one character at a time, so that every token crosses a buffer
+     * boundary.
+     */
+    private static final class TrickleReader extends StringReader {
+
+        TrickleReader(String s) {
+            super(s);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+    }
+
+    /**
+     * Reads the whole document, returning a description of every token and of the path after it.
+     */
+    private static List<String> readTokens(JsonReader reader) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        while (true) {
+            JsonToken token = reader.peek();
+            String value;
+            switch (token) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    value = "[";
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    value = "]";
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    value = "{";
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    value = "}";
+                    break;
+                case NAME:
+                    value = reader.nextName();
+                    break;
+                case STRING:
+                    value = reader.nextString();
+                    break;
+                case NUMBER:
+                    value = reader.nextString();
+                    break;
+                case BOOLEAN:
+                    value = String.valueOf(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    value = "null";
+                    break;
+                case END_DOCUMENT:
+                    return tokens;
+                default:
+                    throw new AssertionError(token);
+            }
+            tokens.add(token + " " + value + " " + reader.getPath());
+        }
+    }
+
+    private static void assertSameTokens(String json, boolean lenient) throws IOException {
+        JsonReader expectedReader = new JsonReader(new StringReader(json));
+        expectedReader.setLenient(lenient);
+        List<String> expected = readTokens(expectedReader);
+
+        StagJsonReader reader = new StagJsonReader(new StringReader(json));
+        reader.setLenient(lenient);
+        Assert.assertEquals(json, expected, readTokens(reader));
+
+        StagJsonReader trickleReader = new StagJsonReader(new TrickleReader(json));
+        trickleReader.setLenient(lenient);
+        Assert.assertEquals(json, expected, readTokens(trickleReader));
+    }
+
+    @Test
+    public void testTokensMatchJsonReader() throws Exception {
+        for (String document : DOCUMENTS) {
+            assertSameTokens(document, false);
+            assertSameTokens(document, true);
+        }
+    }
+
+    @Test
+    public void testLenientTokensMatchJsonReader() throws Exception {
+        for (String document : LENIENT_DOCUMENTS) {
+            assertSameTokens(document, true);
+        }
+    }
+
+    @Test
+    public void testLenientDocumentsFailInStrictMode() throws Exception {
+        for (String document : LENIENT_DOCUMENTS) {
+            try {
+                readTokens(new StagJsonReader(new StringReader(document)));
+                Assert.fail(document);
+            } catch (MalformedJsonException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testNextNameChars() throws Exception {
+        StagJsonReader reader = new StagJsonReader(new TrickleReader("{\"first\":1,\"sec\\u006fnd\":2}"));
+        reader.beginObject();
+
+        CharSequence name = reader.nextNameChars();
+        Assert.assertEquals("first", name.toString());
+        Assert.assertEquals(5, name.length());
+        Assert.assertEquals('f', name.charAt(0));
+        Assert.assertEquals("$.first", reader.getPath());
+        Assert.assertEquals(1, reader.nextInt());
+
+        Assert.assertEquals("second", reader.nextNameChars().toString());
+        Assert.assertEquals("$.second", reader.getPath());
+        Assert.assertEquals(2, reader.nextInt());
+        reader.endObject();
+        Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testNumbers() throws Exception {
+        StagJsonReader reader = new StagJsonReader(new StringReader("[1, \"2\", 3.0, -9223372036854775808, 1.5, \"x\"]"));
+        reader.beginArray();
+        Assert.assertEquals(1, reader.nextInt());
+        Assert.assertEquals(2L, reader.nextLong());
+        Assert.assertEquals(3, reader.nextInt());
+        Assert.assertEquals(Long.MIN_VALUE, reader.nextLong());
+        try {
+            reader.nextInt();
+            Assert.fail();
+        } catch (NumberFormatException expected) {
+            Assert.assertEquals(1.5, reader.nextDouble(), 0);
+        }
+        try {
+            reader.nextDouble();
+            Assert.fail();
+        } catch (NumberFormatException expected) {
+            // The string is still available after a failed conversion
+            Assert.assertEquals("x", reader.nextString());
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void testDoublesMatchParseDouble() throws Exception {
+        String[] numbers = {"0", "-0", "1", "-1.5", "0.1", "3.141592653589793", "123456789012345", "1234567890123456",
+                "0.000001", "-0.0", "9007199254740993", "1e3", "2.5E-3", "12345678901234567890", "1.7976931348623157e308"};
+        Random random = new Random(0);
+        List<String> values = new ArrayList<>(Arrays.asList(numbers));
+        for (int i = 0; i < 1000; i++) {
+            values.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(12) - 4)));
+            values.add(Long.toString(random.nextLong() % 1000000000000000L) + "." + random.nextInt(1000));
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (String value : values) {
+            json.append(json.length() > 1 ? "," : "").append(value);
+        }
+        StagJsonReader reader = new StagJsonReader(new StringReader(json.append(']').toString()));
+        reader.beginArray();
+        for (String value : values) {
+            double expected = Double.parseDouble(value);
+            double actual = reader.nextDouble();
+            Assert.assertEquals(value, Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void testNextStringChars() throws Exception {
+        StagJsonReader reader = new StagJsonReader(new StringReader("[\"a\\u0062\", 4.0, 'c', d]"));
+        reader.setLenient(true);
+        reader.beginArray();
+        Assert.assertEquals("ab", reader.nextStringChars().toString());
+        Assert.assertEquals("4.0", reader.nextStringChars().toString());
+        Assert.assertEquals("c", reader.nextStringChars().toString());
+        Assert.assertEquals("d", reader.nextStringChars().toString());
+        Assert.assertEquals("$[4]", reader.getPath());
+        reader.endArray();
+    }
+
+    @Test
+    public void testNextJsonTextCopiesValuesExactly() throws Exception {
+        for (String document : DOCUMENTS) {
+            Assert.assertEquals(document.trim(), new StagJsonReader(new StringReader(document)).nextJsonText());
+            Assert.assertEquals(document.trim(), new StagJsonReader(new TrickleReader(document)).nextJsonText());
+        }
+        String lenientDocument = "{a:1, 'b':'c'; d=2, e=>3 /* comment */}";
+        StagJsonReader lenientReader = new StagJsonReader(new TrickleReader(lenientDocument));
+        lenientReader.setLenient(true);
+        Assert.assertEquals(lenientDocument, lenientReader.nextJsonText());
+    }
+
+    @Test
+    public void testNextJsonTextConsumesOneValue() throws Exception {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            longString.append(i % 10);
+        }
+        String json = "{\"a\" : [1, \"\\u00e9\\/\"], \"b\":\"" + longString + "\", \"c\": true, \"d\": null, \"e\":2}";
+        StagJsonReader reader = new StagJsonReader(new StringReader(json));
+        reader.beginObject();
+        Assert.assertEquals("a", reader.nextName());
+        Assert.assertEquals("[1, \"\\u00e9\\/\"]", reader.nextJsonText());
+        Assert.assertEquals("b", reader.nextName());
+        Assert.assertEquals("\"" + longString + "\"", reader.nextJsonText());
+        Assert.assertEquals("c", reader.nextName());
+        Assert.assertEquals("true", reader.nextJsonText());
+        Assert.assertEquals("d", reader.nextName());
+        Assert.assertEquals("null", reader.nextJsonText());
+        Assert.assertEquals("$.d", reader.getPath());
+        Assert.assertEquals("e", reader.nextName());
+        Assert.assertEquals(2, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test
+    public void testSkipValue() throws Exception {
+        StagJsonReader reader = new StagJsonReader(new StringReader("{\"a\":{\"b\":[1,{\"c\":\"d\"}]},\"e\":2}"));
+        reader.beginObject();
+        Assert.assertEquals("a", reader.nextName());
+        reader.skipValue();
+        Assert.assertEquals("e", reader.nextName());
+        Assert.assertEquals(2, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongToken() throws Exception {
+        new StagJsonReader(new StringReader("[1]")).beginObject();
+    }
+
+    @Test
+    public void testReadsWithGsonTypeAdapters() throws Exception {
+        List<List<Integer>> lists = new Gson().getAdapter(new TypeToken<List<List<Integer>>>() {})
+                .read(new StagJsonReader(new StringReader("[[1,2],[]]")));
+        Assert.assertEquals(2, lists.size());
+        Assert.assertEquals(2, lists.get(0).size());
+    }
+
+    @Test
+    public void testStagMapTypeAdapterPromotesNames() throws Exception {
+        KnownTypeAdapters.MapTypeAdapter<Integer, String, Map<Integer, String>> adapter =
+                new KnownTypeAdapters.MapTypeAdapter<>(KnownTypeAdapters.INTEGER, TypeAdapters.STRING,
+                                                       new KnownTypeAdapters.MapInstantiator<Integer, String>());
+        Map<Integer, String> map = adapter.read(new StagJsonReader(new StringReader("{\"1\":\"a\",\"2\":\"b\"}")));
+        Assert.assertEquals("a", map.get(1));
+        Assert.assertEquals("b", map.get(2));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final boolean[] closed = new boolean[1];
+        Reader in = new StringReader("[]") {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        StagJsonReader reader = new StagJsonReader(in);
+        reader.close();
+        Assert.assertTrue(closed[0]);
+        try {
+            reader.peek();
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+    }
+}
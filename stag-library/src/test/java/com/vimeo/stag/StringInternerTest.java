@@ -0,0 +1,75 @@
+package com.vimeo.stag;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class StringInternerTest {
+
+    @Test
+    public void testInternCharsReturnsSameInstance() throws Exception {
+        StringInterner interner = new StringInterner(16, true);
+        char[] chars = "xavailablex".toCharArray();
+        String first = interner.intern(chars, 1, 9);
+        String second = interner.intern(chars, 1, 9);
+        Assert.assertEquals("available", first);
+        Assert.assertSame(first, second);
+        Assert.assertSame(first, interner.intern(new String("available")));
+        Assert.assertEquals(2, interner.getHits());
+        Assert.assertEquals(1, interner.getMisses());
+        Assert.assertEquals(2.0 / 3, interner.getHitRate(), 0);
+
+        interner.resetStats();
+        Assert.assertEquals(0, interner.getHits());
+        Assert.assertEquals(0, interner.getMisses());
+        Assert.assertEquals(0, interner.getHitRate(), 0);
+    }
+
+    @Test
+    public void testStatsAreNotRecordedByDefault() throws Exception {
+        StringInterner interner = new StringInterner(16);
+        String first = interner.intern(new String("available"));
+        Assert.assertSame(first, interner.intern(new String("available")));
+        Assert.assertFalse(interner.isRecordingStats());
+        Assert.assertEquals(0, interner.getHits());
+        Assert.assertEquals(0, interner.getMisses());
+        Assert.assertFalse(StringInterner.getDefault().isRecordingStats());
+    }
+
+    @Test
+    public void testCollisionsReplaceValues() throws Exception {
+        StringInterner interner = new StringInterner(1);
+        String first = interner.intern(new String("a"));
+        String second = interner.intern(new String("b"));
+        Assert.assertSame(second, interner.intern(new String("b")));
+        Assert.assertNotSame(first, interner.intern(new String("a")));
+    }
+
+    @Test
+    public void testLongValuesAreNotKept() throws Exception {
+        StringInterner interner = new StringInterner(16, true);
+        char[] chars = new char[StringInterner.MAX_LENGTH + 1];
+        Assert.assertNotSame(interner.intern(chars, 0, chars.length), interner.intern(chars, 0, chars.length));
+        Assert.assertEquals(0, interner.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() throws Exception {
+        new StringInterner(0);
+    }
+
+    @Test
+    public void testStagJsonReaderInternsValues() throws Exception {
+        StringInterner interner = new StringInterner(16, true);
+        StagJsonReader reader = new StagJsonReader(new StringReader("[\"ok\", \"o\\u006b\", 1.5, \"ok\"]"));
+        reader.beginArray();
+        String first = reader.nextString(interner);
+        Assert.assertEquals("ok", first);
+        Assert.assertSame(first, reader.nextString(interner));
+        Assert.assertEquals("1.5", reader.nextString(interner));
+        Assert.assertSame(first, reader.nextString(interner));
+        reader.endArray();
+        Assert.assertEquals(2, interner.getHits());
+    }
+}
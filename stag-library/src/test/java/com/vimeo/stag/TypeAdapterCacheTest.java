@@ -0,0 +1,60 @@
+package com.vimeo.stag;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+public class TypeAdapterCacheTest {
+
+    @Test
+    public void testTypesAreComparedCanonically() throws Exception {
+        TypeAdapterCache cache = new TypeAdapterCache(4);
+        Gson gson = new Gson();
+        TypeToken<List<String>> typeToken = new TypeToken<List<String>>() {};
+        TypeAdapter<List<String>> typeAdapter = gson.getAdapter(typeToken);
+
+        Assert.assertSame(typeAdapter, cache.putIfAbsent(gson, typeToken, typeAdapter));
+
+        // A type token built from a different Type instance finds the same entry
+        Type type = TypeToken.getParameterized(List.class, String.class).getType();
+        Assert.assertSame(typeAdapter, cache.get(gson, TypeToken.get(type)));
+        Assert.assertSame(typeAdapter, cache.putIfAbsent(gson, typeToken, gson.getAdapter(typeToken)));
+    }
+
+    @Test
+    public void testEntriesAreKeyedByGson() throws Exception {
+        TypeAdapterCache cache = new TypeAdapterCache(4);
+        Gson gson = new Gson();
+        TypeToken<List<String>> typeToken = new TypeToken<List<String>>() {};
+        cache.putIfAbsent(gson, typeToken, gson.getAdapter(typeToken));
+
+        Assert.assertNull(cache.get(new Gson(), typeToken));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        TypeAdapterCache cache = new TypeAdapterCache(2);
+        Gson gson = new Gson();
+        Class<?>[] classes = {String.class, Integer.class, Long.class, Double.class};
+        for (Class<?> clazz : classes) {
+            putAdapter(cache, gson, TypeToken.get(clazz));
+            Assert.assertTrue(cache.size() <= 2);
+        }
+        Assert.assertNotNull(cache.get(gson, TypeToken.get(Double.class)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSizeMustBePositive() throws Exception {
+        new TypeAdapterCache(0);
+    }
+
+    private static <T> void putAdapter(TypeAdapterCache cache, Gson gson, TypeToken<T> typeToken) {
+        cache.putIfAbsent(gson, typeToken, gson.getAdapter(typeToken));
+    }
+}
@@ -0,0 +1,101 @@
+package com.vimeo.stag;
+
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+import java.util.Map;
+
+public class TypesTest {
+
+    @SuppressWarnings("unused")
+    private static class Fields {
+        Map<String, List<Integer>> map;
+        List<? extends Number> extendsList;
+        List<? super Integer> superList;
+        List<?> unboundedList;
+        List<String>[] arrayOfLists;
+        Map.Entry<String, Integer> entry;
+    }
+
+    private static Type getFieldType(String name) throws Exception {
+        return Fields.class.getDeclaredField(name).getGenericType();
+    }
+
+    private static void assertEqualTypes(Type expected, Type actual) {
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void testParameterizedTypeEqualsReflectionType() throws Exception {
+        ParameterizedType type = Types.getParameterizedType(null, Map.class, String.class,
+                                                            Types.getParameterizedType(null, List.class, Integer.class));
+        assertEqualTypes(getFieldType("map"), type);
+        Assert.assertEquals("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>", type.toString());
+    }
+
+    @Test
+    public void testNestedParameterizedTypeHasOwner() throws Exception {
+        ParameterizedType type = Types.getParameterizedType(null, Map.Entry.class, String.class, Integer.class);
+        Assert.assertEquals(Map.class, type.getOwnerType());
+        assertEqualTypes(getFieldType("entry"), type);
+    }
+
+    @Test
+    public void testWildcardTypesEqualReflectionTypes() throws Exception {
+        WildcardType extendsType = Types.getWildcardType(new Type[]{Number.class}, new Type[]{});
+        assertEqualTypes(getFieldType("extendsList"), Types.getParameterizedType(null, List.class, extendsType));
+        Assert.assertEquals("? extends java.lang.Number", extendsType.toString());
+
+        WildcardType superType = Types.getWildcardType(new Type[]{}, new Type[]{Integer.class});
+        assertEqualTypes(getFieldType("superList"), Types.getParameterizedType(null, List.class, superType));
+        Assert.assertEquals("? super java.lang.Integer", superType.toString());
+
+        WildcardType unboundedType = Types.getWildcardType(new Type[]{}, new Type[]{});
+        assertEqualTypes(getFieldType("unboundedList"), Types.getParameterizedType(null, List.class, unboundedType));
+        Assert.assertEquals("?", unboundedType.toString());
+    }
+
+    @Test
+    public void testGenericArrayTypeEqualsReflectionType() throws Exception {
+        GenericArrayType type = Types.getGenericArrayType(Types.getParameterizedType(null, List.class, String.class));
+        assertEqualTypes(getFieldType("arrayOfLists"), type);
+    }
+
+    @Test
+    public void testTypesAreInterned() throws Exception {
+        Assert.assertSame(Types.getParameterizedType(null, List.class, String.class),
+                          Types.getParameterizedType(null, List.class, String.class));
+        Assert.assertSame(Types.getWildcardType(new Type[]{Number.class}, new Type[]{}),
+                          Types.getWildcardType(new Type[]{Number.class}, new Type[]{}));
+        Assert.assertSame(Types.getGenericArrayType(String.class), Types.getGenericArrayType(String.class));
+    }
+
+    @Test
+    public void testTypesBeyondTheCapacityReplaceInternedTypes() throws Exception {
+        Type type = String.class;
+        for (int i = 0; i < Types.INTERNED_TYPES_CAPACITY * 2; i++) {
+            Type arrayType = Types.getGenericArrayType(type);
+            Assert.assertEquals(type, ((GenericArrayType) arrayType).getGenericComponentType());
+            type = arrayType;
+        }
+        Assert.assertSame(Types.getParameterizedType(null, List.class, Integer.class),
+                          Types.getParameterizedType(null, List.class, Integer.class));
+    }
+
+    @Test
+    public void testTypeTokensOfEqualTypesAreEqual() throws Exception {
+        TypeToken<?> typeToken = TypeToken.get(Types.getParameterizedType(null, List.class,
+                                                                          Types.getWildcardType(new Type[]{Number.class}, new Type[]{})));
+        assertEqualTypes(TypeToken.get(getFieldType("extendsList")).getType(), typeToken.getType());
+        Assert.assertEquals(TypeToken.get(getFieldType("extendsList")), typeToken);
+    }
+}